@@ -0,0 +1,71 @@
+package banco.bench;
+
+import banco.modelo.Cliente;
+import banco.negocio.GerenciadorClientes;
+import banco.negocio.GerenciadorContas;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Consultas do GerenciadorClientes: busca por CPF e busca por substring.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class BenchmarkClientes {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int tamanho;
+
+    private GerenciadorClientes gerenciadorClientes;
+    private String[] cpfs; // CPFs existentes, sorteados.
+    private String[] termos; // Trechos de sobrenome/RG de clientes existentes, sorteados.
+    private int proxima;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        gerenciadorClientes = DadosSinteticos.montar(tamanho, new GerenciadorContas());
+        Random sorteio = new Random(DadosSinteticos.SEMENTE + 1);
+        int[] indices = DadosSinteticos.indices(tamanho, sorteio);
+        List<Cliente> clientes = gerenciadorClientes.listarTodos();
+        cpfs = new String[indices.length];
+        termos = new String[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            Cliente c = clientes.get(indices[i]);
+            cpfs[i] = c.getCpf();
+            String origem = i % 2 == 0 ? c.getSobrenome() : c.getRg(); // Metade com muitos resultados, metade com poucos.
+            int inicio = sorteio.nextInt(origem.length() - 3);
+            termos[i] = origem.substring(inicio, inicio + 4);
+        }
+    }
+
+    // Próxima posição das chaves sorteadas (em ciclo).
+    private int proxima() {
+        return proxima = (proxima + 1) & (DadosSinteticos.CONSULTAS - 1);
+    }
+
+    @Benchmark
+    public Cliente buscarPorCpf() {
+        return gerenciadorClientes.buscarPorCpf(cpfs[proxima()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Cliente> buscar() {
+        return gerenciadorClientes.buscar(termos[proxima()]);
+    }
+}
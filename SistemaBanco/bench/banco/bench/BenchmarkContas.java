@@ -0,0 +1,147 @@
+package banco.bench;
+
+import banco.modelo.Cliente;
+import banco.modelo.Conta;
+import banco.modelo.ContaCorrente;
+import banco.modelo.ContaInvestimento;
+import banco.modelo.ResultadoOperacao;
+import banco.negocio.GerenciadorClientes;
+import banco.negocio.GerenciadorContas;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Consultas e operações do GerenciadorContas: busca da conta pelo CPF, exclusão em cascata
+// e os caminhos de saque, depósito e remuneração (pelos wrappers do gerenciador, os mesmos usados pelas telas).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class BenchmarkContas {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int tamanho;
+
+    private GerenciadorContas gerenciadorContas;
+    private List<Cliente> clientes;
+    private String[] cpfs; // CPFs existentes, sorteados.
+    private Conta[] contas; // Contas existentes, sorteadas.
+    private int proxima;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        gerenciadorContas = new GerenciadorContas();
+        GerenciadorClientes gerenciadorClientes = DadosSinteticos.montar(tamanho, gerenciadorContas);
+        clientes = gerenciadorClientes.listarTodos();
+        int[] indices = DadosSinteticos.indices(tamanho, new Random(DadosSinteticos.SEMENTE + 2));
+        cpfs = new String[indices.length];
+        contas = new Conta[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            cpfs[i] = clientes.get(indices[i]).getCpf();
+            contas[i] = gerenciadorContas.buscarContaPorCpfCliente(cpfs[i]);
+        }
+    }
+
+    // A cada iteração os saldos voltam a um valor alto, para que saques nunca sejam recusados por falta de saldo.
+    // As contas são buscadas de novo porque a medição da exclusão troca as contas sorteadas por contas recriadas.
+    @Setup(Level.Iteration)
+    public void restaurarSaldos() {
+        for (int i = 0; i < contas.length; i++) {
+            contas[i] = gerenciadorContas.buscarContaPorCpfCliente(cpfs[i]);
+            contas[i].restauraSaldo(DadosSinteticos.SALDO_INICIAL);
+        }
+    }
+
+    // Próxima posição das chaves sorteadas (em ciclo).
+    private int proxima() {
+        return proxima = (proxima + 1) & (DadosSinteticos.CONSULTAS - 1);
+    }
+
+    @Benchmark
+    public Conta buscarContaPorCpfCliente() {
+        return gerenciadorContas.buscarContaPorCpfCliente(cpfs[proxima()]);
+    }
+
+    @Benchmark
+    public ResultadoOperacao sacar() {
+        return gerenciadorContas.sacar(contas[proxima()], 1);
+    }
+
+    @Benchmark
+    public ResultadoOperacao depositar() {
+        return gerenciadorContas.depositar(contas[proxima()], 1_000_000); // Acima do depósito mínimo da conta investimento.
+    }
+
+    // Remunera e restaura o saldo na mesma operação: sem isso, milhões de remunerações seguidas
+    // na mesma conta estourariam o long. A restauração é uma única escrita e não muda a ordem de grandeza.
+    @Benchmark
+    public long remunerar() {
+        Conta conta = contas[proxima()];
+        gerenciadorContas.remunerar(conta);
+        long saldo = conta.getSaldo();
+        conta.restauraSaldo(DadosSinteticos.SALDO_INICIAL);
+        return saldo;
+    }
+
+    // Estado separado para a exclusão, que precisa preparar e desfazer cada invocação;
+    // assim o custo desses passos por invocação não afeta os demais benchmarks da classe.
+    @State(Scope.Benchmark)
+    public static class Exclusao {
+        private final Random sorteio = new Random(DadosSinteticos.SEMENTE + 3);
+        private Cliente cliente; // Cliente cujas contas são excluídas na próxima invocação.
+        private final List<Supplier<Conta>> recriacoes = new ArrayList<>(); // Recriam as contas dele depois.
+
+        // Sorteia o cliente e guarda os dados das contas dele.
+        // A exclusão libera as linhas das contas no armazém, então as mesmas contas não podem ser readicionadas:
+        // no fim da invocação são criadas contas novas com o mesmo número, saldo e parâmetros.
+        @Setup(Level.Invocation)
+        public void sortear(BenchmarkContas estado) {
+            cliente = estado.clientes.get(sorteio.nextInt(estado.clientes.size()));
+            recriacoes.clear();
+            for (Conta conta : estado.gerenciadorContas.buscarContasPorCpfCliente(cliente.getCpf())) {
+                int numero = conta.getNumero();
+                long saldo = conta.getSaldo();
+                if (conta instanceof ContaCorrente cc) {
+                    long limite = cc.getLimite();
+                    recriacoes.add(() -> new ContaCorrente(numero, cliente, saldo, limite));
+                } else {
+                    ContaInvestimento ci = (ContaInvestimento) conta;
+                    long montanteMinimo = ci.getMontanteMinimo();
+                    long depositoMinimo = ci.getDepositoMinimo();
+                    recriacoes.add(() -> new ContaInvestimento(numero, cliente, saldo, montanteMinimo, depositoMinimo));
+                }
+            }
+        }
+
+        // Recria as contas excluídas, para que o tamanho não diminua ao longo da medição.
+        @TearDown(Level.Invocation)
+        public void recriar(BenchmarkContas estado) {
+            for (Supplier<Conta> recriacao : recriacoes) {
+                estado.gerenciadorContas.adicionar(recriacao.get());
+            }
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void excluirContasDoCliente(Exclusao exclusao) {
+        gerenciadorContas.excluirContasDoCliente(exclusao.cliente);
+    }
+}
@@ -0,0 +1,64 @@
+package banco.bench;
+
+import banco.modelo.Cliente;
+import banco.negocio.GerenciadorClientes;
+import banco.negocio.GerenciadorContas;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Ordenação da lista completa de clientes pelos três campos da tela (nome, sobrenome e saldo).
+// paginaOrdenada mede o caminho da tela: a visão lida dos índices de ordenação e a primeira página dela.
+// ordenarCopia mede a ordenação completa de uma cópia da lista (o caminho usado para resultados de busca).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class BenchmarkOrdenacao {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int tamanho;
+
+    @Param({"nome", "sobrenome", "salário"})
+    public String campo;
+
+    private static final int TAMANHO_PAGINA = 50; // Linhas visíveis na tabela.
+
+    private GerenciadorClientes gerenciadorClientes;
+    private List<Cliente> copia;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        gerenciadorClientes = DadosSinteticos.montar(tamanho, new GerenciadorContas());
+        copia = new ArrayList<>(gerenciadorClientes.listarTodos());
+    }
+
+    @Benchmark
+    public Cliente[] paginaOrdenada() {
+        List<Cliente> ordenada = gerenciadorClientes.ordenar(campo);
+        Cliente[] pagina = new Cliente[Math.min(TAMANHO_PAGINA, ordenada.size())];
+        for (int i = 0; i < pagina.length; i++) {
+            pagina[i] = ordenada.get(i);
+        }
+        return pagina;
+    }
+
+    @Benchmark
+    public List<Cliente> ordenarCopia() {
+        return gerenciadorClientes.ordenar(campo, copia);
+    }
+}
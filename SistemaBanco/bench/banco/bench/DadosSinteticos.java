@@ -0,0 +1,75 @@
+package banco.bench;
+
+import banco.modelo.Cliente;
+import banco.modelo.Conta;
+import banco.modelo.ContaCorrente;
+import banco.modelo.ContaInvestimento;
+import banco.negocio.GerenciadorClientes;
+import banco.negocio.GerenciadorContas;
+import java.util.Random;
+
+// Gera clientes e contas sintéticos para os benchmarks. Com a mesma semente os dados são sempre os mesmos,
+// então duas execuções (antes e depois de uma mudança) medem exatamente o mesmo cenário.
+final class DadosSinteticos {
+
+    static final long SEMENTE = 42;
+    static final int CONSULTAS = 1 << 12; // Quantidade de chaves de consulta pré-sorteadas (potência de 2).
+    static final long SALDO_INICIAL = 100_000_000_000L; // 1 bilhão de reais em centavos: saques de 1 centavo nunca esgotam.
+
+    private static final String[] NOMES = {"Amanda", "Eduardo", "Guilherme", "Beatriz", "Carlos", "Daniela", "Fernanda",
+        "Gabriel", "Helena", "Igor", "Juliana", "Lucas", "Mariana", "Nicolas", "Otávio", "Paula", "Rafael", "Sofia", "Tiago", "Vitória"};
+    private static final String[] SOBRENOMES = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves",
+        "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares", "Fernandes", "Vieira", "Barbosa"};
+
+    // Classe utilitária: não deve ser instanciada.
+    private DadosSinteticos() {
+    }
+
+    // Cria n clientes com CPFs distintos e nomes/sobrenomes/RGs sorteados.
+    static Cliente[] clientes(int n, Random sorteio) {
+        Cliente[] clientes = new Cliente[n];
+        for (int i = 0; i < n; i++) {
+            String nome = NOMES[sorteio.nextInt(NOMES.length)];
+            String sobrenome = SOBRENOMES[sorteio.nextInt(SOBRENOMES.length)] + " " + SOBRENOMES[sorteio.nextInt(SOBRENOMES.length)];
+            String rg = String.valueOf(1_000_000 + sorteio.nextInt(9_000_000));
+            clientes[i] = new Cliente(nome, sobrenome, rg, cpf(i), "Rua " + sorteio.nextInt(10_000));
+        }
+        return clientes;
+    }
+
+    // Cria uma conta por cliente, alternando corrente e investimento, com saldos sorteados.
+    static Conta[] contas(Cliente[] clientes, Random sorteio) {
+        Conta[] contas = new Conta[clientes.length];
+        for (int i = 0; i < clientes.length; i++) {
+            long saldo = 100_000 + sorteio.nextInt(10_000_000);
+            contas[i] = i % 2 == 0
+                    ? new ContaCorrente(1000 + i, clientes[i], saldo, 50_000)
+                    : new ContaInvestimento(1000 + i, clientes[i], saldo, 100_000, 10_000);
+        }
+        return contas;
+    }
+
+    // CPF (11 dígitos) do i-ésimo cliente sintético.
+    static String cpf(int i) {
+        return String.valueOf(10_000_000_000L + i);
+    }
+
+    // Monta os dois gerenciadores com n clientes e n contas pela carga em lote.
+    static GerenciadorClientes montar(int n, GerenciadorContas gerenciadorContas) {
+        Random sorteio = new Random(SEMENTE);
+        Cliente[] clientes = clientes(n, sorteio);
+        GerenciadorClientes gerenciadorClientes = new GerenciadorClientes(gerenciadorContas);
+        gerenciadorClientes.carregar(clientes);
+        gerenciadorContas.carregar(contas(clientes, sorteio));
+        return gerenciadorClientes;
+    }
+
+    // Sorteia CONSULTAS índices de clientes entre 0 e n-1.
+    static int[] indices(int n, Random sorteio) {
+        int[] indices = new int[CONSULTAS];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = sorteio.nextInt(n);
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,176 @@
+package banco.bench;
+
+import banco.modelo.Cliente;
+import banco.modelo.Conta;
+import banco.modelo.ContaCorrente;
+import banco.modelo.ContaInvestimento;
+import banco.modelo.ResultadoOperacao;
+import banco.negocio.GerenciadorContas;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Teste de estresse (não é um benchmark JMH): várias threads fazem depósitos, saques e transferências
+// ao mesmo tempo em poucas contas, pelos métodos do GerenciadorContas, e confere que
+// - nenhum saldo passa do piso (a conta corrente não desce abaixo de -limite, e a investimento não desce do
+//   montante mínimo): uma thread fiscal confere isso durante toda a rodada, e de novo no fim;
+// - no fim, a soma dos saldos é a inicial mais os depósitos menos os saques aceitos (transferências não criam nem somem dinheiro).
+// Cada rodada roda duas vezes: com as operações espalhadas pelas contas, e concentradas na primeira conta
+// (todo depósito e saque nela, e toda transferência sai dela ou chega nela), a disputa mais forte por uma linha.
+// Cada thread sorteia as operações com a semente fixa mais o seu número, então a sequência de operações
+// é sempre a mesma; só a intercalação entre as threads muda de uma execução para outra.
+// Uso: ant estresse -Destresse.args="contas threads operações rodadas" (todos opcionais; pelo menos 2 contas,
+// para haver transferências). Sai com código 1 se falhar.
+public final class EstresseConcorrente {
+
+    private static final long SALDO_INICIAL = 1_000_000; // R$ 10.000,00 por conta.
+    private static final int VALOR_MAXIMO = 50_000; // Operações de até R$ 500,00: saques e transferências às vezes são recusados.
+    private static final long MONTANTE_MINIMO = 100_000;
+    private static final long DEPOSITO_MINIMO = 10_000;
+    private static final long LIMITE = 200_000; // Limite das contas correntes: saques além do saldo são aceitos até aqui.
+
+    private EstresseConcorrente() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int contas = Math.max(2, argumento(args, 0, 16)); // Poucas contas: as threads disputam as mesmas linhas.
+        int threads = argumento(args, 1, Runtime.getRuntime().availableProcessors() * 2);
+        int operacoes = argumento(args, 2, 200_000); // Por thread.
+        int rodadas = argumento(args, 3, 5);
+        for (int rodada = 1; rodada <= rodadas; rodada++) {
+            for (boolean concentrado : new boolean[] {false, true}) {
+                String modo = concentrado ? "concentradas na primeira conta" : "espalhadas";
+                String erro = rodar(contas, threads, operacoes, concentrado, DadosSinteticos.SEMENTE + rodada);
+                if (erro != null) {
+                    System.out.println("Rodada " + rodada + " (" + modo + "): FALHOU - " + erro);
+                    System.exit(1);
+                }
+                System.out.println("Rodada " + rodada + " (" + modo + "): ok (" + contas + " contas, " + threads + " threads, "
+                        + operacoes + " operações por thread)");
+            }
+        }
+    }
+
+    // Executa uma rodada e retorna a descrição da falha, ou null se os saldos conferem.
+    private static String rodar(int quantidadeContas, int threads, int operacoes, boolean concentrado, long semente)
+            throws InterruptedException {
+        GerenciadorContas gerenciadorContas = new GerenciadorContas();
+        Cliente[] clientes = DadosSinteticos.clientes(quantidadeContas, new Random(semente));
+        Conta[] contas = new Conta[quantidadeContas];
+        for (int i = 0; i < contas.length; i++) {
+            contas[i] = i % 2 == 0
+                    ? new ContaCorrente(1000 + i, clientes[i], SALDO_INICIAL, LIMITE)
+                    : new ContaInvestimento(1000 + i, clientes[i], SALDO_INICIAL, MONTANTE_MINIMO, DEPOSITO_MINIMO);
+            gerenciadorContas.adicionar(contas[i]);
+        }
+
+        AtomicLong depositado = new AtomicLong();
+        AtomicLong sacado = new AtomicLong();
+        AtomicReference<Throwable> excecao = new AtomicReference<>();
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> trabalhadores = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Random sorteio = new Random(semente * 31 + t);
+            Thread trabalhador = new Thread(() -> {
+                try {
+                    largada.await();
+                    long depositos = 0;
+                    long saques = 0;
+                    for (int i = 0; i < operacoes; i++) {
+                        Conta conta = concentrado ? contas[0] : contas[sorteio.nextInt(contas.length)];
+                        long valor = DEPOSITO_MINIMO + sorteio.nextInt(VALOR_MAXIMO);
+                        switch (sorteio.nextInt(3)) {
+                            case 0:
+                                if (gerenciadorContas.depositar(conta, valor) == ResultadoOperacao.SUCESSO) {
+                                    depositos += valor;
+                                }
+                                break;
+                            case 1:
+                                if (gerenciadorContas.sacar(conta, valor) == ResultadoOperacao.SUCESSO) {
+                                    saques += valor;
+                                }
+                                break;
+                            default:
+                                Conta outra = contas[1 + sorteio.nextInt(contas.length - 1)];
+                                if (concentrado && sorteio.nextBoolean()) {
+                                    gerenciadorContas.transferir(outra, conta, valor); // Chega na conta disputada.
+                                } else if (outra != conta) {
+                                    gerenciadorContas.transferir(conta, outra, valor);
+                                }
+                                break;
+                        }
+                    }
+                    depositado.addAndGet(depositos);
+                    sacado.addAndGet(saques);
+                } catch (Throwable e) {
+                    excecao.compareAndSet(null, e);
+                }
+            }, "estresse-" + t);
+            trabalhadores.add(trabalhador);
+            trabalhador.start();
+        }
+        // Fiscal: confere os pisos enquanto as threads trabalham. A soma não dá para conferir aqui,
+        // porque uma transferência em andamento já debitou a origem e ainda não creditou o destino.
+        AtomicBoolean terminou = new AtomicBoolean();
+        AtomicReference<String> violacao = new AtomicReference<>();
+        Thread fiscal = new Thread(() -> {
+            while (!terminou.get() && violacao.get() == null) {
+                for (Conta conta : contas) {
+                    String erro = conferirPiso(conta);
+                    if (erro != null) {
+                        violacao.compareAndSet(null, erro + " durante a rodada");
+                        break;
+                    }
+                }
+                Thread.yield();
+            }
+        }, "estresse-fiscal");
+        fiscal.start();
+
+        largada.countDown();
+        for (Thread trabalhador : trabalhadores) {
+            trabalhador.join();
+        }
+        terminou.set(true);
+        fiscal.join();
+
+        if (excecao.get() != null) {
+            return "exceção em uma das threads: " + excecao.get();
+        }
+        if (violacao.get() != null) {
+            return violacao.get();
+        }
+        long total = 0;
+        for (Conta conta : contas) {
+            String erro = conferirPiso(conta);
+            if (erro != null) {
+                return erro;
+            }
+            total += conta.getSaldo();
+        }
+        long esperado = SALDO_INICIAL * contas.length + depositado.get() - sacado.get();
+        if (total != esperado) {
+            return "soma dos saldos " + total + ", esperada " + esperado + " (diferença " + (total - esperado) + ")";
+        }
+        return null;
+    }
+
+    // Retorna a descrição da falha se o saldo da conta está abaixo do piso do seu tipo, ou null.
+    private static String conferirPiso(Conta conta) {
+        long saldo = conta.getSaldo();
+        if (conta instanceof ContaInvestimento) {
+            return saldo < MONTANTE_MINIMO
+                    ? "a conta " + conta.getNumero() + " ficou abaixo do montante mínimo (" + saldo + ")" : null;
+        }
+        return saldo < -LIMITE
+                ? "a conta " + conta.getNumero() + " passou do limite (saldo " + saldo + ", limite " + LIMITE + ")" : null;
+    }
+
+    private static int argumento(String[] args, int posicao, int padrao) {
+        return args.length > posicao ? Integer.parseInt(args[posicao]) : padrao;
+    }
+}
@@ -0,0 +1,34 @@
+package banco.apresentacao;
+
+import banco.modelo.Cliente;
+import java.util.List;
+
+// Fonte paginada de clientes usada pelo ModeloTabelaCliente.
+// A tabela pede apenas o total e as páginas que ficam visíveis, nunca a lista inteira,
+// então a fonte pode estar em memória, em um índice ou ser calculada sob demanda.
+public interface FonteClientes {
+
+    // Quantidade total de clientes (linhas da tabela).
+    int total();
+
+    // Copia para o destino os clientes [inicio, inicio + quantidade). A faixa é sempre válida.
+    void pagina(int inicio, int quantidade, Cliente[] destino);
+
+    // Fonte sobre uma lista já montada (ex: resultado de busca ou de ordenação).
+    // A lista não é copiada: alterações nela só aparecem na tabela quando a fonte for definida de novo.
+    static FonteClientes daLista(List<Cliente> lista) {
+        return new FonteClientes() {
+            @Override
+            public int total() {
+                return lista.size();
+            }
+
+            @Override
+            public void pagina(int inicio, int quantidade, Cliente[] destino) {
+                for (int i = 0; i < quantidade; i++) {
+                    destino[i] = lista.get(inicio + i);
+                }
+            }
+        };
+    }
+}
@@ -1,36 +1,231 @@
 package banco.apresentacao;
 
 import banco.modelo.Cliente;
+import banco.negocio.EventoAlteracao;
+import banco.negocio.GerenciadorClientes;
+import banco.negocio.ListaComLapides;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
 import javax.swing.table.AbstractTableModel;
-import javax.swing.text.MaskFormatter;
 
 // Implementação de AbstractTableModel para fornecer o modelo de dados
 // (lista de objetos Cliente) para a JTable na TelaClientes.
+// Os dados vêm de uma FonteClientes paginada: o modelo guarda só uma janela de linhas em torno
+// da área visível, com o CPF já formatado, então rolar e repintar a tabela não cria objetos,
+// e o custo não depende do total de clientes (a JTable só pede as linhas que vai desenhar).
+//
+// Quando acompanha um GerenciadorClientes e exibe a lista completa (exibirTodos), a tabela segue os eventos
+// de alteração dele: cada inclusão, exclusão ou alteração vira um fireTableRowsInserted/Deleted/Updated
+// da linha, sem recarregar a lista. Os eventos chegam de qualquer thread e são juntados numa fila;
+// uma única tarefa na EDT aplica todos os que chegaram até ela rodar, então uma rajada de alterações
+// custa uma repintura, e não uma por evento.
 public class ModeloTabelaCliente extends AbstractTableModel {
 
-    private List<Cliente> clientes; // Lista de dados
+    private static final int TAMANHO_JANELA = 512; // Linhas mantidas em memória (várias telas de altura).
+    private static final int LIMITE_EVENTOS = 256; // Acima disso, a rajada vira uma troca de fonte só (ver aplicarEventos).
+
+    private FonteClientes fonte; // Origem dos dados
+    private int total; // Número de linhas, lido da fonte quando ela é definida
     private final String[] colunas = {"Nome", "Sobrenome", "RG", "CPF", "Endereço"};
 
+    // Janela de linhas carregadas: [inicioJanela, inicioJanela + tamanhoJanela).
+    private final Cliente[] janela = new Cliente[TAMANHO_JANELA];
+    private final String[] cpfsJanela = new String[TAMANHO_JANELA]; // CPF formatado de cada linha da janela
+    private int inicioJanela;
+    private int tamanhoJanela; // 0 = janela vazia (precisa carregar)
+
+    // Acompanhamento das alterações do gerenciador.
+    private GerenciadorClientes acompanhado; // null = a tabela não segue nenhum gerenciador
+    private final EventoAlteracao.Ouvinte<Cliente> ouvinte = this::receber;
+    private final ConcurrentLinkedQueue<EventoAlteracao<Cliente>> eventos = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean aplicacaoAgendada = new AtomicBoolean(); // Já há uma tarefa na EDT para a fila
+    private long versaoExibida = -1; // Número da versão de listarTodos exibida; -1 = exibe outra lista (busca, ordenação)
+
     // Construtor do modelo.
-    // Inicializa a lista de dados com a lista fornecida.
+    // Inicializa a fonte de dados com a lista fornecida.
     public ModeloTabelaCliente(List<Cliente> clientes) {
-        this.clientes = clientes;
+        this(FonteClientes.daLista(clientes));
+    }
+
+    // Construtor do modelo a partir de uma fonte paginada.
+    public ModeloTabelaCliente(FonteClientes fonte) {
+        this.fonte = fonte;
+        this.total = fonte.total();
+    }
+
+    // Construtor do modelo que exibe todos os clientes do gerenciador e acompanha as alterações dele.
+    public ModeloTabelaCliente(GerenciadorClientes gerenciador) {
+        this(FonteClientes.daLista(Collections.emptyList()));
+        acompanhar(gerenciador);
+    }
+
+    // Passa a seguir os eventos do gerenciador e exibe a lista completa dele.
+    public void acompanhar(GerenciadorClientes gerenciador) {
+        pararDeAcompanhar();
+        acompanhado = gerenciador;
+        gerenciador.adicionarOuvinte(ouvinte); // Antes de tirar a versão: nenhum evento posterior a ela se perde.
+        exibirTodos();
+    }
+
+    // Deixa de seguir o gerenciador (ex: a tela foi fechada). A lista exibida continua como está.
+    public void pararDeAcompanhar() {
+        if (acompanhado != null) {
+            acompanhado.removerOuvinte(ouvinte);
+            acompanhado = null;
+            eventos.clear();
+            versaoExibida = -1;
+        }
+    }
+
+    // Exibe a versão atual da lista completa do gerenciador acompanhado; a partir daí a tabela segue os eventos.
+    public void exibirTodos() {
+        ListaComLapides.Versao<Cliente> versao = acompanhado.listarTodos();
+        trocarFonte(FonteClientes.daLista(versao), versao.getNumero());
+    }
+
+    // Retorna true se a tabela exibe a lista completa e a mantém em dia pelos eventos.
+    public boolean isExibindoTodos() {
+        return versaoExibida >= 0;
     }
 
     // Atualiza a lista de dados e notifica a JTable sobre a mudança.
     public void setClientes(List<Cliente> novaLista) {
-        this.clientes = novaLista; // Atualiza a lista de clientes
-        
-        // Notifica a JTable que a estrutura/dados completos mudaram
-        fireTableDataChanged();
+        setFonte(FonteClientes.daLista(novaLista));
+    }
+
+    // Troca a fonte de dados. Em vez de um fireTableDataChanged (que refaz tudo na JTable),
+    // avisa quais linhas mudaram: as que continuam existindo foram atualizadas, e a diferença
+    // no final foi inserida ou removida. A JTable só repinta o que estiver visível.
+    // A nova fonte não segue os eventos do gerenciador: inclusões e exclusões não aparecem nela.
+    public void setFonte(FonteClientes novaFonte) {
+        trocarFonte(novaFonte, -1);
+    }
+
+    // Troca a fonte (ver setFonte), guardando a versão da lista completa que ela exibe (-1 se não for uma).
+    private void trocarFonte(FonteClientes novaFonte, long versao) {
+        int totalAntigo = total;
+        this.fonte = novaFonte;
+        this.total = novaFonte.total();
+        this.versaoExibida = versao;
+        descartarJanela();
+
+        int comuns = Math.min(totalAntigo, total);
+        if (total < totalAntigo) {
+            fireTableRowsDeleted(total, totalAntigo - 1);
+        } else if (total > totalAntigo) {
+            fireTableRowsInserted(totalAntigo, total - 1);
+        }
+        if (comuns > 0) {
+            fireTableRowsUpdated(0, comuns - 1);
+        }
     }
 
-    // Retorna o tamanho da lista de dados (número de linhas).
+    // Avisa que a fonte atual ganhou linhas no final (ex: resultados de uma busca chegando aos poucos).
+    // As linhas já existentes não mudaram, então a janela carregada continua válida.
+    public void atualizarTotal() {
+        int totalAntigo = total;
+        total = fonte.total();
+        if (total > totalAntigo) {
+            fireTableRowsInserted(totalAntigo, total - 1);
+        }
+    }
+
+    // Recebe um evento do gerenciador, em qualquer thread, e agenda a aplicação na EDT se ainda não houver uma.
+    private void receber(EventoAlteracao<Cliente> evento) {
+        eventos.add(evento);
+        if (aplicacaoAgendada.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::aplicarEventos);
+        }
+    }
+
+    // Aplica, na EDT, todos os eventos que chegaram desde a última vez.
+    // Inclusões e exclusões viram eventos de linha, na ordem em que aconteceram; as já contidas na versão
+    // exibida são ignoradas. Uma rajada maior que LIMITE_EVENTOS (ex: importação em lote) ou uma recarga
+    // troca a fonte de uma vez pela versão mais nova, como setFonte. Alterações repintam só as linhas carregadas.
+    private void aplicarEventos() {
+        aplicacaoAgendada.set(false); // Antes de esvaziar a fila: um evento que chegar agora agenda outra tarefa.
+        List<EventoAlteracao<Cliente>> rajada = new ArrayList<>();
+        for (EventoAlteracao<Cliente> evento; (evento = eventos.poll()) != null; ) {
+            rajada.add(evento);
+        }
+        if (acompanhado == null || rajada.isEmpty()) {
+            return;
+        }
+        if (versaoExibida < 0) {
+            repintarAlterados(rajada); // Busca ou ordenação: as linhas não seguem a lista completa.
+            return;
+        }
+
+        int novos = 0;
+        ListaComLapides.Versao<Cliente> maisNova = null;
+        boolean recarga = false;
+        for (EventoAlteracao<Cliente> evento : rajada) {
+            ListaComLapides.Versao<Cliente> versao = evento.getVersao();
+            if (versao != null && versao.getNumero() > versaoExibida) {
+                novos++;
+                maisNova = versao;
+                recarga |= evento.getTipo() == EventoAlteracao.Tipo.RECARGA;
+            }
+        }
+        if (novos > LIMITE_EVENTOS || recarga) {
+            trocarFonte(FonteClientes.daLista(maisNova), maisNova.getNumero()); // Já repinta as linhas existentes.
+            return;
+        }
+        if (novos > 0) {
+            descartarJanela(); // Linhas podem ter mudado de posição.
+            for (EventoAlteracao<Cliente> evento : rajada) {
+                ListaComLapides.Versao<Cliente> versao = evento.getVersao();
+                if (versao == null || versao.getNumero() <= versaoExibida) {
+                    continue; // Alteração, ou evento já contido na versão exibida.
+                }
+                // Os eventos de um lote trazem a mesma versão (a do fim do lote): o total anda evento a evento,
+                // então a JTable sempre vê uma contagem de linhas coerente com o evento que recebe.
+                fonte = FonteClientes.daLista(versao);
+                int linha = evento.getIndice();
+                if (evento.getTipo() == EventoAlteracao.Tipo.INCLUSAO) {
+                    total++;
+                    fireTableRowsInserted(linha, linha);
+                } else {
+                    total--;
+                    fireTableRowsDeleted(linha, linha);
+                }
+            }
+            versaoExibida = maisNova.getNumero();
+            if (total != fonte.total()) {
+                trocarFonte(fonte, versaoExibida); // Não deveria acontecer; se acontecer, sincroniza pela versão.
+            } else if (total > 0 && novos < rajada.size()) {
+                fireTableRowsUpdated(0, total - 1); // Houve alterações também; a janela já foi descartada.
+            }
+            return;
+        }
+        repintarAlterados(rajada);
+    }
+
+    // Repinta as linhas carregadas cujos clientes foram alterados. As demais são lidas da fonte quando aparecerem.
+    private void repintarAlterados(List<EventoAlteracao<Cliente>> rajada) {
+        for (EventoAlteracao<Cliente> evento : rajada) {
+            if (evento.getTipo() != EventoAlteracao.Tipo.ALTERACAO) {
+                continue;
+            }
+            for (int i = 0; i < tamanhoJanela; i++) {
+                if (janela[i] == evento.getItem()) {
+                    fireTableRowsUpdated(inicioJanela + i, inicioJanela + i);
+                    break;
+                }
+            }
+        }
+    }
+
+    // Retorna o número de linhas.
     @Override
     public int getRowCount() {
-        return clientes.size();
+        return total;
     }
 
     
@@ -52,14 +247,15 @@ public class ModeloTabelaCliente extends AbstractTableModel {
     // Retorna o valor correspondente do objeto Cliente.
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        Cliente cliente = clientes.get(rowIndex); // Obtém o Cliente na linha especificada
+        int posicao = posicaoNaJanela(rowIndex);
+        Cliente cliente = janela[posicao]; // Obtém o Cliente na linha especificada
         
         // Determina qual atributo do Cliente retornar com base no índice da coluna
         switch (columnIndex) {
             case 0: return cliente.getNome();
             case 1: return cliente.getSobrenome();
             case 2: return cliente.getRg();
-            case 3: return formatarCpf(cliente.getCpf());
+            case 3: return cpfsJanela[posicao]; // Formatado uma vez, quando a linha entrou na janela
             case 4: return cliente.getEndereco();
             default: return null;
         }
@@ -68,22 +264,58 @@ public class ModeloTabelaCliente extends AbstractTableModel {
     // Recebe o índice da linha e retorna o objeto Cliente correspondente.
     // Bom para operações que necessitam do objeto Cliente inteiro.
     public Cliente getCliente(int rowIndex) {
-        return clientes.get(rowIndex);
+        return janela[posicaoNaJanela(rowIndex)];
+    }
+    
+    // Descarta as linhas carregadas (ex: os dados de um cliente mudaram). Não notifica a JTable.
+    public void descartarJanela() {
+        Arrays.fill(janela, 0, tamanhoJanela, null);
+        tamanhoJanela = 0;
+    }
+    
+    // Retorna a posição da linha dentro da janela, carregando uma nova janela se a linha estiver fora.
+    // A nova janela é centrada na linha pedida, para servir tanto a rolagem para baixo quanto para cima.
+    private int posicaoNaJanela(int linha) {
+        if (linha < 0 || linha >= total) {
+            throw new IndexOutOfBoundsException("Linha " + linha + " fora da tabela (" + total + " linhas).");
+        }
+        if (linha < inicioJanela || linha >= inicioJanela + tamanhoJanela) {
+            int inicio = Math.max(0, Math.min(linha - TAMANHO_JANELA / 2, total - TAMANHO_JANELA));
+            int quantidade = Math.min(TAMANHO_JANELA, total - inicio);
+            fonte.pagina(inicio, quantidade, janela);
+            for (int i = 0; i < quantidade; i++) {
+                cpfsJanela[i] = formatarCpf(janela[i].getCpf());
+            }
+            if (quantidade < tamanhoJanela) {
+                Arrays.fill(janela, quantidade, tamanhoJanela, null); // Não segura clientes antigos.
+            }
+            inicioJanela = inicio;
+            tamanhoJanela = quantidade;
+        }
+        return linha - inicioJanela;
     }
     
     // Método auxiliar para formatar o CPF.
     // Recebe o CPF como uma string de 11 dígitos e aplica a máscara de CPF (###.###.###-##) ao CPF limpo (apenas números).
-    // Retorna o CPF formatado.
-    private String formatarCpf(String cpfLimpo) {
+    // Retorna o CPF formatado. Monta os caracteres direto, sem criar um MaskFormatter a cada chamada.
+    static String formatarCpf(String cpfLimpo) {
         if (cpfLimpo == null || cpfLimpo.length() != 11) {
             return cpfLimpo; // Retorna sem formatação se for inválido
         }
-        try {
-            MaskFormatter mask = new MaskFormatter("###.###.###-##"); // Define a máscara de CPF
-            mask.setValueContainsLiteralCharacters(false); // Indica que o valor de entrada não tem a máscara
-            return mask.valueToString(cpfLimpo); // Aplica a máscara e retorna
-        } catch (java.text.ParseException e) {
-            return cpfLimpo; // Em caso de erro na formatação, retorna o valor original
+        char[] formatado = new char[14];
+        int j = 0;
+        for (int i = 0; i < 11; i++) {
+            char c = cpfLimpo.charAt(i);
+            if (c < '0' || c > '9') {
+                return cpfLimpo; // A máscara só aceita dígitos: mantém o valor original, como antes
+            }
+            if (i == 3 || i == 6) {
+                formatado[j++] = '.';
+            } else if (i == 9) {
+                formatado[j++] = '-';
+            }
+            formatado[j++] = c;
         }
+        return new String(formatado);
     }
-}
\ No newline at end of file
+}
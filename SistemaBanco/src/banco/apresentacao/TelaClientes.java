@@ -10,13 +10,24 @@ import java.awt.BorderLayout;
 import java.awt.Component;
 import java.awt.Container;
 import java.awt.FlowLayout;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 // Tela de interface gráfica (JFrame) responsável por Manter Clientes.
 // Inclui campos de cadastro, tabela de visualização, busca e ordenação.
+// Busca e ordenação rodam em segundo plano (SwingWorker), então a tela continua respondendo
+// mesmo com milhões de clientes. A busca acontece enquanto o usuário digita: cada tecla reinicia
+// uma espera curta, e uma nova busca cancela a anterior. Os resultados entram na tabela em lotes.
 public class TelaClientes extends JFrame {
     
+    private static final int ESPERA_BUSCA_MS = 250; // Pausa na digitação antes de buscar
+    private static final int TAMANHO_LOTE = 2_000; // Clientes por lote entregue à tabela durante a busca
+    
     // Gerenciadores de Negócio
     private final GerenciadorClientes gerenciadorClientes; // Lógica de Negócio para Clientes
     private final GerenciadorContas gerenciadorContas; // Lógica de Negócio para Contas, necessário para exclusão de contas vinculadas a clientes
@@ -35,6 +46,9 @@ public class TelaClientes extends JFrame {
     // Componentes de Busca e Ordenação
     private JTextField txtBusca; // Campo de texto para busca
     private JComboBox<String> cmbOrdenar; // ComboBox para opções de ordenação
+    private JLabel lblResultados; // Quantidade de clientes exibidos / andamento da busca
+    private Timer temporizadorBusca; // Espera o usuário parar de digitar para buscar
+    private SwingWorker<?, ?> tarefaAtual; // Busca ou ordenação em andamento (null se nenhuma)
     
     // Cabeçalhos das colunas da tabela
     private final String[] colunas = {"Nome", "Sobrenome", "RG", "CPF", "Endereço"};
@@ -95,8 +109,8 @@ public class TelaClientes extends JFrame {
         
         // --- Painel de Tabela (Centro) ---
         // Cria a tabela para exibir os clientes
-        // Inicializa o modelo de dados com todos os clientes
-        tableModel = new ModeloTabelaCliente(gerenciadorClientes.listarTodos()); // Criap o modelo com a lista inicial
+        // Inicializa o modelo de dados com todos os clientes; inclusões, alterações e exclusões chegam por eventos
+        tableModel = new ModeloTabelaCliente(gerenciadorClientes); // Criap o modelo com a lista inicial
         tabelaClientes = new JTable(tableModel); // Cria a JTable com o modelo, para exibir os dados
         tabelaClientes.setSelectionMode(ListSelectionModel.SINGLE_SELECTION); // Permite apenas uma linha selecionada
         
@@ -114,6 +128,15 @@ public class TelaClientes extends JFrame {
         JPanel pnlBuscaOrdenacao = new JPanel(new FlowLayout(FlowLayout.LEFT)); // Layout de fluxo à esquerda
         txtBusca = new JTextField(15); // Campo de texto para busca
         
+        // Busca enquanto digita: cada alteração no texto reinicia a espera
+        temporizadorBusca = new Timer(ESPERA_BUSCA_MS, e -> iniciarBusca(false));
+        temporizadorBusca.setRepeats(false);
+        txtBusca.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { temporizadorBusca.restart(); }
+            @Override public void removeUpdate(DocumentEvent e) { temporizadorBusca.restart(); }
+            @Override public void changedUpdate(DocumentEvent e) { temporizadorBusca.restart(); }
+        });
+        
         btnBuscar = new JButton("Buscar"); // Botão para iniciar a busca
         btnBuscar.addActionListener(e -> buscarClientes()); // Listener para a função de busca
         
@@ -129,6 +152,13 @@ public class TelaClientes extends JFrame {
         pnlBuscaOrdenacao.add(new JLabel("Ordenar por:")); // label de ordenação
         pnlBuscaOrdenacao.add(cmbOrdenar); // combo de ordenação
         pnlBuscaOrdenacao.add(btnOrdenar); // botão de ordenação
+        lblResultados = new JLabel(tableModel.getRowCount() + " cliente(s)"); // quantidade exibida
+        tableModel.addTableModelListener(e -> { // Mantém a quantidade em dia quando a lista completa muda por eventos
+            if (tableModel.isExibindoTodos() && tarefaAtual == null) {
+                lblResultados.setText(tableModel.getRowCount() + " cliente(s)");
+            }
+        });
+        pnlBuscaOrdenacao.add(lblResultados); // label de resultados
         
         // --- Painel de Botões (Sul - parte inferior) ---
         // Painel que contém os botões para ações
@@ -167,8 +197,11 @@ public class TelaClientes extends JFrame {
     // Atualiza o ModeloTabelaCliente com uma nova lista de Clientes e notifica a JTable.
     // Também gerencia a seleção inicial e o estado do formulário.
     private void carregarTabela(List<Cliente> lista) {
+        cancelarTarefa(); // Uma busca/ordenação ainda em andamento não deve sobrescrever esta lista
+        
         // Define a nova lista no modelo e dispara o evento de atualização da tabela
         tableModel.setClientes(lista); // Atualiza o modelo com a nova lista
+        lblResultados.setText(lista.size() + " cliente(s)");
 
         if (!lista.isEmpty()) { // Se a lista não estiver vazia
             tabelaClientes.setRowSelectionInterval(0, 0); // Seleciona a primeira linha
@@ -178,6 +211,15 @@ public class TelaClientes extends JFrame {
         }
     }
     
+    // Volta a tabela para a lista completa, se ela estiver exibindo uma busca ou ordenação.
+    // Se já estiver, não há o que recarregar: os eventos do gerenciador atualizam só as linhas afetadas.
+    private void exibirTodos() {
+        if (!tableModel.isExibindoTodos()) {
+            cancelarTarefa();
+            tableModel.exibirTodos();
+        }
+    }
+    
     // Limpa todos os campos do formulário e redefine o estado dos botões para "Novo Cadastro".
     private void limparFormulario() {
         txtNome.setText(""); // Limpa o campo Nome
@@ -252,7 +294,7 @@ public class TelaClientes extends JFrame {
         }
         
         gerenciadorClientes.adicionar(novoCliente); // Adiciona o cliente ao gerenciador
-        carregarTabela(gerenciadorClientes.listarTodos()); // Recarrega a tabela para incluir o novo cliente
+        exibirTodos(); // A linha do novo cliente entra pelo evento de inclusão
         limparFormulario(); // Limpa o formulário para um novo cadastro
         JOptionPane.showMessageDialog(this, "Cliente salvo com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
     }
@@ -269,16 +311,11 @@ public class TelaClientes extends JFrame {
         Cliente clienteNovo = getClienteDoFormulario(); // Obtém os novos dados do formulário
         if (clienteNovo == null || clienteAntigo == null) return; // Sai se a validação falhar ou o cliente não for encontrado
         
-        // Atualiza os dados no objeto existente (mantendo o CPF original)
-        clienteAntigo.setNome(clienteNovo.getNome());
-        clienteAntigo.setSobrenome(clienteNovo.getSobrenome());
-        clienteAntigo.setRg(clienteNovo.getRg());
-        clienteAntigo.setEndereco(clienteNovo.getEndereco());
+        // Atualiza os dados no objeto existente (mantendo o CPF original), todos de uma vez pelo gerenciador
+        gerenciadorClientes.atualizar(clienteAntigo, clienteNovo.getNome(), clienteNovo.getSobrenome(),
+                clienteNovo.getRg(), clienteNovo.getEndereco());
         
-        // Recarrega a tabela para refletir a mudança visual
-        carregarTabela(gerenciadorClientes.listarTodos());
-        
-        // Re-seleciona o cliente atualizado na tabela
+        // A linha é repintada pelo evento de alteração; a seleção continua no cliente atualizado
         JOptionPane.showMessageDialog(this, "Cliente atualizado com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
     }
 
@@ -308,7 +345,7 @@ public class TelaClientes extends JFrame {
 
             // Exclui o cliente
             if (gerenciadorClientes.excluir(cliente)) {
-                carregarTabela(gerenciadorClientes.listarTodos()); // Recarrega a tabela
+                exibirTodos(); // A linha sai da tabela pelo evento de exclusão
                 limparFormulario(); // Limpa o formulário
                 JOptionPane.showMessageDialog(this, "Cliente e contas excluídos com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
             } else {
@@ -317,37 +354,152 @@ public class TelaClientes extends JFrame {
         }
     }
     
-    // Realiza a busca de clientes com base no termo digitado e atualiza a tabela com os resultados.
+    // Realiza a busca de clientes com base no termo digitado (botão Buscar): busca na hora, sem esperar a digitação.
     private void buscarClientes() {
+        temporizadorBusca.stop(); // A busca agendada pela digitação seria repetida
+        iniciarBusca(true);
+    }
+    
+    // Inicia a busca em segundo plano, cancelando a anterior. A tabela é esvaziada e recebe os resultados em lotes.
+    // Se avisarSemResultados for true e nada for encontrado, avisa o usuário e volta a exibir todos.
+    private void iniciarBusca(boolean avisarSemResultados) {
+        cancelarTarefa();
         String termo = txtBusca.getText(); // Obtém o termo de busca
-        List<Cliente> resultados = gerenciadorClientes.buscar(termo); // Chama a lógica de busca
-        carregarTabela(resultados); // Carrega a tabela com os resultados
-        
-        // Feedback para o usuário se a busca não retornar resultados
-        if (resultados.isEmpty() && !termo.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Nenhum cliente encontrado para o termo: " + termo, "Busca", JOptionPane.INFORMATION_MESSAGE);
-            txtBusca.setText(""); // Limpa o campo de busca
-            carregarTabela(gerenciadorClientes.listarTodos()); // Exibe todos novamente
+        if (termo.isEmpty()) {
+            tableModel.exibirTodos(); // Sem termo: a lista completa, que segue os eventos do gerenciador
+            if (tableModel.getRowCount() > 0) {
+                tabelaClientes.setRowSelectionInterval(0, 0);
+                exibirClienteSelecionado();
+            } else {
+                limparFormulario();
+            }
+            return;
         }
+        List<Cliente> resultados = new ArrayList<>(); // Cresce conforme os lotes chegam
+        tableModel.setClientes(resultados);
+        lblResultados.setText("Buscando...");
+        
+        SwingWorker<Boolean, List<Cliente>> busca = new SwingWorker<>() {
+            @Override
+            protected Boolean doInBackground() {
+                // Fora da EDT: o receptor devolve false quando a busca foi cancelada, interrompendo a varredura
+                return gerenciadorClientes.buscar(termo, TAMANHO_LOTE, lote -> {
+                    if (isCancelled()) {
+                        return false;
+                    }
+                    publish(lote);
+                    return true;
+                });
+            }
+            
+            @Override
+            protected void process(List<List<Cliente>> lotes) {
+                if (tarefaAtual != this) {
+                    return; // Lotes de uma busca já substituída
+                }
+                boolean primeiros = resultados.isEmpty();
+                for (List<Cliente> lote : lotes) {
+                    resultados.addAll(lote);
+                }
+                tableModel.atualizarTotal(); // Só as linhas novas são inseridas na tabela
+                lblResultados.setText(resultados.size() + " cliente(s)...");
+                if (primeiros && !resultados.isEmpty()) {
+                    tabelaClientes.setRowSelectionInterval(0, 0); // Seleciona a primeira linha, como antes
+                    exibirClienteSelecionado();
+                }
+            }
+            
+            @Override
+            protected void done() {
+                if (tarefaAtual != this) {
+                    return; // Cancelada ou substituída por outra busca
+                }
+                tarefaAtual = null;
+                try {
+                    get();
+                } catch (InterruptedException | CancellationException ex) {
+                    return;
+                } catch (ExecutionException ex) {
+                    JOptionPane.showMessageDialog(TelaClientes.this, "Erro na busca: " + ex.getCause().getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                lblResultados.setText(resultados.size() + " cliente(s)");
+                if (resultados.isEmpty()) {
+                    limparFormulario(); // Limpa o formulário se a lista estiver vazia
+                    
+                    // Feedback para o usuário se a busca não retornar resultados
+                    if (avisarSemResultados && !termo.isEmpty()) {
+                        JOptionPane.showMessageDialog(TelaClientes.this, "Nenhum cliente encontrado para o termo: " + termo, "Busca", JOptionPane.INFORMATION_MESSAGE);
+                        txtBusca.setText(""); // Limpa o campo de busca (a nova busca, vazia, exibe todos novamente)
+                    }
+                }
+            }
+        };
+        tarefaAtual = busca;
+        busca.execute();
     }
     
     // Realiza a ordenação da lista de clientes atual, filtrada ou não, pelo campo selecionado.
+    // Busca e ordenação rodam em segundo plano; a tabela só é trocada quando a lista ordenada fica pronta.
     private void ordenarClientes() {
+        temporizadorBusca.stop(); // A ordenação já aplica o termo atual
+        cancelarTarefa();
         String campo = (String) cmbOrdenar.getSelectedItem(); // Obtém o critério de ordenação
-        
-        // Pega a lista atual
-        List<Cliente> listaAtual = gerenciadorClientes.buscar(txtBusca.getText());
-        
-        // Chama a lógica de ordenação
-        List<Cliente> listaOrdenada = gerenciadorClientes.ordenar(campo, listaAtual);
-        
-        carregarTabela(listaOrdenada); // Carrega a tabela com a lista ordenada
-        
-        // Re-seleciona o primeiro item da lista ordenada
-        if (!listaOrdenada.isEmpty()) {
-            tabelaClientes.setRowSelectionInterval(0, 0);
-            exibirClienteSelecionado();
+        String termo = txtBusca.getText();
+        lblResultados.setText("Ordenando...");
+        
+        SwingWorker<List<Cliente>, Void> ordenacao = new SwingWorker<>() {
+            @Override
+            protected List<Cliente> doInBackground() {
+                if (termo.isEmpty()) {
+                    return gerenciadorClientes.ordenar(campo); // Sem filtro: a ordem já está pronta nos índices.
+                }
+                // Pega a lista atual
+                List<Cliente> listaAtual = gerenciadorClientes.buscar(termo);
+                if (isCancelled()) {
+                    return null;
+                }
+                // Chama a lógica de ordenação
+                return gerenciadorClientes.ordenar(campo, listaAtual);
+            }
+            
+            @Override
+            protected void done() {
+                if (tarefaAtual != this) {
+                    return; // Cancelada ou substituída
+                }
+                tarefaAtual = null;
+                try {
+                    carregarTabela(get()); // Carrega a tabela com a lista ordenada (e re-seleciona o primeiro item)
+                } catch (InterruptedException | CancellationException ex) {
+                    // Cancelada: nada a exibir
+                } catch (ExecutionException ex) {
+                    JOptionPane.showMessageDialog(TelaClientes.this, "Erro na ordenação: " + ex.getCause().getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        tarefaAtual = ordenacao;
+        ordenacao.execute();
+    }
+    
+    // Cancela a busca/ordenação em andamento, se houver. Os lotes ou resultados dela são ignorados.
+    private void cancelarTarefa() {
+        if (tarefaAtual != null) {
+            SwingWorker<?, ?> tarefa = tarefaAtual;
+            tarefaAtual = null;
+            tarefa.cancel(true);
+        }
+    }
+    
+    // Ao fechar a janela, para a espera da digitação e a tarefa em andamento.
+    @Override
+    public void dispose() {
+        if (temporizadorBusca != null) {
+            temporizadorBusca.stop();
         }
+        cancelarTarefa();
+        tableModel.pararDeAcompanhar();
+        super.dispose();
     }
     
     // Classe para ajudar na disposição dos componentes
@@ -1,16 +1,26 @@
 package banco.apresentacao;
 
+import banco.modelo.Centavos;
 import banco.modelo.Conta;
 import banco.modelo.Cliente;
+import banco.modelo.ContaCorrente;
+import banco.modelo.ContaInvestimento;
+import banco.modelo.ResultadoOperacao;
+import banco.modelo.TipoMovimento;
 import banco.negocio.GerenciadorContas;
 import banco.negocio.GerenciadorClientes;
+import banco.negocio.HistoricoMovimentos;
 
 import javax.swing.text.MaskFormatter;
 import javax.swing.event.DocumentListener;
 import javax.swing.event.DocumentEvent;
 import java.text.DecimalFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.awt.BorderLayout;
 import java.awt.FlowLayout;
+import java.awt.Font;
 import javax.swing.*;
 
 // Tela de interface gráfica (JFrame) para realizar operações em uma conta bancária, selecionada por CPF do cliente.
@@ -28,7 +38,8 @@ public class TelaOperacoes extends JFrame {
     
     // Componentes de Operação
     private JTextField txtValorOperacao; // Campo de texto para entrada do valor da operação
-    private JButton btnSaque, btnDeposito, btnVerSaldo, btnRemunera; // Botões para as operações bancárias
+    private JButton btnSaque, btnDeposito, btnVerSaldo, btnRemunera, btnExtrato; // Botões para as operações bancárias
+    private static final int DIAS_EXTRATO = 30; // Período exibido no extrato
     private boolean isUpdating = false; // Flag para evitar loops de DocumentListener
 
     
@@ -73,6 +84,7 @@ public class TelaOperacoes extends JFrame {
         btnDeposito = new JButton("Depósito"); // Botão de depósito
         btnVerSaldo = new JButton("Ver Saldo"); // Botão de ver saldo
         btnRemunera = new JButton("Remunera"); // Botão de remuneração
+        btnExtrato = new JButton("Extrato"); // Botão de extrato
         
         // Adiciona o DocumentListener ao campo de valor para formatar dígito por dígito
         txtValorOperacao.getDocument().addDocumentListener(new DocumentListener() {
@@ -112,8 +124,10 @@ public class TelaOperacoes extends JFrame {
         JPanel pnlOutrasOperacoes = new JPanel(new FlowLayout(FlowLayout.CENTER)); // Painel para outras operações
         btnVerSaldo.addActionListener(e -> verSaldo()); // Adiciona o listener de Saldo
         btnRemunera.addActionListener(e -> remunerarConta()); // Adiciona o listener de Remuneração
+        btnExtrato.addActionListener(e -> verExtrato()); // Adiciona o listener de Extrato
         pnlOutrasOperacoes.add(btnVerSaldo); // Adiciona o botão de ver saldo ao painel
         pnlOutrasOperacoes.add(btnRemunera); // Adiciona o botão de remuneração ao painel
+        pnlOutrasOperacoes.add(btnExtrato); // Adiciona o botão de extrato ao painel
 
         // Organiza os painéis no Container Sul
         pnlOperacoesContainer.add(pnlAcaoPrincipal, BorderLayout.NORTH); // Adiciona o painel de ações principais na parte superior
@@ -130,6 +144,7 @@ public class TelaOperacoes extends JFrame {
         btnDeposito.setEnabled(false);
         btnVerSaldo.setEnabled(false);
         btnRemunera.setEnabled(false);
+        btnExtrato.setEnabled(false);
     }
     
     // Habilita os campos e botões de operação.
@@ -139,6 +154,7 @@ public class TelaOperacoes extends JFrame {
         btnDeposito.setEnabled(true);
         btnVerSaldo.setEnabled(true);
         btnRemunera.setEnabled(true);
+        btnExtrato.setEnabled(true);
     }
 
     // Busca a conta pelo CPF do cliente e atualiza a interface.
@@ -235,24 +251,24 @@ public class TelaOperacoes extends JFrame {
         }
     }
     
-    // Converte o valor do campo de operação para Double.
+    // Converte o valor do campo de operação para centavos.
     // Retorna o valor convertido ou lança NumberFormatException se inválido.
-    private double getValorOperacao() throws NumberFormatException {
+    private long getValorOperacao() throws NumberFormatException {
         String text = txtValorOperacao.getText(); // Obtém o texto do campo de valor
 
         if (text == null || text.trim().isEmpty()) { // Verifica se está vazio
             throw new NumberFormatException("O campo de valor não pode estar vazio.");
         }
 
-        // Limpeza e conversão: troca vírgula por ponto e remove outros caracteres
-        String valorLimpo = text.replace(',', '.').replaceAll("[^0-9.]", ""); // Remove caracteres não numéricos, exceto ponto
+        // O campo é digitado no modo centavos e sempre exibe duas casas decimais,
+        // então os dígitos, sem separadores, já são o valor em centavos (Ex: 1.234,56 -> 123456).
+        String valorLimpo = text.replaceAll("[^0-9]", "");
 
         if (valorLimpo.isEmpty()) { // Verifica se sobrou algo após a limpeza
-            return 0.0; // Retorna 0.0 se estiver vazio
+            return 0; // Retorna 0 se estiver vazio
         }
 
-        // Tenta fazer o parse para Double
-        return Double.parseDouble(valorLimpo);
+        return Long.parseLong(valorLimpo);
     }
     
     
@@ -260,15 +276,17 @@ public class TelaOperacoes extends JFrame {
     private void realizarSaque() {
         if (contaAtual == null) return; // Verifica se há conta selecionada
         try { // Tenta obter o valor da operação
-            double valor = getValorOperacao(); // Obtém o valor do campo de operação
+            long valor = getValorOperacao(); // Obtém o valor do campo de operação (em centavos)
 
-            // Chama a lógica de saque do GerenciadorContas, que chama o polimórfico saca()
-            if (gerenciadorContas.sacar(contaAtual, valor)) {
+            // Chama a lógica de saque do GerenciadorContas, que chama o polimórfico realizaSaque()
+            ResultadoOperacao resultado = gerenciadorContas.sacar(contaAtual, valor);
+            if (resultado.isSucesso()) {
                 // Sucesso: feedback e atualização de saldo
-                JOptionPane.showMessageDialog(this, "Saque de R$ " + String.format("%.2f", valor) + " realizado com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
+                JOptionPane.showMessageDialog(this, "Saque de R$ " + Centavos.formatar(valor) + " realizado com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
                 verSaldo(); // Exibe o novo saldo
             } else {
-                // Falha: O erro é reportado pelo modelo (ContaCorrente/ContaInvestimento)
+                // Falha: exibe o motivo informado pelo modelo (ContaCorrente/ContaInvestimento)
+                exibirRecusa(resultado, true);
             }
 
             txtValorOperacao.setText(""); // Limpa o campo após a operação
@@ -283,12 +301,15 @@ public class TelaOperacoes extends JFrame {
     private void realizarDeposito() {
         if (contaAtual == null) return; // Verifica se há conta selecionada
         try {
-            double valor = getValorOperacao(); // Obtém o valor do campo de operação
+            long valor = getValorOperacao(); // Obtém o valor do campo de operação (em centavos)
 
             // Chama a lógica de depósito (polimórfica)
-            if (gerenciadorContas.depositar(contaAtual, valor)) { // Sucesso
-                JOptionPane.showMessageDialog(this, "Depósito de R$ " + String.format("%.2f", valor) + " realizado com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
+            ResultadoOperacao resultado = gerenciadorContas.depositar(contaAtual, valor);
+            if (resultado.isSucesso()) { // Sucesso
+                JOptionPane.showMessageDialog(this, "Depósito de R$ " + Centavos.formatar(valor) + " realizado com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
                 verSaldo(); // Exibe o novo saldo
+            } else {
+                exibirRecusa(resultado, false); // Falha: exibe o motivo
             }
 
             txtValorOperacao.setText(""); // Limpa o campo após a operação
@@ -299,22 +320,86 @@ public class TelaOperacoes extends JFrame {
         }
     }
 
+    // Exibe a mensagem de erro correspondente ao motivo da recusa de um saque ou depósito.
+    private void exibirRecusa(ResultadoOperacao resultado, boolean saque) {
+        String titulo = saque ? "Erro de Saque" : "Erro de Depósito";
+        String mensagem;
+        switch (resultado) {
+            case VALOR_NAO_POSITIVO:
+                mensagem = saque ? "O valor do saque deve ser positivo." : "O valor do depósito deve ser positivo.";
+                break;
+            case LIMITE_EXCEDIDO:
+                mensagem = "Saque não permitido. O valor ultrapassa o limite negativo de R$ " + Centavos.formatar(((ContaCorrente) contaAtual).getLimite()) + ".";
+                break;
+            case MONTANTE_MINIMO:
+                mensagem = "Saque não permitido. O saldo restante deve ser maior ou igual ao montante mínimo de R$ " + Centavos.formatar(((ContaInvestimento) contaAtual).getMontanteMinimo()) + ".";
+                break;
+            case DEPOSITO_MINIMO:
+                mensagem = "Depósito não permitido. O valor mínimo para depósito é de R$ " + Centavos.formatar(((ContaInvestimento) contaAtual).getDepositoMinimo()) + ".";
+                break;
+            default:
+                mensagem = "Operação não realizada.";
+        }
+        JOptionPane.showMessageDialog(this, mensagem, titulo, JOptionPane.ERROR_MESSAGE);
+    }
+
     // Exibe o saldo atual da conta em um pop-up
     private void verSaldo() {
         if (contaAtual == null) return; // Verifica se há conta selecionada
-        JOptionPane.showMessageDialog(this, "Saldo da Conta Nº " + contaAtual.getNumero() + ": R$ " + String.format("%.2f", contaAtual.getSaldo()), "Saldo Atual", JOptionPane.INFORMATION_MESSAGE);
+        JOptionPane.showMessageDialog(this, "Saldo da Conta Nº " + contaAtual.getNumero() + ": R$ " + Centavos.formatar(contaAtual.getSaldo()), "Saldo Atual", JOptionPane.INFORMATION_MESSAGE);
+    }
+    
+    // Exibe os movimentos da conta atual nos últimos DIAS_EXTRATO dias, lidos do histórico de movimentos
+    private void verExtrato() {
+        if (contaAtual == null) return; // Verifica se há conta selecionada
+        long agora = System.currentTimeMillis();
+        HistoricoMovimentos.Extrato extrato;
+        try {
+            extrato = gerenciadorContas.extrato(contaAtual, agora - DIAS_EXTRATO * 86_400_000L, agora + 1);
+        } catch (IllegalStateException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Extrato", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        DateTimeFormatter formato = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss").withZone(ZoneId.systemDefault());
+        StringBuilder texto = new StringBuilder();
+        for (int i = 0; i < extrato.getQuantidade(); i++) { // Uma linha por movimento: data, tipo, valor e saldo
+            texto.append(String.format("%s  %-22s R$ %14s   Saldo: R$ %14s%n",
+                    formato.format(Instant.ofEpochMilli(extrato.getInstante(i))), descrever(extrato.getTipo(i)),
+                    Centavos.formatar(extrato.getValor(i)), Centavos.formatar(extrato.getSaldo(i))));
+        }
+        if (texto.length() == 0) {
+            texto.append("Nenhum movimento nos últimos ").append(DIAS_EXTRATO).append(" dias.");
+        }
+
+        JTextArea area = new JTextArea(texto.toString(), 15, 75); // Área só de leitura, com rolagem
+        area.setEditable(false);
+        area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12)); // Colunas alinhadas
+        JOptionPane.showMessageDialog(this, new JScrollPane(area), "Extrato da Conta Nº " + contaAtual.getNumero(), JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    // Nome do tipo de movimento para exibição no extrato
+    private static String descrever(TipoMovimento tipo) {
+        switch (tipo) {
+            case DEPOSITO: return "Depósito";
+            case SAQUE: return "Saque";
+            case REMUNERACAO: return "Remuneração";
+            case TRANSFERENCIA_ENVIADA: return "Transferência enviada";
+            case TRANSFERENCIA_RECEBIDA: return "Transferência recebida";
+            default: return tipo.name();
+        }
     }
     
     // Realiza a remuneração (juros/rendimento) na conta atual
     private void remunerarConta() {
         if (contaAtual == null) return; // Verifica se há conta selecionada
 
-        double saldoAntes = contaAtual.getSaldo(); // Salva o saldo anterior
+        long saldoAntes = contaAtual.getSaldo(); // Salva o saldo anterior
 
         // Remunera a conta (chama o método remunera() da subclasse - polimorfismo)
         gerenciadorContas.remunerar(contaAtual); 
 
-        double saldoDepois = contaAtual.getSaldo(); // Saldo após a remuneração
+        long saldoDepois = contaAtual.getSaldo(); // Saldo após a remuneração
         
         // Formata o nome da classe para exibição amigável ("Conta Investimento")
         String tipoConta = contaAtual.getClass().getSimpleName(); // Obtém o nome simples da classe
@@ -323,9 +408,9 @@ public class TelaOperacoes extends JFrame {
         // Monta a mensagem completa de feedback
         String msg = String.format("<html><b>Remuneração aplicada!</b><br>" +
                                    "Conta: %s Nº %d<br>" +
-                                   "Saldo Anterior: R$ %.2f<br>" +
-                                   "Novo Saldo: R$ %.2f</html>", 
-                                   tipoContaFormatada, contaAtual.getNumero(), saldoAntes, saldoDepois);
+                                   "Saldo Anterior: R$ %s<br>" +
+                                   "Novo Saldo: R$ %s</html>", 
+                                   tipoContaFormatada, contaAtual.getNumero(), Centavos.formatar(saldoAntes), Centavos.formatar(saldoDepois));
 
         // 4. Exibe a mensagem
         JOptionPane.showMessageDialog(this, msg, "Remuneração Aplicada", JOptionPane.INFORMATION_MESSAGE); 
@@ -1,29 +1,56 @@
 package banco.apresentacao;
 
+import banco.modelo.AlocadorNumeros;
+import banco.modelo.Conta;
 import banco.negocio.GerenciadorClientes;
 import banco.negocio.GerenciadorContas;
+import banco.negocio.HistoricoMovimentos;
+import banco.negocio.ImportadorCsv;
+import banco.negocio.Metricas;
+import banco.negocio.RecuperacaoDiario;
+import banco.negocio.RemuneracaoEmLote;
+import banco.persistencia.Diario;
+import banco.persistencia.Instantaneo;
 
 import java.awt.BorderLayout;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.management.JMException;
 import javax.swing.*;
 
 // Tela de interface gráfica (JFrame) responsavel pelo Meni principal principal do Sistema Bancário.
 // Responsável por inicializar os gerenciadores de negócio e oferecer acesso às telas de manutenção de clientes e operações de conta.
 public class TelaPrincipal extends JFrame {
     
+    private static final Path ARQUIVO_DIARIO = Paths.get("banco.diario"); // Diário de operações, no diretório de trabalho.
+    private static final Path ARQUIVO_INSTANTANEO = Paths.get("banco.instantaneo"); // Instantâneo de clientes e contas.
+    private static final Path ARQUIVO_NUMEROS = Paths.get("banco.numeros"); // Marca dos números de conta já reservados.
+    
     // Instâncias dos Gerenciadores de Negócio
     private final GerenciadorClientes gerenciadorClientes; // Gerenciador de Clientes
     private final GerenciadorContas gerenciadorContas; // Gerenciador de Contas
 
     // Construtor da tela principal. Inicializa os gerenciadores e a interface 
     public TelaPrincipal() {
+        abrirAlocadorNumeros(); // Antes de qualquer conta ser criada ou recuperada.
+        
         // Inicialização dos gerenciadores na ordem correta:
         this.gerenciadorContas = new GerenciadorContas(); // Inicializa o Gerenciador de Contas
         this.gerenciadorClientes = new GerenciadorClientes(gerenciadorContas); // Inicializa o Gerenciador de Clientes (que precisa da ref. do contas)
         
-        // Inicializa as contas de teste, garantindo que os clientes já existam
-        gerenciadorContas.inicializarContasDeTeste(gerenciadorClientes); 
+        // Carrega o último instantâneo; sem ele, inicializa as contas de teste, garantindo que os clientes já existam
+        if (!carregarInstantaneo()) {
+            gerenciadorContas.inicializarContasDeTeste(gerenciadorClientes); 
+        }
+        
+        abrirDiario(); // Reaplica as alterações gravadas nas execuções anteriores e passa a registrar as novas
+        ligarMetricas(); // Depois da recuperação, para medir só as operações desta sessão
+        gerenciadorContas.setHistorico(new HistoricoMovimentos()); // Extrato das contas: só os movimentos desta sessão
+        gerenciadorContas.setRemuneracaoSobDemanda(true); // "Remunerar todas" publica os juros em O(1), sem percorrer as contas
         
         initComponents(); // Configura os componentes visuais da tela
         setTitle("Sistema Bancário - Menu Principal"); // Define o título
@@ -32,6 +59,107 @@ public class TelaPrincipal extends JFrame {
         setLocationRelativeTo(null); // Centraliza a tela
     }
 
+    // Passa a reservar os números de conta no arquivo de marca, para que não se repitam entre execuções
+    // (nem entre processos usando o mesmo diretório). Sem o arquivo, a numeração fica só em memória.
+    private void abrirAlocadorNumeros() {
+        try {
+            AlocadorNumeros alocador = AlocadorNumeros.abrir(ARQUIVO_NUMEROS);
+            Conta.setAlocador(alocador);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    alocador.close();
+                } catch (IOException ex) {
+                    // Encerrando: a marca é gravada a cada bloco reservado.
+                }
+            }));
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(null, "Não foi possível abrir o arquivo de números de conta (" + ex.getMessage() + ").\nOs números serão controlados apenas nesta sessão.", "Aviso", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    // Carrega clientes e contas do instantâneo, se existir. Retorna false se não houver instantâneo utilizável.
+    private boolean carregarInstantaneo() {
+        if (!Files.exists(ARQUIVO_INSTANTANEO)) {
+            return false;
+        }
+        try {
+            Instantaneo.Dados dados = Instantaneo.ler(ARQUIVO_INSTANTANEO);
+            gerenciadorClientes.carregar(dados.getClientes());
+            gerenciadorContas.carregar(dados.getContas());
+            Conta.setProximoNumero(dados.getProximoNumero());
+            gerenciadorContas.setEpocaRemuneracao(dados.getEpocaRemuneracao());
+            return true;
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(null, "Não foi possível ler o instantâneo de dados (" + ex.getMessage() + ").\nO sistema iniciará com os dados de teste.", "Aviso", JOptionPane.WARNING_MESSAGE);
+            return false;
+        }
+    }
+
+    // Abre o diário, reproduz o que foi gravado sobre os dados iniciais e liga o registro nos gerenciadores.
+    // Se o diário tinha registros, grava um novo instantâneo com o estado recuperado e esvazia o diário,
+    // assim a próxima inicialização só reproduz o que for feito nesta sessão.
+    // Se o arquivo não puder ser usado, o sistema segue funcionando, apenas sem persistência.
+    // Se um registro não corresponder aos dados carregados (ex: movimento de uma conta que não existe), o diário
+    // é mantido como está, sem checkpoint, para não tornar a perda definitiva, e esta sessão segue sem persistência.
+    private void abrirDiario() {
+        try {
+            Diario diario = Diario.abrir(ARQUIVO_DIARIO);
+            long reproduzidos;
+            try {
+                reproduzidos = diario.reproduzir(new RecuperacaoDiario(gerenciadorClientes, gerenciadorContas));
+            } catch (IllegalStateException ex) {
+                diario.close();
+                JOptionPane.showMessageDialog(null, "O diário de operações não corresponde aos dados carregados (" + ex.getMessage() + ").\nO diário foi mantido sem alterações e as alterações desta sessão não serão gravadas.", "Aviso", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            if (reproduzidos > 0) {
+                gravarInstantaneo(diario);
+            }
+            gerenciadorClientes.setDiario(diario);
+            gerenciadorContas.setDiario(diario);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    diario.close();
+                } catch (IOException ex) {
+                    // Encerrando: o que foi confirmado já está em disco.
+                }
+            }));
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(null, "Não foi possível abrir o diário de operações (" + ex.getMessage() + ").\nAs alterações desta sessão não serão gravadas.", "Aviso", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    // Passa a medir as operações dos gerenciadores e publica as métricas por JMX (jconsole: "banco" > "Metricas").
+    // Se a publicação falhar, as métricas continuam sendo coletadas, só não ficam visíveis de fora.
+    private void ligarMetricas() {
+        Metricas metricas = new Metricas();
+        gerenciadorClientes.setMetricas(metricas);
+        gerenciadorContas.setMetricas(metricas);
+        try {
+            metricas.registrarNoJmx();
+        } catch (JMException ex) {
+            System.err.println("Não foi possível publicar as métricas por JMX: " + ex.getMessage());
+        }
+    }
+
+    // Grava o instantâneo e, só depois que ele estiver em disco, esvazia o diário.
+    // Se a gravação falhar, o diário é mantido e continua valendo na próxima inicialização.
+    private void gravarInstantaneo(Diario diario) {
+        try {
+            Instantaneo.gravar(ARQUIVO_INSTANTANEO, gerenciadorClientes.listarTodos(), gerenciadorContas.listarTodas(),
+                    Conta.getProximoNumero(), gerenciadorContas.getEpocaRemuneracao());
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(null, "Não foi possível gravar o instantâneo de dados (" + ex.getMessage() + ").\nO diário de operações será mantido.", "Aviso", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        try {
+            diario.truncar();
+        } catch (IOException ex) {
+            // O instantâneo já contém tudo; reproduzir o diário de novo sobre ele não muda o resultado
+            // (os movimentos restauram o saldo gravado, e as remunerações que o instantâneo já inclui são puladas pelo número).
+        }
+    }
+
     // Inicializa e configura todos os componentes visuais da tela principal
     private void initComponents() {
         setLayout(new BorderLayout(15, 15)); // Layout principal com espaçamento
@@ -47,8 +175,11 @@ public class TelaPrincipal extends JFrame {
         JButton btnManterClientes = new JButton("Manter Clientes"); // Botão para abrir a tela de clientes
         btnManterClientes.addActionListener(this::abrirTelaClientes); // Listener para abrir a tela
 
+        JButton btnImportar = new JButton("Importar CSV"); // Botão para importar clientes e contas em lote
+        btnImportar.addActionListener(this::importarCsv); // Listener para escolher o arquivo e importar
+
         pnlClientes.add(btnManterClientes); // Adiciona o botão de manter clientes ao painel
-        pnlClientes.add(new JLabel("")); // Espaço vazio
+        pnlClientes.add(btnImportar); // Adiciona o botão de importação ao painel
         pnlClientes.add(new JLabel("")); // Espaço vazio
 
         // Painel de Contas (Coluna Direita)
@@ -61,9 +192,12 @@ public class TelaPrincipal extends JFrame {
         JButton btnOperacoes = new JButton("Operações em Conta"); // Botão para abrir a tela de operações em conta
         btnOperacoes.addActionListener(this::abrirTelaOperacoes); // Listener para abrir a tela
 
+        JButton btnRemuneracaoMensal = new JButton("Remuneração Mensal"); // Botão para remunerar todas as contas
+        btnRemuneracaoMensal.addActionListener(this::executarRemuneracaoMensal); // Listener para iniciar o job
+
         pnlContas.add(btnVincularConta); // Adiciona o botão de vincular conta ao painel
         pnlContas.add(btnOperacoes); // Adiciona o botão de operações em conta ao painel
-        pnlContas.add(new JLabel("")); // Espaço vazio
+        pnlContas.add(btnRemuneracaoMensal); // Adiciona o botão de remuneração mensal ao painel
 
         // Adiciona os painéis ao painel de botões central
         pnlBotoes.add(pnlClientes); // Adiciona o painel de clientes ao painel central
@@ -94,6 +228,89 @@ public class TelaPrincipal extends JFrame {
         new TelaOperacoes(gerenciadorContas, gerenciadorClientes).setVisible(true);
     }
 
+    // Remunera todas as contas em segundo plano, mostrando o andamento e, ao final, a vazão.
+    private void executarRemuneracaoMensal(ActionEvent e) {
+        int confirm = JOptionPane.showConfirmDialog(this, "Aplicar a remuneração mensal em todas as contas?", "Remuneração Mensal", JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) return; // Sai se o usuário cancelar
+
+        JButton origem = (JButton) e.getSource();
+        origem.setEnabled(false); // Evita iniciar o job duas vezes
+        ProgressMonitor monitor = new ProgressMonitor(this, "Remunerando contas...", null, 0, 100);
+
+        // O job roda fora da EDT; o progresso é repassado para a tela pelo SwingWorker.
+        SwingWorker<RemuneracaoEmLote.Resultado, Void> worker = new SwingWorker<>() {
+            @Override
+            protected RemuneracaoEmLote.Resultado doInBackground() {
+                return gerenciadorContas.remunerarTodas((feitas, total) -> setProgress(total == 0 ? 100 : (int) (feitas * 100 / total)));
+            }
+
+            @Override
+            protected void done() {
+                monitor.close();
+                origem.setEnabled(true);
+                try {
+                    RemuneracaoEmLote.Resultado r = get();
+                    JOptionPane.showMessageDialog(TelaPrincipal.this, String.format("%d contas remuneradas em %d ms (%.0f contas/s).", r.getTotal(), r.getMillis(), r.getContasPorSegundo()), "Remuneração Mensal", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(TelaPrincipal.this, "Erro na remuneração mensal: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        // Atualiza a barra do monitor sempre que o progresso muda.
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                monitor.setProgress((Integer) evt.getNewValue());
+            }
+        });
+        worker.execute();
+    }
+
+    // Importa clientes (e contas) de um arquivo CSV em segundo plano e, ao final, mostra o relatório
+    // com a vazão e as linhas recusadas (ver ImportadorCsv para o formato do arquivo).
+    private void importarCsv(ActionEvent e) {
+        JFileChooser seletor = new JFileChooser();
+        if (seletor.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return; // Sai se o usuário cancelar
+        Path arquivo = seletor.getSelectedFile().toPath();
+
+        JButton origem = (JButton) e.getSource();
+        origem.setEnabled(false); // Evita iniciar duas importações ao mesmo tempo
+        String textoBotao = origem.getText();
+
+        SwingWorker<ImportadorCsv.Relatorio, Long> worker = new SwingWorker<>() {
+            @Override
+            protected ImportadorCsv.Relatorio doInBackground() throws IOException {
+                return new ImportadorCsv(gerenciadorClientes, gerenciadorContas).importar(arquivo, linhas -> publish(linhas));
+            }
+
+            @Override
+            protected void process(java.util.List<Long> lidas) {
+                origem.setText(lidas.get(lidas.size() - 1) + " linhas lidas..."); // O total de linhas não é conhecido antes do fim.
+            }
+
+            @Override
+            protected void done() {
+                origem.setText(textoBotao);
+                origem.setEnabled(true);
+                try {
+                    ImportadorCsv.Relatorio r = get();
+                    StringBuilder mensagem = new StringBuilder(String.format("%d linhas lidas em %d ms (%.0f linhas/s).%n%d clientes importados, %d contas abertas, %d linhas recusadas.",
+                            r.getLinhasLidas(), r.getMillis(), r.getLinhasPorSegundo(), r.getClientesImportados(), r.getContasAbertas(), r.getTotalRejeitadas()));
+                    int exibidas = Math.min(20, r.getRejeicoes().size()); // O diálogo mostra só as primeiras.
+                    for (int i = 0; i < exibidas; i++) {
+                        mensagem.append('\n').append(r.getRejeicoes().get(i));
+                    }
+                    if (r.getTotalRejeitadas() > exibidas) {
+                        mensagem.append("\n...");
+                    }
+                    JOptionPane.showMessageDialog(TelaPrincipal.this, mensagem.toString(), "Importação", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(TelaPrincipal.this, "Erro na importação: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.execute();
+    }
+
     // Ponto de entrada (Main) da aplicação.
     // Inicia a interface gráfica do sistema bancário
     public static void main(String[] args) {
@@ -1,10 +1,12 @@
 package banco.apresentacao;
 
+import banco.modelo.Centavos;
 import banco.modelo.Cliente;
 import banco.modelo.ContaCorrente;
 import banco.modelo.ContaInvestimento;
 import banco.negocio.GerenciadorClientes;
 import banco.negocio.GerenciadorContas;
+import banco.negocio.Pagina;
 
 import javax.swing.event.DocumentListener;
 import javax.swing.event.DocumentEvent;
@@ -14,8 +16,8 @@ import java.awt.BorderLayout;
 import java.awt.CardLayout;
 import java.awt.FlowLayout;
 import java.awt.GridLayout;
-import java.util.List;
 import javax.swing.*;
+import javax.swing.plaf.basic.ComboPopup;
 
 // Tela de interface gráfica (JFrame) responsável por Vincular uma nova Conta (Corrente ou Investimento) a um Cliente existente.
 // Utiliza CardLayout para alternar campos específicos da conta.
@@ -28,6 +30,8 @@ public class TelaVincularConta extends JFrame {
     
     // Componentes de Seleção
     private JComboBox<Cliente> cmbClientes; // Combobox para selecionar o cliente
+    private String cursorClientes; // Cursor da próxima página de clientes (null = todos já carregados)
+    private static final int TAMANHO_PAGINA = 200; // Clientes carregados na combobox por vez
     private JComboBox<String> cmbTipoConta; // Combobox para selecionar o tipo de conta
     
     // Componentes de Layout Dinâmico
@@ -66,6 +70,7 @@ public class TelaVincularConta extends JFrame {
         JPanel pnlSelecao = new JPanel(new GridLayout(2, 2, 5, 5)); // 2 linhas, 2 colunas 
         
         cmbClientes = new JComboBox<>(); // Combobox para selecionar o cliente
+        carregarMaisAoRolar(); // Os clientes chegam por páginas, conforme a lista aberta é rolada
         cmbTipoConta = new JComboBox<>(new String[]{"Conta Corrente", "Conta Investimento"}); // Combobox para selecionar o tipo de conta
         
         // Adiciona listener para alternar os campos ao mudar o tipo de conta
@@ -156,13 +161,45 @@ public class TelaVincularConta extends JFrame {
         }
     }
 
-    // Carrega a lista de clientes do gerenciador para a JComboBox de clientes.
+    // Carrega a primeira página de clientes do gerenciador na JComboBox de clientes.
+    // As demais são carregadas quando a lista aberta é rolada até o fim (ver carregarMaisAoRolar),
+    // então abrir a tela não depende do total de clientes cadastrados.
     private void carregarClientes() {
         cmbClientes.removeAllItems(); // Limpa itens existentes
-        List<Cliente> clientes = gerenciadorClientes.listarTodos(); // Obtém a lista de clientes do gerenciador
-        for (Cliente cliente : clientes) { // Itera sobre cada cliente
+        adicionarPagina(gerenciadorClientes.listar(null, TAMANHO_PAGINA));
+    }
+    
+    // Carrega a próxima página de clientes, se ainda houver.
+    private void carregarMaisClientes() {
+        if (cursorClientes != null) {
+            adicionarPagina(gerenciadorClientes.listar(cursorClientes, TAMANHO_PAGINA));
+        }
+    }
+    
+    // Acrescenta os clientes da página à combobox e guarda o cursor da seguinte.
+    private void adicionarPagina(Pagina<Cliente> pagina) {
+        for (Cliente cliente : pagina.getItens()) { // Itera sobre cada cliente
             cmbClientes.addItem(cliente); // Adiciona cada cliente
         }
+        cursorClientes = pagina.getCursor();
+    }
+    
+    // Ouve a barra de rolagem da lista aberta da combobox: perto do fim, carrega a próxima página.
+    private void carregarMaisAoRolar() {
+        Object popup = cmbClientes.getUI().getAccessibleChild(cmbClientes, 0);
+        if (!(popup instanceof ComboPopup)) {
+            return; // Look and feel sem a lista padrão: fica só com a primeira página
+        }
+        JScrollPane rolagem = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, ((ComboPopup) popup).getList());
+        if (rolagem == null) {
+            return;
+        }
+        rolagem.getVerticalScrollBar().addAdjustmentListener(e -> {
+            JScrollBar barra = (JScrollBar) e.getAdjustable();
+            if (barra.getValue() + 2 * barra.getVisibleAmount() >= barra.getMaximum()) {
+                carregarMaisClientes();
+            }
+        });
     }
     
     // Cria e retorna o painel com os campos específicos para Conta Corrente.
@@ -241,28 +278,24 @@ public class TelaVincularConta extends JFrame {
         cardLayout.show(pnlCamposConta, tipo); // Exibe painel correspondente ao tipo
     }
     
-    // Converte o texto formatado do JTextField para um valor Double.
-    // Retorna o valor como double ou lança NumberFormatException se inválido
-    private double getDoubleFromTextField(JTextField field) throws NumberFormatException {
+    // Converte o texto formatado do JTextField para um valor em centavos.
+    // Retorna o valor como long ou lança NumberFormatException se inválido
+    private long getCentavosFromTextField(JTextField field) throws NumberFormatException {
         String text = field.getText(); // Obtém o texto do campo
 
         if (text == null || text.trim().isEmpty()) { // Verifica se o campo está vazio
-            return 0.0;
+            return 0;
         }
 
-        // Remove pontos de milhar (Ex: 1.000,00 -> 1000,00)
-        String valorSemMilhar = text.replace(".", ""); 
-        // Substitui a virgula por ponto (Ex: 1000,00 -> 1000.00)
-        String valorFormatado = valorSemMilhar.replace(',', '.'); 
-        // Remove quaisquer caracteres não numéricos restantes que não sejam o separador decimal
-        String valorLimpo = valorFormatado.replaceAll("[^0-9.]", "");
+        // O campo é digitado no modo centavos e sempre exibe duas casas decimais,
+        // então basta remover pontos de milhar e vírgula (Ex: 1.000,00 -> 100000 centavos).
+        String valorLimpo = text.replaceAll("[^0-9]", "");
 
         if (valorLimpo.isEmpty()) { // Se não restar nenhum número válido
-            return 0.0;
+            return 0;
         }
 
-        // Converte para Double
-        return Double.parseDouble(valorLimpo); // Retorna o valor convertido
+        return Long.parseLong(valorLimpo); // Retorna o valor convertido
     }
     
     // Realiza a lógica de criação e vinculação da conta ao cliente selecionado.
@@ -286,10 +319,10 @@ public class TelaVincularConta extends JFrame {
         try {
             // Lógica para Conta Corrente
             if ("Conta Corrente".equals(tipoConta)) {
-                // Converte os valores dos campos de texto formatados para double.
+                // Converte os valores dos campos de texto formatados para centavos.
                 // Obtém os valores dos campos
-                double depInicial = getDoubleFromTextField(txtCC_DepInicial);
-                double limite = getDoubleFromTextField(txtCC_Limite);
+                long depInicial = getCentavosFromTextField(txtCC_DepInicial);
+                long limite = getCentavosFromTextField(txtCC_Limite);
                 
                 ContaCorrente novaConta = new ContaCorrente(clienteSelecionado, depInicial, limite); // Cria e adiciona a Conta Corrente
                 gerenciadorContas.adicionar(novaConta); // Adiciona a conta recém-criada ao GerenciadorContas.
@@ -300,22 +333,20 @@ public class TelaVincularConta extends JFrame {
                 
             // Lógica para Conta Investimento
             } else if ("Conta Investimento".equals(tipoConta)) {
-                // Converte os valores dos campos de texto formatados para double.
+                // Converte os valores dos campos de texto formatados para centavos.
                 // Obtém os valores dos campos
-                double montanteMinimo = getDoubleFromTextField(txtCI_MontanteMinimo);
-                double depMinimo = getDoubleFromTextField(txtCI_DepMinimo);
-                double depInicialCI = getDoubleFromTextField(txtCI_DepInicial);
-                
-                // Cria a Conta Investimento
-                ContaInvestimento novaConta = new ContaInvestimento(clienteSelecionado, depInicialCI, montanteMinimo, depMinimo);
+                long montanteMinimo = getCentavosFromTextField(txtCI_MontanteMinimo);
+                long depMinimo = getCentavosFromTextField(txtCI_DepMinimo);
+                long depInicialCI = getCentavosFromTextField(txtCI_DepInicial);
                 
-                // Verifica se o saldo é zero APESAR do depósito inicial > 0. Isso indica que o valor do depósito inicial não atingiu o Depósito Mínimo da Conta Investimento.
-                // Validação de Depósito Mínimo da Conta Investimento
-                if (novaConta.getSaldo() == 0 && depInicialCI > 0) {
+                // Validação de Depósito Mínimo da Conta Investimento, antes de criar a conta: uma conta criada
+                // e descartada deixaria a sua linha ocupada no armazém (mesma regra do ImportadorCsv).
+                if (depInicialCI > 0 && depInicialCI < depMinimo) {
                     // Exibe alerta de bloqueio por depósito inicial insuficiente.
-                     JOptionPane.showMessageDialog(this, "Criação de Conta Investimento CANCELADA. O Depósito Inicial de R$ " + String.format("%.2f", depInicialCI) + " é menor que o Depósito Mínimo de R$ " + String.format("%.2f", depMinimo) + ".", "Criação Bloqueada", JOptionPane.WARNING_MESSAGE);
+                     JOptionPane.showMessageDialog(this, "Criação de Conta Investimento CANCELADA. O Depósito Inicial de R$ " + Centavos.formatar(depInicialCI) + " é menor que o Depósito Mínimo de R$ " + Centavos.formatar(depMinimo) + ".", "Criação Bloqueada", JOptionPane.WARNING_MESSAGE);
                 } else {
-                    // Adiciona a conta (se a criação foi bem-sucedida ou se o depósito inicial foi 0).
+                    // Cria a Conta Investimento e a adiciona (depósito inicial válido ou igual a 0).
+                    ContaInvestimento novaConta = new ContaInvestimento(clienteSelecionado, depInicialCI, montanteMinimo, depMinimo);
                     gerenciadorContas.adicionar(novaConta); 
                     // Exibe mensagem de sucesso.
                     JOptionPane.showMessageDialog(this, "Conta Investimento Nº " + novaConta.getNumero() + " criada e vinculada com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
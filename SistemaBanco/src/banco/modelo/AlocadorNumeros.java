@@ -0,0 +1,136 @@
+package banco.modelo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Distribui os números das contas novas.
+// Cada thread recebe um bloco de números consecutivos e vai usando o seu bloco sem disputar com as outras;
+// só quando o bloco acaba ela volta ao alocador para reservar outro.
+//
+// Com arquivo, a marca (primeiro número ainda não reservado) fica gravada em disco e cada reserva
+// de bloco é feita com o arquivo travado (FileChannel.lock): vários processos podem usar o mesmo arquivo
+// e abrir contas em paralelo sem repetir números, coordenando-se só uma vez por bloco.
+// Os números que sobram nos blocos quando o programa termina não são reaproveitados (ficam buracos na sequência).
+public final class AlocadorNumeros implements Closeable {
+
+    public static final int PRIMEIRO_NUMERO = 1000; // Número da primeira conta.
+    public static final int TAMANHO_BLOCO_PADRAO = 1000; // Números reservados por vez para cada thread.
+
+    private final int tamanhoBloco;
+    private final FileChannel canal; // Arquivo com a marca (null: só em memória).
+    private final AtomicInteger marca = new AtomicInteger(PRIMEIRO_NUMERO); // Primeiro número não reservado por este processo.
+    private final AtomicInteger piso = new AtomicInteger(PRIMEIRO_NUMERO - 1); // Maior número já usado por uma conta recuperada.
+
+    // Bloco da thread: os números de 'proximo' até 'fim' (exclusivo) ainda não foram entregues.
+    private static final class Bloco {
+        int proximo;
+        int fim;
+    }
+
+    private final ThreadLocal<Bloco> blocos = ThreadLocal.withInitial(Bloco::new);
+
+    // Alocador só em memória (a numeração recomeça a cada execução, a menos que seja restaurada pelo garantirAcimaDe).
+    public AlocadorNumeros() {
+        this(TAMANHO_BLOCO_PADRAO, null);
+    }
+
+    private AlocadorNumeros(int tamanhoBloco, FileChannel canal) {
+        if (tamanhoBloco <= 0) {
+            throw new IllegalArgumentException("O tamanho do bloco deve ser positivo.");
+        }
+        this.tamanhoBloco = tamanhoBloco;
+        this.canal = canal;
+    }
+
+    // Abre (ou cria) o arquivo da marca e retorna um alocador que reserva os blocos nele.
+    public static AlocadorNumeros abrir(Path arquivo) throws IOException {
+        return abrir(arquivo, TAMANHO_BLOCO_PADRAO);
+    }
+
+    public static AlocadorNumeros abrir(Path arquivo, int tamanhoBloco) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new AlocadorNumeros(tamanhoBloco, canal);
+    }
+
+    // Entrega um número de conta que nunca foi entregue antes (nem por outra thread, nem por outro processo no mesmo arquivo).
+    public int proximo() {
+        Bloco bloco = blocos.get();
+        // O bloco também é descartado se uma recuperação passou por cima dele (ver garantirAcimaDe).
+        if (bloco.proximo >= bloco.fim || bloco.proximo <= piso.get()) {
+            bloco.proximo = reservarBloco();
+            bloco.fim = bloco.proximo + tamanhoBloco;
+        }
+        return bloco.proximo++;
+    }
+
+    // Garante que nenhum número até 'numero' (inclusive) seja entregue a partir de agora.
+    // Usado na recuperação: as contas gravadas mantêm os seus números.
+    public void garantirAcimaDe(int numero) {
+        if (numero > piso.get()) {
+            piso.accumulateAndGet(numero, Math::max);
+        }
+        if (numero >= marca.get()) {
+            marca.accumulateAndGet(numero + 1, Math::max);
+        }
+    }
+
+    // Primeiro número ainda não reservado por este processo (gravado no instantâneo).
+    public int getMarca() {
+        return marca.get();
+    }
+
+    // Reserva um novo bloco e retorna o seu primeiro número.
+    private int reservarBloco() {
+        if (canal == null) {
+            while (true) {
+                int inicio = marca.get();
+                if (marca.compareAndSet(inicio, Math.addExact(inicio, tamanhoBloco))) {
+                    return inicio;
+                }
+            }
+        }
+        // Uma trava de arquivo por vez na JVM (FileChannel.lock não pode ser chamado por duas threads juntas).
+        synchronized (this) {
+            try {
+                FileLock trava = canal.lock();
+                try {
+                    int inicio = Math.max(lerMarca(), marca.get());
+                    int fim = Math.addExact(inicio, tamanhoBloco);
+                    ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).putInt(0, fim);
+                    canal.write(buffer, 0);
+                    canal.force(false); // A marca precisa estar em disco antes de qualquer número do bloco ser usado.
+                    marca.accumulateAndGet(fim, Math::max);
+                    return inicio;
+                } finally {
+                    trava.release();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Não foi possível reservar números de conta: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Lê a marca gravada no arquivo (PRIMEIRO_NUMERO se o arquivo estiver vazio).
+    private int lerMarca() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer, buffer.position()) < 0) {
+                return PRIMEIRO_NUMERO;
+            }
+        }
+        return buffer.getInt(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (canal != null) {
+            canal.close();
+        }
+    }
+}
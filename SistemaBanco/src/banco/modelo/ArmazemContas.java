@@ -0,0 +1,219 @@
+package banco.modelo;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+// Armazém colunar, fora do heap, com o estado de todas as contas.
+// Cada conta ocupa uma linha; cada campo (número, tipo, saldo, limite, montante mínimo, depósito mínimo, dono,
+// época de remuneração) é uma coluna guardada em ByteBuffers diretos. O objeto Conta passa a ser só uma visão da linha.
+//
+// As colunas são divididas em blocos de LINHAS_POR_BLOCO linhas que nunca mudam de lugar:
+// crescer o armazém só acrescenta blocos, então uma Conta pode ler e fazer CAS na sua linha
+// sem trava, mesmo enquanto outras linhas são criadas. Linhas liberadas (conta excluída)
+// vão para uma lista de livres e são reaproveitadas pelas próximas contas.
+//
+// Cada long da coluna de saldo guarda também a geração da linha: 16 bits altos de geração e 48 bits baixos
+// de saldo (com sinal). A geração muda quando a linha é liberada, e quem lê ou altera o saldo informa a geração
+// da sua conta. Como o CAS compara a palavra inteira, uma Conta já excluída que ainda tinha a linha em mãos
+// nunca altera o saldo da conta que reaproveitou a linha: o CAS falha e a releitura lança IllegalStateException.
+// O saldo fica limitado a ±2^47 centavos (mais de 1 trilhão de reais); passar disso lança ArithmeticException.
+//
+// Com isso milhões de contas não geram milhões de objetos com campos para o coletor de lixo percorrer,
+// e uma varredura (remuneração, relatórios) lê saldos e tipos contíguos na memória.
+public final class ArmazemContas {
+
+    // Tipos de conta guardados na coluna de tipo (0 = linha livre).
+    public static final byte LIVRE = 0;
+    public static final byte CORRENTE = 1;
+    public static final byte INVESTIMENTO = 2;
+
+    private static final int BITS_BLOCO = 16;
+    private static final int LINHAS_POR_BLOCO = 1 << BITS_BLOCO;
+    private static final int MASCARA_BLOCO = LINHAS_POR_BLOCO - 1;
+
+    private static final int BITS_SALDO = 48;
+    private static final long MASCARA_SALDO = (1L << BITS_SALDO) - 1;
+    private static final int MASCARA_GERACAO = 0xFFFF;
+    public static final long SALDO_MAXIMO = (1L << (BITS_SALDO - 1)) - 1;
+    public static final long SALDO_MINIMO = -(1L << (BITS_SALDO - 1));
+
+    // Acesso atômico a um long dentro de um ByteBuffer direto (o índice é em bytes e precisa estar alinhado a 8).
+    private static final VarHandle LONGO = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    // O mesmo para um int (índice alinhado a 4).
+    private static final VarHandle INTEIRO = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    // Um bloco de linhas: uma coluna (ByteBuffer direto) por campo.
+    private static final class Bloco {
+        final ByteBuffer numeros = coluna(4);
+        final ByteBuffer tipos = coluna(1);
+        final ByteBuffer saldos = coluna(8);
+        final ByteBuffer limites = coluna(8);
+        final ByteBuffer montantesMinimos = coluna(8);
+        final ByteBuffer depositosMinimos = coluna(8);
+        final ByteBuffer donos = coluna(8);
+        final ByteBuffer epocas = coluna(4);
+
+        // Aloca a coluna alinhada a 8 bytes (exigido pelo CAS) e na ordem de bytes nativa.
+        private static ByteBuffer coluna(int bytesPorLinha) {
+            return ByteBuffer.allocateDirect(LINHAS_POR_BLOCO * bytesPorLinha + 7).alignedSlice(8).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    private volatile Bloco[] blocos = new Bloco[0]; // Só cresce; os blocos existentes nunca são trocados.
+    private int proximaLinha; // Primeira linha nunca usada (protegido por this).
+    private int[] livres = new int[16]; // Pilha de linhas liberadas (protegido por this).
+    private int quantidadeLivres;
+
+    // Reserva uma linha para uma nova conta, reaproveitando uma liberada se houver.
+    // A linha começa zerada, com o tipo informado; a geração é a da linha (ver getGeracao).
+    public synchronized int alocar(byte tipo) {
+        int linha;
+        if (quantidadeLivres > 0) {
+            linha = livres[--quantidadeLivres];
+        } else {
+            linha = proximaLinha++;
+            if ((linha >>> BITS_BLOCO) == blocos.length) {
+                Bloco[] maiores = Arrays.copyOf(blocos, blocos.length + 1);
+                maiores[blocos.length] = new Bloco();
+                blocos = maiores; // Publicação volátil: quem ler a nova linha já enxerga o bloco.
+            }
+        }
+        Bloco b = bloco(linha);
+        int i = linha & MASCARA_BLOCO;
+        b.numeros.putInt(i * 4, 0);
+        LONGO.setVolatile(b.saldos, i * 8, palavra(geracao(b.saldos.getLong(i * 8)), 0));
+        b.limites.putLong(i * 8, 0);
+        b.montantesMinimos.putLong(i * 8, 0);
+        b.depositosMinimos.putLong(i * 8, 0);
+        b.donos.putLong(i * 8, 0);
+        b.epocas.putInt(i * 4, 0);
+        b.tipos.put(i, tipo);
+        return linha;
+    }
+
+    // Devolve a linha para reaproveitamento. A Conta que a usava não deve mais acessá-la.
+    // A geração da linha avança aqui, então a Conta antiga não consegue mais ler nem alterar o saldo.
+    public synchronized void liberar(int linha) {
+        Bloco b = bloco(linha);
+        int i = linha & MASCARA_BLOCO;
+        long anterior = (long) LONGO.getVolatile(b.saldos, i * 8);
+        LONGO.setVolatile(b.saldos, i * 8, palavra((geracao(anterior) + 1) & MASCARA_GERACAO, 0));
+        b.tipos.put(i, LIVRE);
+        if (quantidadeLivres == livres.length) {
+            livres = Arrays.copyOf(livres, quantidadeLivres * 2);
+        }
+        livres[quantidadeLivres++] = linha;
+    }
+
+    // Quantidade de linhas em uso (contas vivas).
+    public synchronized int tamanho() {
+        return proximaLinha - quantidadeLivres;
+    }
+
+    // --- Colunas ---
+
+    public byte getTipo(int linha) { return bloco(linha).tipos.get(linha & MASCARA_BLOCO); }
+
+    public int getNumero(int linha) { return bloco(linha).numeros.getInt((linha & MASCARA_BLOCO) * 4); }
+    public void setNumero(int linha, int numero) { bloco(linha).numeros.putInt((linha & MASCARA_BLOCO) * 4, numero); }
+
+    public long getLimite(int linha) { return bloco(linha).limites.getLong((linha & MASCARA_BLOCO) * 8); }
+    public void setLimite(int linha, long limite) { bloco(linha).limites.putLong((linha & MASCARA_BLOCO) * 8, limite); }
+
+    public long getMontanteMinimo(int linha) { return bloco(linha).montantesMinimos.getLong((linha & MASCARA_BLOCO) * 8); }
+    public void setMontanteMinimo(int linha, long valor) { bloco(linha).montantesMinimos.putLong((linha & MASCARA_BLOCO) * 8, valor); }
+
+    public long getDepositoMinimo(int linha) { return bloco(linha).depositosMinimos.getLong((linha & MASCARA_BLOCO) * 8); }
+    public void setDepositoMinimo(int linha, long valor) { bloco(linha).depositosMinimos.putLong((linha & MASCARA_BLOCO) * 8, valor); }
+
+    // Identificador do dono: o CPF em forma numérica (ver chaveCpf), ou -1 se o CPF não for numérico.
+    public long getDono(int linha) { return bloco(linha).donos.getLong((linha & MASCARA_BLOCO) * 8); }
+    public void setDono(int linha, long chaveCpf) { bloco(linha).donos.putLong((linha & MASCARA_BLOCO) * 8, chaveCpf); }
+
+    // Geração atual da linha. A Conta guarda a que recebeu ao alocar a linha e a informa em cada acesso ao saldo.
+    public int getGeracao(int linha) {
+        return geracao((long) LONGO.getVolatile(bloco(linha).saldos, (linha & MASCARA_BLOCO) * 8));
+    }
+
+    // O saldo é lido e gravado com semântica volátil, como o antigo campo volatile da Conta.
+    // Lança IllegalStateException se a linha já não for da geração informada (conta excluída).
+    public long getSaldo(int linha, int geracao) {
+        long atual = (long) LONGO.getVolatile(bloco(linha).saldos, (linha & MASCARA_BLOCO) * 8);
+        verificarGeracao(atual, geracao);
+        return saldo(atual);
+    }
+
+    public void setSaldo(int linha, int geracao, long saldo) {
+        long novo = palavra(geracao, saldo);
+        Bloco b = bloco(linha);
+        int posicao = (linha & MASCARA_BLOCO) * 8;
+        long atual;
+        do {
+            atual = (long) LONGO.getVolatile(b.saldos, posicao);
+            verificarGeracao(atual, geracao);
+        } while (!LONGO.compareAndSet(b.saldos, posicao, atual, novo));
+    }
+
+    // Troca o saldo de 'esperado' para 'novo' de forma atômica. Retorna false se o saldo já era outro
+    // ou se a linha mudou de geração (a releitura com getSaldo então lança IllegalStateException).
+    public boolean compareAndSetSaldo(int linha, int geracao, long esperado, long novo) {
+        return LONGO.compareAndSet(bloco(linha).saldos, (linha & MASCARA_BLOCO) * 8, palavra(geracao, esperado), palavra(geracao, novo));
+    }
+
+    // Última época da TabelaRemuneracao já aplicada ao saldo. Lida e gravada com semântica volátil, como o saldo.
+    public int getEpoca(int linha) {
+        return (int) INTEIRO.getVolatile(bloco(linha).epocas, (linha & MASCARA_BLOCO) * 4);
+    }
+
+    public void setEpoca(int linha, int epoca) {
+        INTEIRO.setVolatile(bloco(linha).epocas, (linha & MASCARA_BLOCO) * 4, epoca);
+    }
+
+    // Converte o CPF (apenas números) em um long, usado como id do dono e como chave dos índices por CPF.
+    // Um dígito 1 é colocado na frente para que "0123..." e "123..." não virem a mesma chave.
+    // Retorna -1 se o texto não for um CPF numérico.
+    public static long chaveCpf(String cpf) {
+        if (cpf == null || cpf.isEmpty() || cpf.length() > 17) {
+            return -1;
+        }
+        long chave = 1;
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1; // Possui caractere que não é dígito.
+            }
+            chave = chave * 10 + (c - '0');
+        }
+        return chave;
+    }
+
+    // Junta geração e saldo em uma palavra da coluna de saldo. Lança ArithmeticException se o saldo não couber em 48 bits.
+    private static long palavra(int geracao, long saldo) {
+        if (saldo > SALDO_MAXIMO || saldo < SALDO_MINIMO) {
+            throw new ArithmeticException("Saldo fora do intervalo suportado: " + saldo);
+        }
+        return ((long) geracao << BITS_SALDO) | (saldo & MASCARA_SALDO);
+    }
+
+    private static int geracao(long palavra) {
+        return (int) (palavra >>> BITS_SALDO);
+    }
+
+    private static long saldo(long palavra) {
+        return (palavra << (Long.SIZE - BITS_SALDO)) >> (Long.SIZE - BITS_SALDO); // Estende o sinal dos 48 bits.
+    }
+
+    private static void verificarGeracao(long palavra, int geracao) {
+        if (geracao(palavra) != geracao) {
+            throw new IllegalStateException("A conta foi excluída e não pode mais ser usada.");
+        }
+    }
+
+    private Bloco bloco(int linha) {
+        return blocos[linha >>> BITS_BLOCO];
+    }
+}
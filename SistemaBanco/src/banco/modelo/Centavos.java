@@ -0,0 +1,48 @@
+package banco.modelo;
+
+import java.text.DecimalFormatSymbols;
+
+// Funções de apoio para valores monetários representados em centavos (long).
+// Todo valor em dinheiro do sistema (saldo, limite, mínimos, valores de operação) é um long em centavos:
+// a aritmética é exata, não cria objetos e os saldos podem ser guardados em arrays long[].
+public final class Centavos {
+
+    private static final long BASE_TAXA = 10_000; // Taxas são dadas em pontos-base: 100 = 1%.
+
+    // Classe utilitária: não deve ser instanciada.
+    private Centavos() {
+    }
+
+    // Retorna os juros do valor para a taxa em pontos-base, arredondados ao centavo
+    // (meio centavo vai para o par mais próximo, o arredondamento bancário).
+    public static long juros(long centavos, int pontosBase) {
+        long produto = Math.multiplyExact(centavos, (long) pontosBase); // Lança exceção em vez de estourar em silêncio.
+        long quociente = Math.floorDiv(produto, BASE_TAXA);
+        long resto = Math.floorMod(produto, BASE_TAXA);
+        if (resto * 2 > BASE_TAXA || (resto * 2 == BASE_TAXA && (quociente & 1) != 0)) {
+            quociente++;
+        }
+        return quociente;
+    }
+
+    // Retorna o valor acrescido da taxa em pontos-base (ex: 100 = 1%), arredondado ao centavo.
+    public static long aplicarTaxa(long centavos, int pontosBase) {
+        return Math.addExact(centavos, juros(centavos, pontosBase));
+    }
+
+    // Formata os centavos como reais com duas casas decimais (ex: 123456 -> "1234,56"),
+    // usando o separador decimal do idioma padrão, como o String.format("%.2f") fazia.
+    public static String formatar(long centavos) {
+        long reais = centavos / 100;
+        int resto = (int) Math.abs(centavos % 100);
+        StringBuilder sb = new StringBuilder(24);
+        if (centavos < 0 && reais == 0) {
+            sb.append('-'); // Ex: -50 centavos: a parte inteira (0) não carrega o sinal.
+        }
+        sb.append(reais).append(DecimalFormatSymbols.getInstance().getDecimalSeparator());
+        if (resto < 10) {
+            sb.append('0');
+        }
+        return sb.append(resto).toString();
+    }
+}
@@ -1,5 +1,8 @@
 package banco.modelo;
 
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+
 // Classe de modelo que representa um Cliente do sistema bancário.
 // Implementa a interface Comparable para permitir a ordenação natural por nome.
 public class Cliente implements Comparable<Cliente> {
@@ -8,6 +11,7 @@ public class Cliente implements Comparable<Cliente> {
     private String rg;
     private String cpf; // Armazenado internamente sem máscara (apenas números).
     private String endereco;
+    private PropertyChangeSupport alteracoes; // Avisa os interessados (ex: índices de busca) quando um campo muda. Criado sob demanda.
 
     // Construtor completo do Cliente.
     public Cliente(String nome, String sobrenome, String rg, String cpf, String endereco) {
@@ -26,11 +30,34 @@ public class Cliente implements Comparable<Cliente> {
     public String getEndereco() { return endereco; }
 
     // --- Setters para permitir a atualização do cadastro ---
-    public void setNome(String nome) { this.nome = nome; }
-    public void setSobrenome(String sobrenome) { this.sobrenome = sobrenome; }
-    public void setRg(String rg) { this.rg = rg; }
+    // Cada setter dispara um PropertyChangeEvent com o nome do campo alterado.
+    public void setNome(String nome) { String antigo = this.nome; this.nome = nome; avisarAlteracao("nome", antigo, nome); }
+    public void setSobrenome(String sobrenome) { String antigo = this.sobrenome; this.sobrenome = sobrenome; avisarAlteracao("sobrenome", antigo, sobrenome); }
+    public void setRg(String rg) { String antigo = this.rg; this.rg = rg; avisarAlteracao("rg", antigo, rg); }
     // O CPF é geralmente mantido como imutável após o cadastro, por isso não tem setter.
-    public void setEndereco(String endereco) { this.endereco = endereco; }
+    public void setEndereco(String endereco) { String antigo = this.endereco; this.endereco = endereco; avisarAlteracao("endereco", antigo, endereco); }
+
+    // Registra um ouvinte para ser avisado das alterações nos campos do cliente.
+    public void addPropertyChangeListener(PropertyChangeListener ouvinte) {
+        if (alteracoes == null) {
+            alteracoes = new PropertyChangeSupport(this);
+        }
+        alteracoes.addPropertyChangeListener(ouvinte);
+    }
+
+    // Remove um ouvinte registrado anteriormente.
+    public void removePropertyChangeListener(PropertyChangeListener ouvinte) {
+        if (alteracoes != null) {
+            alteracoes.removePropertyChangeListener(ouvinte);
+        }
+    }
+
+    // Dispara o evento de alteração, se houver alguém ouvindo.
+    private void avisarAlteracao(String campo, String antigo, String novo) {
+        if (alteracoes != null) {
+            alteracoes.firePropertyChange(campo, antigo, novo);
+        }
+    }
 
     // Implementação do método compareTo, que define a ordem natural do objeto.
     // Usamos o nome para ordenar a lista de clientes alfabeticamente.
@@ -57,6 +84,13 @@ public class Cliente implements Comparable<Cliente> {
         return cpf.equals(cliente.cpf); // Compara o CPF.
     }
     
+    // Sobrescreve o hashCode para manter o contrato com o equals (ambos baseados apenas no CPF).
+    // Necessário para que o Cliente funcione corretamente em HashMap/HashSet.
+    @Override
+    public int hashCode() {
+        return cpf.hashCode();
+    }
+    
     // Método auxiliar para formatar o CPF que está armazenado sem máscara.
     private String formatarCpfParaExibicao(String cpfLimpo) {
         if (cpfLimpo == null || cpfLimpo.length() != 11) {
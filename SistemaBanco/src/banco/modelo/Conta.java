@@ -1,59 +1,238 @@
 package banco.modelo;
 
-import javax.swing.JOptionPane;
-
 // Classe abstrata base que implementa as funcionalidades comuns de todas as contas bancárias.
 // Implementa a interface ContaI, definindo a estrutura básica.
+// O estado da conta (número, tipo, saldo e parâmetros) fica em uma linha do ArmazemContas, fora do heap;
+// o objeto guarda apenas o dono, a linha e a geração da linha (ver ArmazemContas), que impede uma conta
+// já excluída de alterar o saldo de outra que reaproveitou a linha.
+// As operações podem ser chamadas por várias threads ao mesmo tempo: o saldo só é alterado
+// por compare-and-set (CAS), então nenhuma regra (limite, montante mínimo) é violada e não há lock.
+// A remuneração sob demanda (ver TabelaRemuneracao) é gravada no saldo na primeira alteração depois de cada época
+// publicada: saque, depósito e remuneração levam o saldo à época atual antes de alterá-lo. getSaldo só soma as
+// épocas que faltam, sem gravar, para que quem registra movimentos possa gravá-las antes como um movimento próprio
+// (ver aplicarRemuneracaoPendente).
 public abstract class Conta implements ContaI {
     
-    private static int PROXIMO_NUMERO = 1000; // Contador estático para gerar o número da conta sequencialmente.
+    // Gera os números das contas novas sem disputa entre threads (ver AlocadorNumeros).
+    private static volatile AlocadorNumeros ALOCADOR = new AlocadorNumeros();
+    
+    // Armazém único de todas as contas. Subclasses gravam nele os seus parâmetros (limite, mínimos).
+    protected static final ArmazemContas ARMAZEM = new ArmazemContas();
+
+    // Épocas da remuneração sob demanda, as mesmas para todas as contas.
+    private static final TabelaRemuneracao REMUNERACAO = new TabelaRemuneracao();
     
-    private Cliente dono;
-    private int numero;
-    protected double saldo; // O saldo é protegido para que subclasses possam acessá-lo diretamente (ex: ContaCorrente).
+    private final Cliente dono;
+    private volatile int linha; // Linha no ARMAZEM (-1 depois que a conta é liberada).
+    private final int geracao; // Geração da linha quando foi alocada para esta conta.
 
     // Construtor da Conta. Inicializa o dono, o número e o saldo.
-    public Conta(Cliente dono, double depositoInicial) {
+    protected Conta(byte tipo, Cliente dono, long depositoInicial) {
+        this(tipo, ALOCADOR.proximo(), dono, depositoInicial); // Atribui o próximo número do bloco da thread.
+    }
+
+    // Construtor usado na recuperação dos dados gravados (diário/snapshot).
+    // Mantém o número e o saldo gravados e garante que os próximos números não os repitam.
+    protected Conta(byte tipo, int numero, Cliente dono, long saldo) {
         this.dono = dono;
-        this.numero = PROXIMO_NUMERO++; // Atribui o número sequencial e incrementa o contador.
-        this.saldo = depositoInicial; // Define o saldo inicial.
+        this.linha = ARMAZEM.alocar(tipo);
+        this.geracao = ARMAZEM.getGeracao(linha);
+        ARMAZEM.setNumero(linha, numero);
+        ARMAZEM.setDono(linha, ArmazemContas.chaveCpf(dono.getCpf()));
+        ARMAZEM.setEpoca(linha, REMUNERACAO.getEpoca()); // Conta nova não recebe as remunerações anteriores a ela.
+        ARMAZEM.setSaldo(linha, geracao, saldo); // Define o saldo inicial.
+        ALOCADOR.garantirAcimaDe(numero);
+    }
+
+    // Troca o alocador de números (ex: por um que grava a marca em arquivo). Deve ser chamado antes de criar contas.
+    public static void setAlocador(AlocadorNumeros alocador) { ALOCADOR = alocador; }
+
+    // Próximo número de conta ainda não reservado (gravado no instantâneo para não reutilizar números de contas excluídas).
+    public static int getProximoNumero() { return ALOCADOR.getMarca(); }
+
+    // Restaura o contador de números de conta. Usado apenas na recuperação (instantâneo).
+    public static void setProximoNumero(int proximoNumero) { ALOCADOR.garantirAcimaDe(proximoNumero - 1); }
+
+    // Publica uma remuneração de todas as contas sem percorrê-las (ver TabelaRemuneracao) e devolve a época criada.
+    // Cada conta aplica a taxa do seu tipo no próximo acesso.
+    public static int publicarRemuneracao(int pontosBaseCorrente, int pontosBaseInvestimento) {
+        return REMUNERACAO.publicar(pontosBaseCorrente, pontosBaseInvestimento);
     }
 
     // --- Implementação dos Getters da interface ContaI ---
     public Cliente getDono() { return dono; }
 
-    public int getNumero() { return numero; }
+    public int getNumero() { return ARMAZEM.getNumero(linha()); }
+
+    // Leitura volátil: sempre enxerga o último saldo gravado, com as remunerações publicadas que faltam já somadas.
+    public long getSaldo() {
+        int l = linha();
+        if (ARMAZEM.getEpoca(l) == REMUNERACAO.getEpoca()) {
+            return ARMAZEM.getSaldo(l, geracao);
+        }
+        return saldoComPendentes(l);
+    }
+
+    // Saldo com as épocas que faltam aplicadas, sem gravá-lo. O monitor é o de acumular, que grava o saldo
+    // antes de avançar a época: aqui dentro os dois nunca estão no meio dessa troca.
+    private synchronized long saldoComPendentes(int l) {
+        int de = ARMAZEM.getEpoca(l);
+        int ate = REMUNERACAO.getEpoca();
+        long saldo = ARMAZEM.getSaldo(l, geracao);
+        return de >= ate ? saldo : REMUNERACAO.aplicar(ARMAZEM.getTipo(l), saldo, de, ate);
+    }
+
+    // Grava no saldo as remunerações publicadas que a conta ainda não recebeu e devolve o valor creditado
+    // (0 se não havia nenhuma). Usado pelo GerenciadorContas para registrar esses juros como um movimento.
+    public final long aplicarRemuneracaoPendente() {
+        int l = linha();
+        return ARMAZEM.getEpoca(l) != REMUNERACAO.getEpoca() ? acumular(l) : 0;
+    }
+    
+    // Linha da conta no ARMAZEM. Lança IllegalStateException se a conta já foi liberada.
+    protected final int linha() {
+        int l = linha;
+        if (l < 0) {
+            throw new IllegalStateException("A conta foi excluída e não pode mais ser usada.");
+        }
+        return l;
+    }
+    
+    // Linha da conta, com as remunerações publicadas já aplicadas ao saldo.
+    private int linhaEmDia() {
+        int l = linha();
+        if (ARMAZEM.getEpoca(l) != REMUNERACAO.getEpoca()) {
+            acumular(l);
+        }
+        return l;
+    }
+
+    // Aplica ao saldo as taxas das épocas que a conta ainda não recebeu, avança a época dela e devolve o valor creditado.
+    // O monitor impede que duas threads apliquem a mesma época; quem chega enquanto isso ainda vê a época antiga
+    // e espera aqui. Operações que já tinham passado pela checagem disputam o saldo pelo CAS e ficam
+    // antes ou depois dos juros, como ficariam durante uma varredura de remuneração.
+    private synchronized long acumular(int l) {
+        int ate = REMUNERACAO.getEpoca();
+        int de = ARMAZEM.getEpoca(l);
+        if (de >= ate) {
+            return 0; // Outra thread já aplicou.
+        }
+        byte tipo = ARMAZEM.getTipo(l);
+        long atual;
+        long novo;
+        do {
+            atual = ARMAZEM.getSaldo(l, geracao);
+            novo = REMUNERACAO.aplicar(tipo, atual, de, ate);
+        } while (!ARMAZEM.compareAndSetSaldo(l, geracao, atual, novo));
+        ARMAZEM.setEpoca(l, ate);
+        return novo - atual;
+    }
+    
+    // Devolve a linha da conta ao armazém, para ser reaproveitada. Chamado quando a conta é excluída,
+    // depois de retirada do gerenciador. Uma operação que já estava em andamento com a linha antiga
+    // não chega a alterar a linha reaproveitada (ver ArmazemContas); a partir daí qualquer operação
+    // nesta conta lança IllegalStateException.
+    public final synchronized void liberar() {
+        if (linha >= 0) {
+            ARMAZEM.liberar(linha);
+            linha = -1;
+        }
+    }
+    
+    // Retorna true enquanto a conta não tiver sido liberada.
+    public final boolean isAtiva() {
+        return linha >= 0;
+    }
+
+    // Realiza o depósito e informa apenas se deu certo.
+    @Override
+    public boolean deposita(long valor) {
+        return realizaDeposito(valor).isSucesso();
+    }
 
-    public double getSaldo() { return saldo; }
+    // Realiza o saque e informa apenas se deu certo.
+    @Override
+    public boolean saca(long valor) {
+        return realizaSaque(valor).isSucesso();
+    }
 
-    // Implementa a lógica de depósito, checando se o valor é positivo.
+    // Implementa a lógica de depósito: valida o valor (validaDeposito) e adiciona ao saldo.
     @Override
-    public boolean deposita(double valor) {
-        // Checamos se o valor do depósito é positivo.
+    public ResultadoOperacao realizaDeposito(long valor) {
+        ResultadoOperacao validacao = validaDeposito(valor);
+        if (validacao.isSucesso()) {
+            creditar(valor); // Adiciona o valor ao saldo atual.
+        }
+        return validacao;
+    }
+
+    // Verifica se a conta aceita um depósito desse valor, sem alterar o saldo.
+    // As regras de depósito não dependem do saldo, então uma transferência pode validar o destino antes de debitar a origem.
+    // Aqui checa apenas se o valor é positivo; subclasses acrescentam as suas regras.
+    public ResultadoOperacao validaDeposito(long valor) {
         if (valor > 0) {
-            this.saldo += valor; // Adiciona o valor ao saldo atual.
-            return true;
+            return ResultadoOperacao.SUCESSO;
         } else {
-            // Se for zero ou negativo, mostra um erro.
-            JOptionPane.showMessageDialog(null, "O valor do depósito deve ser positivo.", "Erro de Depósito", JOptionPane.ERROR_MESSAGE);
-            return false;
+            return ResultadoOperacao.VALOR_NAO_POSITIVO; // Zero ou negativo.
         }
     }
 
     // Lógica de validação básica de saque: checa apenas se o valor é positivo.
-    // As regras de saldo/limite/montante mínimo são delegadas às subclasses.
+    // As regras de saldo/limite/montante mínimo (e o débito) são delegadas às subclasses.
     @Override
-    public boolean saca(double valor) {
+    public ResultadoOperacao realizaSaque(long valor) {
         // Verifica se o valor a ser sacado é maior que zero.
         if (valor > 0) {
-            return true; // OK, permite que a subclasse continue com as validações específicas.
+            return ResultadoOperacao.SUCESSO; // OK, permite que a subclasse continue com as validações específicas.
         } else {
-            // Se for zero ou negativo, mostra um erro.
-            JOptionPane.showMessageDialog(null, "O valor do saque deve ser positivo.", "Erro de Saque", JOptionPane.ERROR_MESSAGE);
-            return false;
+            return ResultadoOperacao.VALOR_NAO_POSITIVO; // Zero ou negativo.
+        }
+    }
+    
+    // Sobrescreve o saldo com um valor gravado anteriormente. Usado apenas na recuperação (diário/snapshot).
+    // O valor gravado já inclui as remunerações publicadas até ali, então a conta passa para a época atual.
+    public final synchronized void restauraSaldo(long saldo) {
+        int l = linha();
+        ARMAZEM.setSaldo(l, geracao, saldo);
+        ARMAZEM.setEpoca(l, REMUNERACAO.getEpoca());
+    }
+    
+    // Adiciona o valor ao saldo de forma atômica.
+    protected final void creditar(long valor) {
+        int l = linhaEmDia();
+        long atual;
+        do {
+            atual = ARMAZEM.getSaldo(l, geracao);
+        } while (!ARMAZEM.compareAndSetSaldo(l, geracao, atual, Math.addExact(atual, valor)));
+    }
+    
+    // Subtrai o valor do saldo de forma atômica, desde que o saldo resultante não fique abaixo de saldoMinimo.
+    // Se ficaria, não altera nada e retorna o motivo de recusa informado.
+    // A checagem e a gravação acontecem sobre o mesmo saldo lido: se outra thread alterar o saldo no meio,
+    // o CAS falha e tudo é refeito com o valor novo.
+    protected final ResultadoOperacao debitar(long valor, long saldoMinimo, ResultadoOperacao recusa) {
+        int l = linhaEmDia();
+        while (true) {
+            long atual = ARMAZEM.getSaldo(l, geracao);
+            long novoSaldo = atual - valor; // Simula o saldo após o saque.
+            if (novoSaldo < saldoMinimo) {
+                return recusa;
+            }
+            if (ARMAZEM.compareAndSetSaldo(l, geracao, atual, novoSaldo)) {
+                return ResultadoOperacao.SUCESSO; // Efetua a operação.
+            }
         }
     }
     
+    // Aplica ao saldo uma taxa em pontos-base (100 = 1%) de forma atômica.
+    protected final void aplicarTaxa(int pontosBase) {
+        int l = linhaEmDia();
+        long atual;
+        do {
+            atual = ARMAZEM.getSaldo(l, geracao);
+        } while (!ARMAZEM.compareAndSetSaldo(l, geracao, atual, Centavos.aplicarTaxa(atual, pontosBase)));
+    }
+    
     // Método abstrato que obriga as classes filhas (ContaCorrente, ContaInvestimento)
     // a implementarem a lógica de remuneração de forma específica.
     @Override
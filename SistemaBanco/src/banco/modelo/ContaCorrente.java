@@ -1,54 +1,53 @@
 package banco.modelo;
 
-import javax.swing.JOptionPane;
-
 // Subclasse de Conta que representa uma Conta Corrente.
 // Adiciona a funcionalidade do limite de cheque especial.
 public class ContaCorrente extends Conta {
-    private double limite; // O valor máximo permitido para o cheque especial.
+    public static final int TAXA_REMUNERACAO = 100; // Remuneração de 1%, em pontos-base.
+    
+    // O limite (valor máximo do cheque especial, em centavos) fica na coluna de limite do armazém.
 
     // Construtor da Conta Corrente.
-    public ContaCorrente(Cliente dono, double depositoInicial, double limite) {
-        super(dono, depositoInicial); // Chama o construtor da classe pai (Conta).
-        this.limite = limite;
+    public ContaCorrente(Cliente dono, long depositoInicial, long limite) {
+        super(ArmazemContas.CORRENTE, dono, depositoInicial); // Chama o construtor da classe pai (Conta).
+        ARMAZEM.setLimite(linha(), limite);
+    }
+
+    // Construtor usado na recuperação (diário/snapshot): mantém o número e o saldo gravados.
+    public ContaCorrente(int numero, Cliente dono, long saldo, long limite) {
+        super(ArmazemContas.CORRENTE, numero, dono, saldo);
+        ARMAZEM.setLimite(linha(), limite);
     }
 
     // Retorna o limite do cheque especial.
-    public double getLimite() {
-        return limite;
+    public long getLimite() {
+        return ARMAZEM.getLimite(linha());
     }
     
     // Implementa a lógica de saque da Conta Corrente.
     // Permite sacar desde que o saldo final não ultrapasse o limite negativo.
     @Override
-    public boolean saca(double valor) {
-        // Primeiro, chamamos o saca do pai para validar se o valor é positivo.
-        if (!super.saca(valor)) {
-            return false;
+    public ResultadoOperacao realizaSaque(long valor) {
+        // Primeiro, chamamos o saque do pai para validar se o valor é positivo.
+        ResultadoOperacao validacao = super.realizaSaque(valor);
+        if (!validacao.isSucesso()) {
+            return validacao;
         }
 
-        double novoSaldo = this.saldo - valor; // Simula o saldo após o saque.
-
         // Checamos a regra do limite: o novo saldo deve ser maior ou igual ao limite negativo (-limite).
-        if (novoSaldo >= -this.limite) { 
-            this.saldo = novoSaldo; // Efetua a operação e atualiza o saldo.
-            return true;
-        } else {
-            // Se ultrapassar o limite, mostramos a mensagem de erro.
-            JOptionPane.showMessageDialog(null, "Saque não permitido. O valor ultrapassa o limite negativo de R$ " + String.format("%.2f", this.limite) + ".", "Erro de Saque", JOptionPane.ERROR_MESSAGE); 
-            return false;
-        }
+        // O débito é atômico, então saques simultâneos não conseguem passar do limite.
+        return debitar(valor, -getLimite(), ResultadoOperacao.LIMITE_EXCEDIDO);
     }
 
     // Aplica a remuneração (juros) da Conta Corrente, que é de 1%.
     @Override
     public void remunera() {
-        this.saldo *= 1.01; // Aumenta o saldo em 1%.
+        aplicarTaxa(TAXA_REMUNERACAO); // Aumenta o saldo em 1%, arredondado ao centavo.
     }
     
     // Retorna uma representação em String da Conta Corrente.
     @Override
     public String toString() {
-        return "Conta Corrente Nº " + getNumero() + " (Dono: " + getDono().getNome() + ", Saldo: R$ " + String.format("%.2f", saldo) + ", Limite: R$ " + String.format("%.2f", limite) + ")";
+        return "Conta Corrente Nº " + getNumero() + " (Dono: " + getDono().getNome() + ", Saldo: R$ " + Centavos.formatar(getSaldo()) + ", Limite: R$ " + Centavos.formatar(getLimite()) + ")";
     }
 }
\ No newline at end of file
@@ -1,13 +1,20 @@
 package banco.modelo;
 
 // Interface que define o contrato básico (métodos obrigatórios) para qualquer tipo de conta bancária.
+// Todos os valores monetários são em centavos (ver Centavos).
 public interface ContaI {
     
     // Realiza a operação de depósito na conta, retornando true em caso de sucesso.
-    public boolean deposita(double valor);
+    public boolean deposita(long valor);
     
     // Realiza a operação de saque na conta, retornando true em caso de sucesso.
-    public boolean saca(double valor);
+    public boolean saca(long valor);
+    
+    // Realiza o depósito e retorna o resultado, com o motivo em caso de recusa.
+    public ResultadoOperacao realizaDeposito(long valor);
+    
+    // Realiza o saque e retorna o resultado, com o motivo em caso de recusa.
+    public ResultadoOperacao realizaSaque(long valor);
     
     // Retorna o objeto Cliente dono da conta.
     public Cliente getDono();
@@ -15,8 +22,8 @@ public interface ContaI {
     // Retorna o número único da conta.
     public int getNumero();
     
-    // Retorna o saldo atual da conta.
-    public double getSaldo();
+    // Retorna o saldo atual da conta, em centavos.
+    public long getSaldo();
     
     // Aplica a remuneração (juros/rendimento) específica do tipo de conta.
     public void remunera();
@@ -1,18 +1,18 @@
 package banco.modelo;
 
-import javax.swing.JOptionPane;
-
 // Subclasse de Conta que representa uma Conta Investimento.
 // Possui regras adicionais: Montante Mínimo para saque e Depósito Mínimo.
 public class ContaInvestimento extends Conta {
-    private double montanteMinimo; // O saldo mínimo que deve permanecer na conta após um saque.
-    private double depositoMinimo; // O valor mínimo para cada depósito.
+    public static final int TAXA_REMUNERACAO = 200; // Rendimento de 2%, em pontos-base.
+    
+    // No armazém ficam o montante mínimo (saldo que deve permanecer na conta após um saque)
+    // e o depósito mínimo (valor mínimo de cada depósito), ambos em centavos.
 
     // Construtor da Conta Investimento.
-    public ContaInvestimento(Cliente dono, double depositoInicial, double montanteMinimo, double depositoMinimo) {
-        super(dono, 0); // Inicializa com saldo zero, pois o depósito inicial será validado separadamente.
-        this.montanteMinimo = montanteMinimo;
-        this.depositoMinimo = depositoMinimo;
+    public ContaInvestimento(Cliente dono, long depositoInicial, long montanteMinimo, long depositoMinimo) {
+        super(ArmazemContas.INVESTIMENTO, dono, 0); // Inicializa com saldo zero, pois o depósito inicial será validado separadamente.
+        ARMAZEM.setMontanteMinimo(linha(), montanteMinimo);
+        ARMAZEM.setDepositoMinimo(linha(), depositoMinimo);
         
         // Se houver valor inicial, tentamos depositar, aplicando a validação de depósito mínimo.
         if (depositoInicial > 0) {
@@ -20,53 +20,54 @@ public class ContaInvestimento extends Conta {
         }
     }
 
+    // Construtor usado na recuperação (diário/snapshot): mantém o número e o saldo gravados,
+    // sem passar de novo pela validação de depósito mínimo.
+    public ContaInvestimento(int numero, Cliente dono, long saldo, long montanteMinimo, long depositoMinimo) {
+        super(ArmazemContas.INVESTIMENTO, numero, dono, saldo);
+        ARMAZEM.setMontanteMinimo(linha(), montanteMinimo);
+        ARMAZEM.setDepositoMinimo(linha(), depositoMinimo);
+    }
+
     // Retorna o montante mínimo de saldo.
-    public double getMontanteMinimo() { return montanteMinimo; }
+    public long getMontanteMinimo() { return ARMAZEM.getMontanteMinimo(linha()); }
     
     // Retorna o valor mínimo para depósito.
-    public double getDepositoMinimo() { return depositoMinimo; }
+    public long getDepositoMinimo() { return ARMAZEM.getDepositoMinimo(linha()); }
 
-    // Implementa a lógica de depósito da Conta Investimento, checando a regra do Depósito Mínimo.
+    // Validação de depósito da Conta Investimento: acrescenta a regra do Depósito Mínimo.
     @Override
-    public boolean deposita(double valor) {
+    public ResultadoOperacao validaDeposito(long valor) {
         // Checamos se o valor atende ao depósito mínimo configurado.
-        if (valor >= this.depositoMinimo) {
-            return super.deposita(valor); // Se sim, chama a lógica do pai para adicionar ao saldo.
+        if (valor >= getDepositoMinimo()) {
+            return super.validaDeposito(valor); // Se sim, aplica também a validação do pai (valor positivo).
         } else {
-            // Se o valor for menor, emitimos o erro.
-            JOptionPane.showMessageDialog(null, "Depósito não permitido. O valor mínimo para depósito é de R$ " + String.format("%.2f", this.depositoMinimo) + ".", "Erro de Depósito", JOptionPane.ERROR_MESSAGE);
-            return false;
+            return ResultadoOperacao.DEPOSITO_MINIMO; // Valor menor que o depósito mínimo.
         }
     }
 
     // Implementa a lógica de saque da Conta Investimento, checando a regra do Montante Mínimo.
     @Override
-    public boolean saca(double valor) {
-        // Primeiro, chamamos o saca do pai para validar se o valor é positivo.
-        if (!super.saca(valor)) {
-            return false;
+    public ResultadoOperacao realizaSaque(long valor) {
+        // Primeiro, chamamos o saque do pai para validar se o valor é positivo.
+        ResultadoOperacao validacao = super.realizaSaque(valor);
+        if (!validacao.isSucesso()) {
+            return validacao;
         }
         
         // Checamos a regra do Montante Mínimo: o saldo após o saque deve ser maior ou igual ao mínimo.
-        if (this.saldo - valor >= this.montanteMinimo) {
-            this.saldo -= valor; // Efetua o saque.
-            return true;
-        } else {
-            // Se o saldo restante for insuficiente, emitimos o erro.
-            JOptionPane.showMessageDialog(null, "Saque não permitido. O saldo restante deve ser maior ou igual ao montante mínimo de R$ " + String.format("%.2f", this.montanteMinimo) + ".", "Erro de Saque", JOptionPane.ERROR_MESSAGE);
-            return false;
-        }
+        // O débito é atômico, então saques simultâneos não conseguem deixar menos que o mínimo.
+        return debitar(valor, getMontanteMinimo(), ResultadoOperacao.MONTANTE_MINIMO);
     }
 
     // Aplica a remuneração (rendimento) da Conta Investimento, que é de 2%.
     @Override
     public void remunera() {
-        this.saldo *= 1.02; // Aumenta o saldo em 2%.
+        aplicarTaxa(TAXA_REMUNERACAO); // Aumenta o saldo em 2%, arredondado ao centavo.
     }
     
     // Retorna uma representação em String da Conta Investimento.
     @Override
     public String toString() {
-        return "Conta Investimento Nº " + getNumero() + " (Dono: " + getDono().getNome() + ", Saldo: R$ " + String.format("%.2f", saldo) + ", Mínimo: R$ " + String.format("%.2f", montanteMinimo) + ")";
+        return "Conta Investimento Nº " + getNumero() + " (Dono: " + getDono().getNome() + ", Saldo: R$ " + Centavos.formatar(getSaldo()) + ", Mínimo: R$ " + Centavos.formatar(getMontanteMinimo()) + ")";
     }
 }
\ No newline at end of file
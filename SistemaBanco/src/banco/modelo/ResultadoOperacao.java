@@ -0,0 +1,18 @@
+package banco.modelo;
+
+// Resultado de uma operação de saque, depósito ou transferência.
+// O modelo apenas informa o resultado (e o motivo da recusa); quem chamou decide como exibi-lo.
+// Assim as contas não dependem de Swing e podem ser usadas em servidor, lote ou benchmark.
+public enum ResultadoOperacao {
+    SUCESSO,            // Operação realizada.
+    VALOR_NAO_POSITIVO, // O valor informado é zero ou negativo.
+    LIMITE_EXCEDIDO,    // Conta Corrente: o saque ultrapassaria o limite negativo.
+    MONTANTE_MINIMO,    // Conta Investimento: o saldo restante ficaria abaixo do montante mínimo.
+    DEPOSITO_MINIMO,    // Conta Investimento: o depósito é menor que o depósito mínimo.
+    MESMA_CONTA;        // Transferência: a conta de origem é a própria conta de destino.
+
+    // Retorna true se a operação foi realizada.
+    public boolean isSucesso() {
+        return this == SUCESSO;
+    }
+}
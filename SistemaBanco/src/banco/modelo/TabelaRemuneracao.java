@@ -0,0 +1,60 @@
+package banco.modelo;
+
+import java.util.Arrays;
+
+// Taxas da remuneração sob demanda, publicadas para todas as contas de uma vez.
+// Cada publicação é uma época (1, 2, 3...) com uma taxa por tipo de conta, em pontos-base.
+// Publicar custa O(1): nenhuma conta é percorrida. Cada conta guarda a última época que já aplicou
+// (coluna de épocas do ArmazemContas); a leitura do saldo soma as que faltam e a próxima alteração as grava (ver Conta).
+// Uma conta parada não é tocada até o próximo acesso, que custa O(épocas pendentes).
+// As taxas são aplicadas uma a uma, com o arredondamento de Centavos.aplicarTaxa, então o saldo
+// fica igual ao de uma varredura de remuneração por época.
+public final class TabelaRemuneracao {
+
+    // Estado publicado: as taxas das épocas 1..quantidade (a da época e fica na posição e - 1).
+    // Os arrays só recebem posições além de 'quantidade', então quem leu um estado antigo nunca vê uma taxa mudar.
+    private static final class Epocas {
+        final int quantidade;
+        final int[] corrente;
+        final int[] investimento;
+
+        Epocas(int quantidade, int[] corrente, int[] investimento) {
+            this.quantidade = quantidade;
+            this.corrente = corrente;
+            this.investimento = investimento;
+        }
+    }
+
+    private volatile Epocas epocas = new Epocas(0, new int[16], new int[16]);
+
+    // Última época publicada (0 = nenhuma).
+    public int getEpoca() {
+        return epocas.quantidade;
+    }
+
+    // Publica uma nova época com as taxas de cada tipo de conta e devolve o número dela.
+    public synchronized int publicar(int pontosBaseCorrente, int pontosBaseInvestimento) {
+        Epocas atual = epocas;
+        int[] corrente = atual.corrente;
+        int[] investimento = atual.investimento;
+        if (atual.quantidade == corrente.length) {
+            corrente = Arrays.copyOf(corrente, corrente.length * 2);
+            investimento = Arrays.copyOf(investimento, investimento.length * 2);
+        }
+        corrente[atual.quantidade] = pontosBaseCorrente;
+        investimento[atual.quantidade] = pontosBaseInvestimento;
+        epocas = new Epocas(atual.quantidade + 1, corrente, investimento); // Publicação volátil: as taxas já estão gravadas.
+        return atual.quantidade + 1;
+    }
+
+    // Aplica ao saldo, em ordem, as taxas das épocas de + 1 até ate para o tipo de conta (ver ArmazemContas).
+    // 'ate' não pode passar da época atual.
+    public long aplicar(byte tipo, long saldo, int de, int ate) {
+        Epocas e = epocas;
+        int[] taxas = tipo == ArmazemContas.INVESTIMENTO ? e.investimento : e.corrente;
+        for (int i = de; i < ate; i++) {
+            saldo = Centavos.aplicarTaxa(saldo, taxas[i]);
+        }
+        return saldo;
+    }
+}
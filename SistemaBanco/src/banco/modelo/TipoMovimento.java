@@ -0,0 +1,32 @@
+package banco.modelo;
+
+// Tipos de movimento que alteram o saldo de uma conta.
+// Cada tipo tem um código fixo de 1 byte, usado nos formatos gravados em disco.
+public enum TipoMovimento {
+    DEPOSITO(1),
+    SAQUE(2),
+    REMUNERACAO(3),
+    TRANSFERENCIA_ENVIADA(4), // Só no histórico de movimentos: o diário grava a transferência num registro próprio.
+    TRANSFERENCIA_RECEBIDA(5);
+
+    private final byte codigo;
+
+    TipoMovimento(int codigo) {
+        this.codigo = (byte) codigo;
+    }
+
+    // Retorna o código gravado em disco.
+    public byte getCodigo() {
+        return codigo;
+    }
+
+    // Retorna o tipo correspondente ao código, ou lança IllegalArgumentException se não existir.
+    public static TipoMovimento doCodigo(byte codigo) {
+        for (TipoMovimento tipo : values()) {
+            if (tipo.codigo == codigo) {
+                return tipo;
+            }
+        }
+        throw new IllegalArgumentException("Código de movimento desconhecido: " + codigo);
+    }
+}
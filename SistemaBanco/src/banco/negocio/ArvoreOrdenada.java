@@ -0,0 +1,387 @@
+package banco.negocio;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Consumer;
+
+// Conjunto ordenado persistente: uma árvore B+ de até 32 entradas por nó. Cada nó interno guarda, para cada filho,
+// quantos itens há nele (achar o k-ésimo item custa O(log n)) e o último item dele (usado na busca).
+// Como no VetorPersistente, enquanto um nó pertence à edição atual as alterações são feitas nele mesmo;
+// congelar() devolve em O(1) uma versão imutável que compartilha os nós, e depois disso a primeira alteração
+// em cada caminho copia só os nós dele (um por nível).
+// Os itens precisam ser distintos segundo o comparador. Não é thread-safe para alterações;
+// uma versão congelada pode ser lida por qualquer thread.
+final class ArvoreOrdenada<E> {
+
+    private static final int LARGURA = 32;
+    private static final int MINIMO = LARGURA / 4; // Abaixo disso, o nó é fundido com um vizinho, se couber.
+
+    private static final class No {
+        final Object edicao; // Edição que criou o nó: só ela pode alterá-lo no lugar.
+        final Object[] itens; // Folha: os itens, em ordem. Nó interno: o último item de cada filho.
+        final No[] filhos; // null nas folhas.
+        final int[] contagens; // Itens em cada filho. null nas folhas.
+        int quantidade; // Itens (folha) ou filhos (nó interno) em uso.
+
+        No(Object edicao, boolean folha) {
+            this.edicao = edicao;
+            this.itens = new Object[LARGURA];
+            this.filhos = folha ? null : new No[LARGURA];
+            this.contagens = folha ? null : new int[LARGURA];
+        }
+
+        No(Object edicao, No original) {
+            this.edicao = edicao;
+            this.itens = original.itens.clone();
+            this.filhos = original.filhos == null ? null : original.filhos.clone();
+            this.contagens = original.contagens == null ? null : original.contagens.clone();
+            this.quantidade = original.quantidade;
+        }
+
+        boolean folha() {
+            return filhos == null;
+        }
+
+        Object ultimo() {
+            return itens[quantidade - 1];
+        }
+
+        int total() {
+            if (folha()) {
+                return quantidade;
+            }
+            int soma = 0;
+            for (int i = 0; i < quantidade; i++) {
+                soma += contagens[i];
+            }
+            return soma;
+        }
+    }
+
+    private final Comparator<? super E> ordem;
+    private No raiz;
+    private int tamanho;
+    private Object edicao; // null = versão congelada.
+    private ArvoreOrdenada<E> congelada; // Última versão congelada, enquanto nada mudou desde ela.
+
+    ArvoreOrdenada(Comparator<? super E> ordem) {
+        this.ordem = ordem;
+        this.edicao = new Object();
+        this.raiz = new No(edicao, true);
+    }
+
+    private ArvoreOrdenada(Comparator<? super E> ordem, No raiz, int tamanho, Object edicao) {
+        this.ordem = ordem;
+        this.raiz = raiz;
+        this.tamanho = tamanho;
+        this.edicao = edicao;
+    }
+
+    // Monta a árvore a partir de itens já ordenados (e distintos), em O(n).
+    static <E> ArvoreOrdenada<E> montar(Comparator<? super E> ordem, E[] ordenados) {
+        ArvoreOrdenada<E> arvore = new ArvoreOrdenada<>(ordem);
+        if (ordenados.length == 0) {
+            return arvore;
+        }
+        Object edicao = arvore.edicao;
+        No[] nivel = new No[(ordenados.length + LARGURA - 1) / LARGURA];
+        for (int i = 0; i < nivel.length; i++) {
+            No folha = new No(edicao, true);
+            folha.quantidade = Math.min(LARGURA, ordenados.length - i * LARGURA);
+            System.arraycopy(ordenados, i * LARGURA, folha.itens, 0, folha.quantidade);
+            nivel[i] = folha;
+        }
+        while (nivel.length > 1) {
+            No[] acima = new No[(nivel.length + LARGURA - 1) / LARGURA];
+            for (int i = 0; i < acima.length; i++) {
+                No no = new No(edicao, false);
+                no.quantidade = Math.min(LARGURA, nivel.length - i * LARGURA);
+                for (int j = 0; j < no.quantidade; j++) {
+                    no.filhos[j] = nivel[i * LARGURA + j];
+                    atualizarFilho(no, j);
+                }
+                acima[i] = no;
+            }
+            nivel = acima;
+        }
+        arvore.raiz = nivel[0];
+        arvore.tamanho = ordenados.length;
+        return arvore;
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    // Devolve a versão imutável do estado atual, em O(1). As alterações seguintes não aparecem nela.
+    ArvoreOrdenada<E> congelar() {
+        if (edicao == null) {
+            return this;
+        }
+        if (congelada == null) {
+            congelada = new ArvoreOrdenada<>(ordem, raiz, tamanho, null);
+            edicao = new Object(); // Os nós atuais passam a ser da versão: alterar um deles agora exige cópia.
+        }
+        return congelada;
+    }
+
+    // Item da posição (a partir de 0), em O(log n).
+    @SuppressWarnings("unchecked")
+    E get(int posicao) {
+        if (posicao < 0 || posicao >= tamanho) {
+            throw new IndexOutOfBoundsException("Posição " + posicao + " fora da árvore de " + tamanho + " itens.");
+        }
+        No no = raiz;
+        while (!no.folha()) {
+            int i = 0;
+            while (posicao >= no.contagens[i]) {
+                posicao -= no.contagens[i];
+                i++;
+            }
+            no = no.filhos[i];
+        }
+        return (E) no.itens[posicao];
+    }
+
+    // Quantidade de itens menores ou iguais à chave (a chave não precisa estar na árvore):
+    // é a posição do primeiro item depois dela.
+    int posicaoApos(E chave) {
+        No no = raiz;
+        int soma = 0;
+        while (!no.folha()) {
+            int i = 0;
+            while (i < no.quantidade && comparar(chave, no.itens[i]) >= 0) {
+                soma += no.contagens[i];
+                i++;
+            }
+            if (i == no.quantidade) {
+                return soma;
+            }
+            no = no.filhos[i];
+        }
+        int i = 0;
+        while (i < no.quantidade && comparar(chave, no.itens[i]) >= 0) {
+            i++;
+        }
+        return soma + i;
+    }
+
+    // Passa à ação, em ordem, até 'quantidade' itens a partir da posição 'de', em O(log n + quantidade).
+    void percorrer(int de, int quantidade, Consumer<? super E> acao) {
+        if (de < tamanho && quantidade > 0) {
+            percorrer(raiz, de, Math.min(quantidade, tamanho - de), acao);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> int percorrer(No no, int de, int quantidade, Consumer<? super E> acao) {
+        if (no.folha()) {
+            int fim = Math.min(no.quantidade, de + quantidade);
+            for (int i = de; i < fim; i++) {
+                acao.accept((E) no.itens[i]);
+            }
+            return fim - de;
+        }
+        int passados = 0;
+        for (int i = 0; i < no.quantidade && passados < quantidade; i++) {
+            if (de >= no.contagens[i]) {
+                de -= no.contagens[i];
+                continue;
+            }
+            passados += percorrer(no.filhos[i], de, quantidade - passados, acao);
+            de = 0;
+        }
+        return passados;
+    }
+
+    // Acrescenta o item, que não pode estar na árvore.
+    void adicionar(E item) {
+        verificarEdicao();
+        raiz = editavel(raiz);
+        No irmao = inserir(raiz, item);
+        if (irmao != null) {
+            No novaRaiz = new No(edicao, false);
+            novaRaiz.filhos[0] = raiz;
+            novaRaiz.filhos[1] = irmao;
+            novaRaiz.quantidade = 2;
+            atualizarFilho(novaRaiz, 0);
+            atualizarFilho(novaRaiz, 1);
+            raiz = novaRaiz;
+        }
+        tamanho++;
+    }
+
+    // Retira o item, se estiver na árvore. Retorna false se não estava.
+    boolean remover(E item) {
+        verificarEdicao();
+        if (tamanho == 0) {
+            return false;
+        }
+        raiz = editavel(raiz);
+        if (!retirar(raiz, item)) {
+            return false;
+        }
+        tamanho--;
+        while (!raiz.folha() && raiz.quantidade == 1) {
+            raiz = raiz.filhos[0]; // Um filho só: a árvore perde um nível.
+        }
+        if (!raiz.folha() && raiz.quantidade == 0) {
+            raiz = new No(edicao, true);
+        }
+        return true;
+    }
+
+    // Insere no nó (já editável). Se o nó estourar, é dividido ao meio e a metade da direita é devolvida.
+    private No inserir(No no, E item) {
+        if (no.folha()) {
+            int i = 0;
+            while (i < no.quantidade && comparar(item, no.itens[i]) > 0) {
+                i++;
+            }
+            return colocar(no, i, item, null);
+        }
+        int i = filhoPara(no, item);
+        No filho = editavel(no.filhos[i]);
+        no.filhos[i] = filho;
+        No irmao = inserir(filho, item);
+        atualizarFilho(no, i);
+        return irmao == null ? null : colocar(no, i + 1, null, irmao);
+    }
+
+    // Coloca o item (folha) ou o filho (nó interno) na posição i do nó, dividindo-o se estiver cheio.
+    private No colocar(No no, int i, Object item, No filho) {
+        if (no.quantidade == LARGURA) {
+            int metade = LARGURA / 2;
+            No direita = new No(edicao, no.folha());
+            mover(no, metade, direita, 0, LARGURA - metade);
+            direita.quantidade = LARGURA - metade;
+            no.quantidade = metade;
+            limpar(no, metade, LARGURA);
+            if (i <= metade) {
+                colocar(no, i, item, filho);
+            } else {
+                colocar(direita, i - metade, item, filho);
+            }
+            return direita;
+        }
+        mover(no, i, no, i + 1, no.quantidade - i);
+        no.quantidade++;
+        if (filho == null) {
+            no.itens[i] = item;
+        } else {
+            no.filhos[i] = filho;
+            atualizarFilho(no, i);
+        }
+        return null;
+    }
+
+    // Retira o item do nó (já editável). Filhos que ficam vazios saem; filhos pequenos são fundidos com um vizinho.
+    private boolean retirar(No no, E item) {
+        if (no.folha()) {
+            for (int i = 0; i < no.quantidade; i++) {
+                int c = comparar(item, no.itens[i]);
+                if (c == 0) {
+                    mover(no, i + 1, no, i, no.quantidade - i - 1);
+                    no.quantidade--;
+                    limpar(no, no.quantidade, no.quantidade + 1);
+                    return true;
+                }
+                if (c < 0) {
+                    return false;
+                }
+            }
+            return false;
+        }
+        int i = filhoPara(no, item);
+        if (comparar(item, no.itens[i]) > 0) {
+            return false; // Maior que todos os itens.
+        }
+        No filho = editavel(no.filhos[i]);
+        no.filhos[i] = filho;
+        if (!retirar(filho, item)) {
+            return false;
+        }
+        if (filho.quantidade == 0) {
+            mover(no, i + 1, no, i, no.quantidade - i - 1);
+            no.quantidade--;
+            limpar(no, no.quantidade, no.quantidade + 1);
+        } else {
+            atualizarFilho(no, i);
+            if (filho.quantidade < MINIMO && no.quantidade > 1) {
+                fundir(no, i > 0 ? i - 1 : i);
+            }
+        }
+        return true;
+    }
+
+    // Junta o filho 'esquerda' com o seguinte, se os dois couberem em um nó só.
+    private void fundir(No no, int esquerda) {
+        No a = no.filhos[esquerda];
+        No b = no.filhos[esquerda + 1];
+        if (a.quantidade + b.quantidade > LARGURA) {
+            return;
+        }
+        a = editavel(a);
+        mover(b, 0, a, a.quantidade, b.quantidade);
+        a.quantidade += b.quantidade;
+        no.filhos[esquerda] = a;
+        atualizarFilho(no, esquerda);
+        mover(no, esquerda + 2, no, esquerda + 1, no.quantidade - esquerda - 2);
+        no.quantidade--;
+        limpar(no, no.quantidade, no.quantidade + 1);
+    }
+
+    // Primeiro filho cujo último item é maior ou igual ao item (ou o último filho).
+    private int filhoPara(No no, E item) {
+        int inicio = 0;
+        int fim = no.quantidade - 1;
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (comparar(item, no.itens[meio]) > 0) {
+                inicio = meio + 1;
+            } else {
+                fim = meio;
+            }
+        }
+        return inicio;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int comparar(E item, Object outro) {
+        return ordem.compare(item, (E) outro);
+    }
+
+    private static void atualizarFilho(No no, int i) {
+        No filho = no.filhos[i];
+        no.contagens[i] = filho.total();
+        no.itens[i] = filho.ultimo();
+    }
+
+    // Copia 'quantidade' entradas (itens e, nos nós internos, filhos e contagens) entre nós do mesmo tipo.
+    private static void mover(No origem, int de, No destino, int para, int quantidade) {
+        System.arraycopy(origem.itens, de, destino.itens, para, quantidade);
+        if (!origem.folha()) {
+            System.arraycopy(origem.filhos, de, destino.filhos, para, quantidade);
+            System.arraycopy(origem.contagens, de, destino.contagens, para, quantidade);
+        }
+    }
+
+    // Solta as referências das posições [de, ate), que ficaram fora do nó.
+    private static void limpar(No no, int de, int ate) {
+        Arrays.fill(no.itens, de, ate, null);
+        if (!no.folha()) {
+            Arrays.fill(no.filhos, de, ate, null);
+        }
+    }
+
+    private No editavel(No no) {
+        congelada = null;
+        return no.edicao == edicao ? no : new No(edicao, no);
+    }
+
+    private void verificarEdicao() {
+        if (edicao == null) {
+            throw new UnsupportedOperationException("Versão congelada não pode ser alterada.");
+        }
+    }
+}
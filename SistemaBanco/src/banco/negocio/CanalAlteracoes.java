@@ -0,0 +1,76 @@
+package banco.negocio;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Ouvintes de alterações de um gerenciador e a montagem dos eventos entregues a eles.
+// registrar e os de publicação são chamados com a trava de escrita do gerenciador (publicarAlteracao pode vir
+// de qualquer thread: as operações de saldo não seguram a trava da lista). Sem ouvintes, não montam nada:
+// nem eventos nem versões da lista (que fariam a próxima alteração copiar nós do vetor persistente).
+final class CanalAlteracoes<T> {
+
+    private final List<EventoAlteracao.Ouvinte<T>> ouvintes = new CopyOnWriteArrayList<>();
+    // Inclusões e exclusões do lote em andamento, à espera da versão final da lista.
+    private final List<EventoAlteracao.Tipo> tiposPendentes = new ArrayList<>();
+    private final List<T> itensPendentes = new ArrayList<>();
+    private int[] indicesPendentes = new int[16];
+
+    void adicionar(EventoAlteracao.Ouvinte<T> ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    void remover(EventoAlteracao.Ouvinte<T> ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    boolean temOuvintes() {
+        return !ouvintes.isEmpty();
+    }
+
+    // Guarda uma inclusão ou exclusão do lote em andamento; publicarPendentes entrega todas com a versão final.
+    void registrar(EventoAlteracao.Tipo tipo, T item, int indice) {
+        int n = tiposPendentes.size();
+        if (n == indicesPendentes.length) {
+            indicesPendentes = Arrays.copyOf(indicesPendentes, n * 2);
+        }
+        indicesPendentes[n] = indice;
+        tiposPendentes.add(tipo);
+        itensPendentes.add(item);
+    }
+
+    // Entrega as inclusões e exclusões registradas, todas com a versão da lista tirada agora.
+    void publicarPendentes(ListaComLapides<T> lista) {
+        if (tiposPendentes.isEmpty()) {
+            return;
+        }
+        ListaComLapides.Versao<T> versao = lista.instantaneo();
+        for (int i = 0; i < tiposPendentes.size(); i++) {
+            entregar(new EventoAlteracao<>(tiposPendentes.get(i), itensPendentes.get(i), indicesPendentes[i], versao));
+        }
+        tiposPendentes.clear();
+        itensPendentes.clear();
+        if (indicesPendentes.length > 1024) {
+            indicesPendentes = new int[16]; // Não segura o array de um lote grande.
+        }
+    }
+
+    void publicarAlteracao(T item) {
+        if (temOuvintes()) {
+            entregar(new EventoAlteracao<>(EventoAlteracao.Tipo.ALTERACAO, item, -1, null));
+        }
+    }
+
+    void publicarRecarga(ListaComLapides<T> lista) {
+        if (temOuvintes()) {
+            entregar(new EventoAlteracao<>(EventoAlteracao.Tipo.RECARGA, null, -1, lista.instantaneo()));
+        }
+    }
+
+    private void entregar(EventoAlteracao<T> evento) {
+        for (EventoAlteracao.Ouvinte<T> ouvinte : ouvintes) {
+            ouvinte.alterado(evento);
+        }
+    }
+}
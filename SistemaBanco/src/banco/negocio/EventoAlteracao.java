@@ -0,0 +1,51 @@
+package banco.negocio;
+
+import java.util.List;
+
+// Alteração na lista de clientes ou de contas de um gerenciador, entregue aos ouvintes registrados
+// (ver GerenciadorClientes.adicionarOuvinte e GerenciadorContas.adicionarOuvinte).
+// Inclusões e exclusões trazem a posição do item na lista completa e a versão da lista (listarTodos/listarTodas)
+// que já contém a alteração. Eventos de um mesmo lote trazem a mesma versão, a tirada no final do lote,
+// e as posições valem aplicando os eventos na ordem em que chegam.
+public final class EventoAlteracao<T> {
+
+    public enum Tipo {
+        INCLUSAO, // O item entrou na posição indicada (sempre o final da lista).
+        ALTERACAO, // Os dados do item mudaram (ex: nome, saldo); a posição dele não muda.
+        EXCLUSAO, // O item saiu da posição indicada; os seguintes sobem uma posição.
+        RECARGA // A lista inteira foi trocada ou todos os itens mudaram (ex: carga de instantâneo, remuneração).
+    }
+
+    // Recebe os eventos. É chamado na thread que fez a alteração, ainda com a trava do gerenciador
+    // (é isso que garante a ordem das inclusões e exclusões): deve só guardar o evento e voltar, sem chamar
+    // o gerenciador. Alterações de saldo de contas chegam de várias threads ao mesmo tempo.
+    public interface Ouvinte<T> {
+        void alterado(EventoAlteracao<T> evento);
+    }
+
+    private final Tipo tipo;
+    private final T item;
+    private final int indice;
+    private final ListaComLapides.Versao<T> versao;
+
+    EventoAlteracao(Tipo tipo, T item, int indice, ListaComLapides.Versao<T> versao) {
+        this.tipo = tipo;
+        this.item = item;
+        this.indice = indice;
+        this.versao = versao;
+    }
+
+    public Tipo getTipo() { return tipo; }
+
+    // Item incluído, alterado ou excluído (null na RECARGA).
+    public T getItem() { return item; }
+
+    // Posição do item na lista completa (INCLUSAO e EXCLUSAO), ou -1.
+    public int getIndice() { return indice; }
+
+    // Versão da lista completa que já contém a alteração (null na ALTERACAO, que não muda a lista).
+    public ListaComLapides.Versao<T> getVersao() { return versao; }
+
+    // Versão como List, para quem só vai ler os itens.
+    public List<T> getLista() { return versao; }
+}
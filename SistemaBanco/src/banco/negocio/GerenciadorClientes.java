@@ -1,102 +1,619 @@
 package banco.negocio;
 
 import banco.modelo.Cliente;
+import banco.modelo.Conta;
+import banco.persistencia.Diario;
+import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 
 // Classe de lógica de negócio responsável por gerenciar a lista de objetos Cliente.
 // Inclui operações de CRUD, busca e ordenação.
+// As alterações são feitas pela tela (EDT), mas buscas e ordenações podem rodar em segundo plano:
+// por isso lista e índices são protegidos por uma trava de leitura/escrita. As leituras só seguram a trava
+// enquanto copiam os candidatos; a filtragem e a ordenação trabalham sobre a cópia, sem bloquear a tela.
 public class GerenciadorClientes {
-    private List<Cliente> clientes;
+    private ListaComLapides<Cliente> clientes; // Exclusão sem deslocar o array (ver ListaComLapides).
+    private final MapaCpf<Cliente> indiceCpf; // Índice hash dos clientes pelo CPF, mantido junto com a lista.
+    private final IndiceTrigramas indiceTexto; // Índice de trigramas usado pela busca por substring.
+    private final IndiceOrdenacao indiceOrdem; // Ordem por nome, sobrenome e saldo, mantida a cada alteração.
+    private final PropertyChangeListener ouvinteCliente; // Reindexa o cliente quando um campo é alterado pelos setters.
+    private Cliente emAtualizacao; // Cliente sendo alterado por atualizar(...), sob a trava de escrita (null = nenhum).
+    private Diario diario; // Diário onde as alterações são registradas (null = sem persistência).
+    private Metricas metricas; // Contadores e latências das consultas (null = sem medição).
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock(); // Protege a lista e os índices.
+    private static final long NAO_ENCONTRADO = -2; // Retorno de remover quando o CPF não está cadastrado.
+    private static final int LIMITE_EXAMINADOS = 50_000; // Clientes examinados, no máximo, por página de busca.
+    private final AtomicBoolean compactacaoAgendada = new AtomicBoolean(); // Evita agendar duas compactações.
+    private final CanalAlteracoes<Cliente> alteracoes = new CanalAlteracoes<>(); // Ouvintes de inclusões, alterações e exclusões.
     // Referência ao GerenciadorContas para acessar informações de saldo durante a ordenação.
     private final GerenciadorContas gerenciadorContas;
     
     // Construtor. Inicializa a lista de clientes e define a referência ao GerenciadorContas.
     public GerenciadorClientes(GerenciadorContas gerenciadorContas) {
-        this.clientes = new ArrayList<>();
+        this.clientes = new ListaComLapides<>();
+        this.indiceCpf = new MapaCpf<>();
+        this.indiceTexto = new IndiceTrigramas();
+        this.indiceOrdem = new IndiceOrdenacao(this::saldoDoCliente);
+        this.ouvinteCliente = evt -> {
+            Cliente alterado = (Cliente) evt.getSource();
+            long posicao = -1;
+            trava.writeLock().lock();
+            try {
+                if (alterado == emAtualizacao) {
+                    return; // Campo alterado por atualizar(...), que reindexa e registra uma vez só, no fim.
+                }
+                posicao = reindexar(alterado);
+            } finally {
+                trava.writeLock().unlock();
+            }
+            aguardarDiario(posicao);
+        };
         this.gerenciadorContas = gerenciadorContas; // Define a referência do gerenciador de contas.
+        if (gerenciadorContas != null) {
+            // O índice de saldo acompanha as operações feitas nas contas.
+            gerenciadorContas.setOuvinteSaldo(new GerenciadorContas.OuvinteSaldo() {
+                @Override
+                public void saldoAlterado(Cliente dono) {
+                    indiceOrdem.atualizarSaldo(dono);
+                }
+
+                @Override
+                public void saldosAlterados() {
+                    indiceOrdem.reconstruirSaldos();
+                }
+
+                @Override
+                public void saldosDesatualizados() {
+                    indiceOrdem.invalidarSaldos();
+                }
+            });
+        }
         
         // Adicionamos alguns clientes iniciais para teste no sistema.
-        clientes.add(new Cliente("Amanda", "Cristine ", "1234567", "11111111111", "Rua A"));
-        clientes.add(new Cliente("Eduardo", "Almeida", "7654321", "22222222222", "Rua B"));
-        clientes.add(new Cliente("Guilherme", "Gemniczak", "9876543", "33333333333", "Rua C"));
+        adicionar(new Cliente("Amanda", "Cristine ", "1234567", "11111111111", "Rua A"));
+        adicionar(new Cliente("Eduardo", "Almeida", "7654321", "22222222222", "Rua B"));
+        adicionar(new Cliente("Guilherme", "Gemniczak", "9876543", "33333333333", "Rua C"));
+    }
+
+    // Altera os dados cadastrais do cliente (o CPF não muda) de uma vez: uma passagem pela trava de escrita,
+    // um evento de alteração e um registro no diário, com uma única espera pelo disco.
+    // Com os setters, cada campo faria tudo isso separado, e quem lesse entre dois deles veria o cliente pela metade.
+    public void atualizar(Cliente cliente, String nome, String sobrenome, String rg, String endereco) {
+        long posicao;
+        trava.writeLock().lock();
+        try {
+            emAtualizacao = cliente;
+            try {
+                cliente.setNome(nome);
+                cliente.setSobrenome(sobrenome);
+                cliente.setRg(rg);
+                cliente.setEndereco(endereco);
+            } finally {
+                emAtualizacao = null;
+            }
+            posicao = reindexar(cliente);
+        } finally {
+            trava.writeLock().unlock();
+        }
+        aguardarDiario(posicao);
+    }
+
+    // Atualiza os índices do cliente alterado, avisa os ouvintes e registra o cliente no diário.
+    // Chamado sob a trava de escrita. Retorna a posição do registro no diário (-1 = sem diário).
+    private long reindexar(Cliente alterado) {
+        indiceTexto.atualizar(alterado);
+        indiceOrdem.atualizarTexto(alterado);
+        alteracoes.publicarAlteracao(alterado);
+        return diario != null ? diario.registrarClienteAtualizado(alterado) : -1;
+    }
+
+    // Define o diário onde as alterações passam a ser registradas (null desliga o registro).
+    // Deve ser chamado depois da recuperação, para que a reprodução do diário não seja registrada de novo.
+    public void setDiario(Diario diario) {
+        this.diario = diario;
+    }
+
+    // Define onde as consultas (buscar, buscarPorCpf, ordenar) passam a ser medidas (null desliga).
+    public void setMetricas(Metricas metricas) {
+        this.metricas = metricas;
     }
 
-    // Retorna a lista completa de clientes.
-    public List<Cliente> listarTodos() {
-        return clientes;
+    // Registra um ouvinte das inclusões, alterações e exclusões de clientes (ver EventoAlteracao).
+    public void adicionarOuvinte(EventoAlteracao.Ouvinte<Cliente> ouvinte) {
+        alteracoes.adicionar(ouvinte);
+    }
+
+    public void removerOuvinte(EventoAlteracao.Ouvinte<Cliente> ouvinte) {
+        alteracoes.remover(ouvinte);
+    }
+
+    // Retorna a lista completa de clientes como uma versão imutável, em O(1).
+    // Ela não muda com as alterações seguintes (que copiam só os nós que tocam), então pode ser percorrida
+    // em qualquer thread, pelo tempo que for preciso, sem travar quem altera. Para ver as alterações, chame de novo.
+    public ListaComLapides.Versao<Cliente> listarTodos() {
+        trava.readLock().lock();
+        try {
+            return clientes.instantaneo();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // Adiciona um novo cliente à lista e aos índices de CPF e de busca.
+    // Retorna false (sem adicionar) se já existir um cliente com o mesmo CPF, pois o CPF é a chave única.
+    public boolean adicionar(Cliente cliente) {
+        long posicao = -1;
+        trava.writeLock().lock();
+        try {
+            if (localizarPorCpf(cliente.getCpf()) != null) {
+                return false;
+            }
+            clientes.add(cliente);
+            indiceCpf.put(cliente.getCpf(), cliente);
+            indiceTexto.adicionar(cliente);
+            indiceOrdem.adicionar(cliente);
+            cliente.addPropertyChangeListener(ouvinteCliente);
+            if (diario != null) {
+                posicao = diario.registrarClienteAdicionado(cliente);
+            }
+            registrarInclusao(cliente);
+            alteracoes.publicarPendentes(clientes);
+        } finally {
+            trava.writeLock().unlock();
+        }
+        aguardarDiario(posicao); // Espera o disco sem segurar a trava.
+        return true;
+    }
+
+    // Adiciona vários clientes de uma vez (importação em lote), com uma única passagem pela trava
+    // e, havendo diário, uma única espera pelo disco no final.
+    // Clientes com CPF já cadastrado (ou repetido dentro do próprio lote) não são adicionados:
+    // o array devolvido indica, na mesma ordem, quais foram aceitos.
+    public boolean[] adicionarLote(List<Cliente> novos) {
+        boolean[] aceitos = new boolean[novos.size()];
+        List<Cliente> aceitosNoLote = new ArrayList<>(novos.size());
+        long posicao = -1;
+        trava.writeLock().lock();
+        try {
+            indiceCpf.reservar(indiceCpf.size() + novos.size());
+            for (int i = 0; i < aceitos.length; i++) {
+                Cliente cliente = novos.get(i);
+                if (localizarPorCpf(cliente.getCpf()) != null) {
+                    continue;
+                }
+                clientes.add(cliente);
+                indiceCpf.put(cliente.getCpf(), cliente);
+                indiceTexto.adicionar(cliente);
+                cliente.addPropertyChangeListener(ouvinteCliente);
+                if (diario != null) {
+                    posicao = diario.registrarClienteAdicionado(cliente);
+                }
+                aceitos[i] = true;
+                aceitosNoLote.add(cliente);
+                registrarInclusao(cliente);
+            }
+            indiceOrdem.adicionarLote(aceitosNoLote);
+            alteracoes.publicarPendentes(clientes);
+        } finally {
+            trava.writeLock().unlock();
+        }
+        aguardarDiario(posicao);
+        return aceitos;
     }
 
-    // Adiciona um novo cliente à lista.
-    public void adicionar(Cliente cliente) {
-        clientes.add(cliente);
+    // Substitui todos os clientes pelos informados (ex: lidos de um instantâneo) e reconstrói os índices em paralelo.
+    // Não confere CPFs repetidos nem registra no diário: os clientes vêm de um estado já validado e gravado.
+    public void carregar(Cliente[] novos) {
+        trava.writeLock().lock();
+        try {
+            for (Cliente c : clientes) {
+                c.removePropertyChangeListener(ouvinteCliente);
+            }
+            clientes = new ListaComLapides<>(novos);
+
+            CompletableFuture<Void> porCpf = CompletableFuture.runAsync(() -> {
+                indiceCpf.clear();
+                indiceCpf.reservar(novos.length);
+                for (Cliente c : novos) {
+                    indiceCpf.put(c.getCpf(), c);
+                }
+            });
+            CompletableFuture<Void> porOrdem = CompletableFuture.runAsync(() -> indiceOrdem.reconstruir(novos));
+            indiceTexto.reconstruir(novos);
+            Arrays.stream(novos).parallel().forEach(c -> c.addPropertyChangeListener(ouvinteCliente));
+            porCpf.join();
+            porOrdem.join();
+            alteracoes.publicarRecarga(clientes);
+        } finally {
+            trava.writeLock().unlock();
+        }
     }
 
-    // Remove um cliente da lista.
+    // Remove um cliente da lista e dos índices, em O(1): o cliente é achado pelo índice de CPF
+    // e sai da lista e do índice de busca como lápide (ver ListaComLapides e IndiceTrigramas).
+    // As contas do cliente não são tocadas (ver excluirContasDoCliente no GerenciadorContas).
     public boolean excluir(Cliente cliente) {
-        return clientes.remove(cliente);
+        long posicaoDiario;
+        trava.writeLock().lock();
+        try {
+            posicaoDiario = remover(cliente);
+            if (posicaoDiario == NAO_ENCONTRADO) {
+                return false;
+            }
+            alteracoes.publicarPendentes(clientes);
+            agendarCompactacao();
+        } finally {
+            trava.writeLock().unlock();
+        }
+        aguardarDiario(posicaoDiario);
+        return true;
+    }
+
+    // Exclui vários clientes junto com as contas deles (expurgo em lote), em O(k) para k clientes:
+    // uma passagem pela trava de cada gerenciador e uma única espera pelo diário.
+    // Retorna quantos clientes foram excluídos.
+    public int excluirLote(List<Cliente> excluidos) {
+        gerenciadorContas.excluirContasDosClientes(excluidos);
+        int quantidade = 0;
+        long posicaoDiario = -1;
+        trava.writeLock().lock();
+        try {
+            for (Cliente cliente : excluidos) {
+                long posicao = remover(cliente);
+                if (posicao != NAO_ENCONTRADO) {
+                    posicaoDiario = Math.max(posicaoDiario, posicao);
+                    quantidade++;
+                }
+            }
+            alteracoes.publicarPendentes(clientes);
+            agendarCompactacao();
+        } finally {
+            trava.writeLock().unlock();
+        }
+        aguardarDiario(posicaoDiario);
+        return quantidade;
+    }
+
+    // Retira o cliente (o objeto guardado, igual pelo CPF ao recebido) da lista e dos índices.
+    // Chamado com a trava de escrita. Retorna a posição do registro no diário, -1 sem diário,
+    // ou NAO_ENCONTRADO se o CPF não estava cadastrado.
+    private long remover(Cliente cliente) {
+        Cliente removido = localizarPorCpf(cliente.getCpf());
+        if (removido == null) {
+            return NAO_ENCONTRADO;
+        }
+        if (alteracoes.temOuvintes()) {
+            alteracoes.registrar(EventoAlteracao.Tipo.EXCLUSAO, removido, clientes.indexOf(removido));
+        }
+        clientes.remove(removido); // Vira lápide: nada é deslocado.
+        indiceCpf.remove(removido.getCpf());
+        indiceTexto.remover(removido);
+        indiceOrdem.remover(removido);
+        removido.removePropertyChangeListener(ouvinteCliente);
+        return diario != null ? diario.registrarClienteExcluido(removido.getCpf()) : -1;
+    }
+
+    // Guarda a inclusão do cliente (já no final da lista) para os ouvintes. Chamado com a trava de escrita.
+    private void registrarInclusao(Cliente cliente) {
+        if (alteracoes.temOuvintes()) {
+            alteracoes.registrar(EventoAlteracao.Tipo.INCLUSAO, cliente, clientes.size() - 1);
+        }
+    }
+
+    // Se a lista ou o índice de busca acumularam lápides demais, agenda a compactação em segundo plano.
+    private void agendarCompactacao() {
+        if ((clientes.precisaCompactar() || indiceTexto.precisaCompactar()) && compactacaoAgendada.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                trava.writeLock().lock();
+                try {
+                    compactacaoAgendada.set(false);
+                    clientes.compactar();
+                    indiceTexto.compactar();
+                } finally {
+                    trava.writeLock().unlock();
+                }
+            });
+        }
     }
     
     // Busca um cliente pelo seu CPF.
     public Cliente buscarPorCpf(String cpf) {
-        // Percorre a lista de clientes para encontrar a correspondência de CPF.
-        for (Cliente c : clientes) {
-            if (c.getCpf().equals(cpf)) {
-                return c; // Retorna o cliente assim que o CPF é encontrado.
+        long inicio = System.nanoTime();
+        Cliente encontrado = localizarPorCpf(cpf);
+        medir(Metricas.Operacao.BUSCAR_POR_CPF, inicio, encontrado != null);
+        return encontrado;
+    }
+
+    // Consulta o cliente pelo CPF sem entrar nas métricas (usado também na checagem de CPF repetido).
+    private Cliente localizarPorCpf(String cpf) {
+        trava.readLock().lock();
+        try {
+            if (MapaCpf.chave(cpf) >= 0) {
+                return indiceCpf.get(cpf); // CPF numérico: consulta direta no índice, em tempo constante.
+            }
+            // CPF fora do formato numérico não entra no índice, então percorremos a lista.
+            for (Cliente c : clientes) {
+                if (c.getCpf().equals(cpf)) {
+                    return c;
+                }
             }
+            return null; // Se nada for encontrado, retorna null.
+        } finally {
+            trava.readLock().unlock();
         }
-        return null; // Se o laço terminar e nada for encontrado, retorna null.
     }
 
     // Realiza uma busca em clientes por nome, sobrenome, RG ou CPF.
     public List<Cliente> buscar(String termo) {
         List<Cliente> resultados = new ArrayList<>();
+        buscar(termo, Integer.MAX_VALUE, lote -> resultados.addAll(lote));
+        return resultados;
+    }
+
+    // Busca em partes, para uso em segundo plano: os resultados são entregues ao receptor em lotes
+    // de até tamanhoLote clientes, na mesma ordem da busca normal. Se o receptor devolver false
+    // (ex: a busca ficou velha porque o usuário digitou de novo), a busca para ali.
+    // Retorna true se a busca chegou ao fim.
+    public boolean buscar(String termo, int tamanhoLote, Predicate<List<Cliente>> receptor) {
+        long inicio = System.nanoTime();
+        boolean concluida = filtrar(termo, tamanhoLote, receptor);
+        medir(Metricas.Operacao.BUSCAR, inicio, concluida);
+        return concluida;
+    }
+
+    // Implementação da busca em partes (ver buscar).
+    private boolean filtrar(String termo, int tamanhoLote, Predicate<List<Cliente>> receptor) {
         String termoLower = termo.toLowerCase(); // Convertemos o termo para minúsculas para a busca.
         
-        // Percorre a lista checando se o termo está contido em qualquer campo relevante.
-        for (Cliente c : clientes) {
-            // Verifica o nome, sobrenome (ambos em minúsculas), RG ou CPF.
-            if (c.getNome().toLowerCase().contains(termoLower) ||
-                c.getSobrenome().toLowerCase().contains(termoLower) ||
-                c.getRg().contains(termo) ||
-                c.getCpf().contains(termo)) {
-                
-                resultados.add(c);
+        // O índice de trigramas devolve só os clientes que podem conter o termo.
+        // Para termos com menos de 3 caracteres ele não se aplica, e percorremos a lista toda.
+        // A trava só é segurada enquanto os candidatos são copiados.
+        Cliente[] candidatos;
+        trava.readLock().lock();
+        try {
+            List<Cliente> doIndice = indiceTexto.candidatos(termoLower);
+            candidatos = (doIndice != null ? doIndice : clientes).toArray(new Cliente[0]);
+        } finally {
+            trava.readLock().unlock();
+        }
+        
+        // Confere cada candidato checando se o termo está contido em qualquer campo relevante.
+        List<Cliente> lote = new ArrayList<>(Math.min(tamanhoLote, candidatos.length));
+        for (Cliente c : candidatos) {
+            if (contem(c, termo, termoLower)) {
+                lote.add(c);
+                if (lote.size() == tamanhoLote) {
+                    if (!receptor.test(lote)) {
+                        return false;
+                    }
+                    lote = new ArrayList<>(tamanhoLote); // O receptor pode guardar o lote entregue.
+                }
             }
         }
-        return resultados;
+        return lote.isEmpty() || receptor.test(lote);
+    }
+    
+    // Verifica se o termo está no nome, sobrenome (ambos em minúsculas), RG ou CPF do cliente.
+    private static boolean contem(Cliente c, String termo, String termoLower) {
+        return c.getNome().toLowerCase().contains(termoLower) ||
+               c.getSobrenome().toLowerCase().contains(termoLower) ||
+               c.getRg().contains(termo) ||
+               c.getCpf().contains(termo);
+    }
+
+    // --- Consultas paginadas ---
+    // Cada chamada devolve no máximo 'tamanho' clientes e um cursor para a próxima página (ver Pagina).
+    // O custo de uma página não depende de quantos clientes existem nem de quantas páginas já foram lidas.
+    // Listagem e busca seguem a ordem de cadastro; o cursor delas é o id do último cliente visto
+    // no índice de trigramas, que segue a mesma ordem da lista (os dois são atualizados juntos).
+
+    // Página da listagem de todos os clientes, em ordem de cadastro. Cursor null = primeira página.
+    public Pagina<Cliente> listar(String cursor, int tamanho) {
+        validarTamanho(tamanho);
+        trava.readLock().lock();
+        try {
+            int inicio = cursor == null ? 0 : posicaoDepoisDoId(idDoCursor(cursor));
+            int fim = (int) Math.min(clientes.size(), (long) inicio + tamanho);
+            List<Cliente> itens = new ArrayList<>(Math.max(0, fim - inicio));
+            for (int i = inicio; i < fim; i++) {
+                itens.add(clientes.get(i)); // Acesso sequencial: cada get continua de onde o anterior parou.
+            }
+            String proximo = fim < clientes.size() ? String.valueOf(indiceTexto.id(itens.get(itens.size() - 1))) : null;
+            return new Pagina<>(itens, proximo);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // Página de uma busca (mesmo critério e mesma ordem de buscar(String)). Cursor null = primeira página.
+    // Cada página examina no máximo LIMITE_EXAMINADOS clientes: se o limite for atingido,
+    // ela pode vir com menos itens que o pedido (até vazia) e ainda ter cursor.
+    public Pagina<Cliente> buscar(String termo, String cursor, int tamanho) {
+        long inicio = System.nanoTime();
+        Pagina<Cliente> pagina = filtrarPagina(termo, cursor, tamanho);
+        medir(Metricas.Operacao.BUSCAR, inicio, true);
+        return pagina;
+    }
+
+    // Implementação da busca paginada (ver buscar(String, String, int)).
+    private Pagina<Cliente> filtrarPagina(String termo, String cursor, int tamanho) {
+        validarTamanho(tamanho);
+        String termoLower = termo.toLowerCase();
+        int ultimoId = cursor == null ? -1 : idDoCursor(cursor);
+        List<Cliente> itens = new ArrayList<>(Math.min(tamanho, 256));
+        trava.readLock().lock();
+        try {
+            // Com o índice de trigramas, só os candidatos depois do cursor são examinados.
+            IndiceTrigramas.Trecho trecho = indiceTexto.candidatosApos(termoLower, ultimoId, LIMITE_EXAMINADOS);
+            if (trecho != null) {
+                for (int i = 0; i < trecho.quantidade; i++) {
+                    Cliente c = indiceTexto.cliente(trecho.ids[i]);
+                    if (c != null && contem(c, termo, termoLower)) {
+                        itens.add(c);
+                        if (itens.size() == tamanho) {
+                            boolean haMais = i + 1 < trecho.quantidade || !trecho.fim;
+                            return new Pagina<>(itens, haMais ? String.valueOf(trecho.ids[i]) : null);
+                        }
+                    }
+                }
+                return new Pagina<>(itens, trecho.fim ? null : String.valueOf(trecho.ultimoExaminado));
+            }
+
+            // Termo curto demais para o índice: percorre a lista a partir do cliente do cursor.
+            int inicio = posicaoDepoisDoId(ultimoId);
+            int fim = (int) Math.min(clientes.size(), (long) inicio + LIMITE_EXAMINADOS);
+            for (int p = inicio; p < fim; p++) {
+                Cliente c = clientes.get(p);
+                if (contem(c, termo, termoLower)) {
+                    itens.add(c);
+                    if (itens.size() == tamanho) {
+                        return new Pagina<>(itens, p + 1 < clientes.size() ? String.valueOf(indiceTexto.id(c)) : null);
+                    }
+                }
+            }
+            return new Pagina<>(itens, fim < clientes.size() ? String.valueOf(indiceTexto.id(clientes.get(fim - 1))) : null);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // Página de todos os clientes ordenados pelo campo (Nome, Sobrenome ou Salário), lida dos índices
+    // de ordenação em O(log n + tamanho). Campo desconhecido: a ordem de cadastro (como listar).
+    public Pagina<Cliente> ordenar(String campo, String cursor, int tamanho) {
+        validarTamanho(tamanho);
+        long inicio = System.nanoTime();
+        IndiceOrdenacao.Campo indice;
+        if (campo.equalsIgnoreCase("nome")) {
+            indice = IndiceOrdenacao.Campo.NOME;
+        } else if (campo.equalsIgnoreCase("sobrenome")) {
+            indice = IndiceOrdenacao.Campo.SOBRENOME;
+        } else if (campo.equalsIgnoreCase("salário")) {
+            indice = IndiceOrdenacao.Campo.SALDO_DECRESCENTE;
+        } else {
+            return listar(cursor, tamanho);
+        }
+        Pagina<Cliente> pagina = indiceOrdem.pagina(indice, cursor, tamanho);
+        medir(Metricas.Operacao.ORDENAR, inicio, true);
+        return pagina;
+    }
+
+    // Primeira posição da lista cujo cliente tem id (no índice de trigramas) maior que o informado.
+    // Os ids crescem na ordem da lista, então é uma busca binária: O(log² n) com o get da ListaComLapides.
+    // Chamado com a trava de leitura.
+    private int posicaoDepoisDoId(int id) {
+        int baixo = 0;
+        int alto = clientes.size();
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (indiceTexto.id(clientes.get(meio)) <= id) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private static int idDoCursor(String cursor) {
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+
+    private static void validarTamanho(int tamanho) {
+        if (tamanho <= 0) {
+            throw new IllegalArgumentException("O tamanho da página deve ser positivo.");
+        }
+    }
+
+    // Registra a execução nas métricas, se houver.
+    private void medir(Metricas.Operacao operacao, long inicio, boolean aceita) {
+        Metricas m = metricas;
+        if (m != null) {
+            m.registrar(operacao, inicio, aceita);
+        }
+    }
+
+    // Espera o diário gravar até a posição (-1 = nada foi registrado).
+    private void aguardarDiario(long posicao) {
+        if (posicao >= 0) {
+            diario.aguardarGravacao(posicao);
+        }
     }
     
     // Ordena uma lista de clientes por um campo específico (Nome, Sobrenome ou Salário).
+    // Retorna uma nova lista; a original não é alterada.
+    // Se a lista for uma versão da de todos os clientes (listarTodos), a ordem vem dos índices (ver ordenar(String))
+    // e reflete os clientes atuais, não os da versão.
     public List<Cliente> ordenar(String campo, List<Cliente> lista) {
-        List<Cliente> listaOrdenada = new ArrayList<>(lista); // Cria uma cópia da lista para não alterar a original.
-        
+        long inicio = System.nanoTime();
+        List<Cliente> ordenada = clientes.ehDestaLista(lista) ? ordenarTodosSemMedir(campo) : ordenarSemMedir(campo, lista);
+        medir(Metricas.Operacao.ORDENAR, inicio, true);
+        return ordenada;
+    }
+
+    // Todos os clientes ordenados pelo campo (Nome, Sobrenome ou Salário), sem ordenar nada:
+    // a lista devolvida lê os índices de ordenação sob demanda, então sai em O(1)
+    // e cada página lida custa O(tamanho da página) (ver IndiceOrdenacao).
+    public List<Cliente> ordenar(String campo) {
+        long inicio = System.nanoTime();
+        List<Cliente> ordenada = ordenarTodosSemMedir(campo);
+        medir(Metricas.Operacao.ORDENAR, inicio, true);
+        return ordenada;
+    }
+
+    // Implementação da ordenação de todos os clientes (ver ordenar(String)).
+    private List<Cliente> ordenarTodosSemMedir(String campo) {
+        trava.readLock().lock(); // O tamanho da visão precisa bater com o conteúdo dos índices.
+        try {
+            if (campo.equalsIgnoreCase("nome")) {
+                return indiceOrdem.visao(IndiceOrdenacao.Campo.NOME);
+            } else if (campo.equalsIgnoreCase("sobrenome")) {
+                return indiceOrdem.visao(IndiceOrdenacao.Campo.SOBRENOME);
+            } else if (campo.equalsIgnoreCase("salário")) {
+                return indiceOrdem.visao(IndiceOrdenacao.Campo.SALDO_DECRESCENTE);
+            }
+            return new ArrayList<>(clientes); // Campo desconhecido: devolve uma cópia sem alterar a ordem.
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // Saldo usado na ordenação por saldo: o da conta do cliente (a primeira vinculada), ou 0 se não houver.
+    private long saldoDoCliente(Cliente cliente) {
+        if (gerenciadorContas == null) {
+            return 0;
+        }
+        Conta conta = gerenciadorContas.buscarContaPorCpfCliente(cliente.getCpf());
+        try {
+            return conta != null ? conta.getSaldo() : 0;
+        } catch (IllegalStateException e) {
+            return 0; // A conta acabou de ser excluída; a exclusão avisa o índice logo em seguida.
+        }
+    }
+
+    // Implementação da ordenação (ver ordenar).
+    private List<Cliente> ordenarSemMedir(String campo, List<Cliente> lista) {
         if (campo.equalsIgnoreCase("nome")) {
-            // Ordena usando a ordem natural (implementada no compareTo da classe Cliente).
-            Collections.sort(listaOrdenada); 
+            // Ordem natural (a mesma do compareTo da classe Cliente).
+            return OrdenadorClientes.porNome(lista);
             
         } else if (campo.equalsIgnoreCase("sobrenome")) {
-            // Ordena usando um Comparator que compara pelo Sobrenome.
-            Collections.sort(listaOrdenada, Comparator.comparing(Cliente::getSobrenome));
+            return OrdenadorClientes.porSobrenome(lista);
             
         } else if (campo.equalsIgnoreCase("salário")) { 
             // Ordena por Salário, que é na verdade o saldo da conta (ordem decrescente).
-            Collections.sort(listaOrdenada, (c1, c2) -> {
-                
-                // Busca o saldo do Cliente 1. Se não tiver conta, o saldo é 0.0.
-                double saldo1 = gerenciadorContas.buscarContaPorCpfCliente(c1.getCpf()) != null ? 
-                                gerenciadorContas.buscarContaPorCpfCliente(c1.getCpf()).getSaldo() : 0.0;
-                
-                // Busca o saldo do Cliente 2. Se não tiver conta, o saldo é 0.0.
-                double saldo2 = gerenciadorContas.buscarContaPorCpfCliente(c2.getCpf()) != null ? 
-                                gerenciadorContas.buscarContaPorCpfCliente(c2.getCpf()).getSaldo() : 0.0;
-                
-                // Compara saldo2 com saldo1 para obter a ordem decrescente (do maior saldo para o menor).
-                return Double.compare(saldo2, saldo1); 
-            }); 
-        }
-        return listaOrdenada;
+            // O saldo de cada cliente é lido uma única vez antes de ordenar.
+            return OrdenadorClientes.porSaldoDecrescente(lista, gerenciadorContas);
+        }
+        return new ArrayList<>(lista); // Campo desconhecido: devolve uma cópia sem alterar a ordem.
     }
 }
\ No newline at end of file
@@ -1,89 +1,752 @@
 package banco.negocio;
 
+import banco.modelo.AlocadorNumeros;
 import banco.modelo.Cliente;
 import banco.modelo.Conta;
 import banco.modelo.ContaCorrente;
 import banco.modelo.ContaInvestimento;
+import banco.modelo.ResultadoOperacao;
+import banco.modelo.TipoMovimento;
+import banco.persistencia.Diario;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 // Classe de lógica de negócio responsável por gerenciar a lista de objetos Conta.
-// Inclui operações de CRUD, busca e wrappers para operações bancárias (saque/depósito/remunera).
+// Inclui operações de CRUD, busca e wrappers para operações bancárias (saque/depósito/transferência/remunera).
+// As operações não usam Swing: devolvem um ResultadoOperacao, e a tela decide como exibi-lo.
+// A lista e os índices são protegidos por uma trava de leitura/escrita, porque as consultas
+// também são feitas por tarefas em segundo plano (ex: ordenação por saldo).
 public class GerenciadorContas {
-    private List<Conta> contas; // A lista principal de contas ativas no sistema.
+
+    // Avisado quando saldos mudam, para quem mantém dados derivados deles (ex: a ordenação de clientes por saldo).
+    // É chamado fora da trava do gerenciador, na thread que fez a alteração.
+    public interface OuvinteSaldo {
+        // O saldo do cliente pode ter mudado (operação aceita, conta aberta ou excluída).
+        void saldoAlterado(Cliente dono);
+
+        // Muitos saldos mudaram de uma vez (carga das contas, remuneração de todas).
+        void saldosAlterados();
+
+        // Foi publicada uma remuneração sob demanda: os saldos mudam no próximo acesso a cada conta,
+        // então quem depende deles deve relê-los só quando precisar (ler agora tocaria todas as contas).
+        void saldosDesatualizados();
+    }
+
+    private ListaComLapides<Conta> contas; // A lista principal de contas ativas no sistema (exclusão sem deslocar o array).
+    private final MapaCpf<List<Conta>> indiceDono; // Índice secundário: CPF do dono -> contas dele.
+    private final Map<Integer, Conta> indiceNumero; // Índice secundário: número da conta -> conta.
+    private Diario diario; // Diário onde as alterações são registradas (null = sem persistência).
+    private Metricas metricas; // Contadores e latências das operações (null = sem medição).
+    private volatile OuvinteSaldo ouvinteSaldo; // Avisado das mudanças de saldo (null = ninguém).
+    private volatile HistoricoMovimentos historico; // Movimentos de cada conta (null = sem histórico).
+    private volatile boolean remuneracaoSobDemanda; // remunerarTodas publica uma época em vez de percorrer as contas.
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock(); // Protege a lista e os índices.
+    // Com diário ou histórico, separa os movimentos registrados antes e depois de cada remuneração sob demanda
+    // (ver remunerarTodasSobDemanda e registrarJurosPendentes).
+    private final ReentrantReadWriteLock travaEpoca = new ReentrantReadWriteLock();
+    // Última remuneração sob demanda publicada, numerada desde o início dos dados (continua a do instantâneo,
+    // e não a da TabelaRemuneracao, que recomeça a cada execução). Alterada sob a trava de escrita da época.
+    private volatile int epocaRemuneracao;
+    private final AtomicBoolean compactacaoAgendada = new AtomicBoolean(); // Evita agendar duas compactações da lista.
+    private final CanalAlteracoes<Conta> alteracoes = new CanalAlteracoes<>(); // Ouvintes de inclusões, alterações e exclusões.
     
-    // Construtor simples. Inicializa a lista de contas como uma lista vazia.
+    // Construtor simples. Inicializa a lista de contas e os índices vazios.
     public GerenciadorContas() {
-        this.contas = new ArrayList<>();
+        this.contas = new ListaComLapides<>();
+        this.indiceDono = new MapaCpf<>();
+        this.indiceNumero = new HashMap<>();
     }
     
+    // Define o diário onde as alterações passam a ser registradas (null desliga o registro).
+    // Deve ser chamado depois da recuperação, para que a reprodução do diário não seja registrada de novo.
+    public void setDiario(Diario diario) {
+        this.diario = diario;
+    }
+    
+    // Define onde as operações (saque, depósito, transferência, remuneração) passam a ser medidas (null desliga).
+    public void setMetricas(Metricas metricas) {
+        this.metricas = metricas;
+    }
+    
+    // Define onde os movimentos das contas passam a ser registrados (null desliga).
+    // Com histórico, saques, depósitos e remunerações são feitos sob o monitor da conta (como com diário),
+    // para que cada movimento seja registrado com o saldo que ele produziu e na ordem em que foi aplicado.
+    public void setHistorico(HistoricoMovimentos historico) {
+        this.historico = historico;
+    }
+
+    // Liga a remuneração sob demanda: remunerarTodas passa a publicar uma época na TabelaRemuneracao, em O(1),
+    // e cada conta aplica os juros no próximo acesso (saldo, saque, depósito), em vez de todas serem percorridas.
+    // Com histórico, esses juros não geram um movimento próprio: aparecem no saldo do próximo movimento da conta.
+    // Com diário, cada época vira um registro com o seu número (ver getEpocaRemuneracao), e a recuperação não publica
+    // de novo as épocas que o instantâneo já inclui (ver RecuperacaoDiario.remuneracaoPublicada).
+    public void setRemuneracaoSobDemanda(boolean remuneracaoSobDemanda) {
+        this.remuneracaoSobDemanda = remuneracaoSobDemanda;
+    }
+
+    // Número da última remuneração sob demanda publicada (0 = nenhuma). Os saldos atuais já incluem todas
+    // até ela, então é o número gravado no instantâneo.
+    public int getEpocaRemuneracao() {
+        return epocaRemuneracao;
+    }
+
+    // Retoma a numeração das remunerações a partir da época gravada no instantâneo. Usado apenas na recuperação,
+    // depois de carregar as contas e antes de reproduzir o diário.
+    public void setEpocaRemuneracao(int epoca) {
+        travaEpoca.writeLock().lock();
+        try {
+            epocaRemuneracao = epoca;
+        } finally {
+            travaEpoca.writeLock().unlock();
+        }
+    }
+
+    // Movimentos da conta com instante em [de, ate), em ms (ver HistoricoMovimentos).
+    // Lança IllegalStateException se o histórico estiver desligado.
+    public HistoricoMovimentos.Extrato extrato(Conta conta, long de, long ate) {
+        HistoricoMovimentos h = historico;
+        if (h == null) {
+            throw new IllegalStateException("O histórico de movimentos está desligado.");
+        }
+        return h.extrato(conta.getNumero(), de, ate);
+    }
+
+    // Define quem é avisado das mudanças de saldo (null desliga).
+    public void setOuvinteSaldo(OuvinteSaldo ouvinteSaldo) {
+        this.ouvinteSaldo = ouvinteSaldo;
+    }
+    
+    // Registra um ouvinte das contas abertas, excluídas e com saldo alterado (ver EventoAlteracao).
+    public void adicionarOuvinte(EventoAlteracao.Ouvinte<Conta> ouvinte) {
+        alteracoes.adicionar(ouvinte);
+    }
+
+    public void removerOuvinte(EventoAlteracao.Ouvinte<Conta> ouvinte) {
+        alteracoes.remover(ouvinte);
+    }
+
     // Inicializa a lista de contas com dados de teste.
     // Este método deve ser chamado depois que o GerenciadorClientes for configurado.
+    // As contas de teste têm números fixos, e não do alocador (que guarda a marca em arquivo entre execuções):
+    // sem instantâneo, cada inicialização recria as mesmas contas, e os movimentos do diário continuam achando a conta.
     public void inicializarContasDeTeste(GerenciadorClientes gerenciadorClientes) {
-        this.contas.clear(); // Limpa as contas existentes para começar do zero.
+        trava.writeLock().lock();
+        try {
+            liberarTodas();
+            this.contas.clear(); // Limpa as contas existentes para começar do zero.
+            this.indiceDono.clear();
+            this.indiceNumero.clear();
+            alteracoes.publicarRecarga(contas);
+        } finally {
+            trava.writeLock().unlock();
+        }
+        avisarSaldos(); // Os clientes que tinham conta voltam a ter saldo 0.
 
         // Buscamos os clientes de teste pelo CPF (limpo, sem máscara).
         Cliente amanda = gerenciadorClientes.buscarPorCpf("11111111111"); 
         Cliente ClienteEduardo = gerenciadorClientes.buscarPorCpf("22222222222"); 
 
         if (amanda != null) {
-            // Cria uma Conta Corrente para Amanda com depósito inicial de 1000 e limite de 500.
-            contas.add(new ContaCorrente(amanda, 1000.0, 500.0));
+            // Cria uma Conta Corrente para Amanda com depósito inicial de 1000 e limite de 500 (valores em centavos).
+            adicionar(new ContaCorrente(AlocadorNumeros.PRIMEIRO_NUMERO, amanda, 100_000, 50_000));
         }
         if (ClienteEduardo != null) {
             // Cria uma Conta Investimento para Eduardo com regras específicas.
-            contas.add(new ContaInvestimento(ClienteEduardo, 5000.0, 1000.0, 100.0));
+            adicionar(new ContaInvestimento(AlocadorNumeros.PRIMEIRO_NUMERO + 1, ClienteEduardo, 500_000, 100_000, 10_000));
         }
     }
 
-    // Retorna a lista completa de contas.
-    public List<Conta> listarTodas() {
-        return contas;
+    // Retorna a lista completa de contas como uma versão imutável, em O(1) (ver GerenciadorClientes.listarTodos).
+    public ListaComLapides.Versao<Conta> listarTodas() {
+        trava.readLock().lock();
+        try {
+            return contas.instantaneo();
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
-    // Adiciona uma nova conta à lista (vincula um cliente a uma conta).
+    // Substitui todas as contas pelas informadas (ex: lidas de um instantâneo) e reconstrói os índices,
+    // o de número e o de dono ao mesmo tempo. Não registra no diário: as contas já estão gravadas.
+    public void carregar(Conta[] novas) {
+        trava.writeLock().lock();
+        try {
+            liberarTodas();
+            contas = new ListaComLapides<>(novas);
+
+            CompletableFuture<Void> porNumero = CompletableFuture.runAsync(() -> {
+                indiceNumero.clear();
+                for (Conta conta : novas) {
+                    indiceNumero.put(conta.getNumero(), conta);
+                }
+            });
+            indiceDono.clear();
+            indiceDono.reservar(novas.length);
+            for (Conta conta : novas) {
+                List<Conta> doDono = indiceDono.get(conta.getDono().getCpf());
+                if (doDono == null) {
+                    doDono = new ArrayList<>(1);
+                    indiceDono.put(conta.getDono().getCpf(), doDono);
+                }
+                doDono.add(conta);
+            }
+            porNumero.join();
+            alteracoes.publicarRecarga(contas);
+        } finally {
+            trava.writeLock().unlock();
+        }
+        avisarSaldos();
+    }
+
+    // Adiciona várias contas de uma vez (importação em lote), com uma única passagem pela trava
+    // e, havendo diário, uma única espera pelo disco no final.
+    public void adicionarLote(List<Conta> novas) {
+        long posicao = -1;
+        trava.writeLock().lock();
+        try {
+            int primeira = contas.size();
+            contas.addAll(novas);
+            indiceDono.reservar(indiceDono.size() + novas.size());
+            for (Conta conta : novas) {
+                registrarInclusao(conta, primeira++);
+                indiceNumero.put(conta.getNumero(), conta);
+                List<Conta> doDono = indiceDono.get(conta.getDono().getCpf());
+                if (doDono == null) {
+                    doDono = new ArrayList<>(1);
+                    indiceDono.put(conta.getDono().getCpf(), doDono);
+                }
+                doDono.add(conta);
+                if (diario != null) {
+                    posicao = diario.registrarContaAberta(conta);
+                }
+            }
+            alteracoes.publicarPendentes(contas);
+        } finally {
+            trava.writeLock().unlock();
+        }
+        for (Conta conta : novas) {
+            avisarSaldo(conta.getDono());
+        }
+        if (posicao >= 0) {
+            diario.aguardarGravacao(posicao);
+        }
+    }
+
+    // Devolve ao armazém as linhas de todas as contas atuais (antes de substituí-las) e descarta o histórico delas.
+    // Chamado com a trava de escrita.
+    private void liberarTodas() {
+        HistoricoMovimentos h = historico;
+        for (Conta conta : contas) {
+            if (h != null) {
+                h.descartar(conta.getNumero());
+            }
+            conta.liberar();
+        }
+    }
+
+    // Adiciona uma nova conta à lista (vincula um cliente a uma conta) e atualiza os índices.
     public void adicionar(Conta conta) {
-        contas.add(conta);
+        long posicao = -1;
+        trava.writeLock().lock();
+        try {
+            contas.add(conta);
+            registrarInclusao(conta, contas.size() - 1);
+            indiceNumero.put(conta.getNumero(), conta);
+            List<Conta> doDono = indiceDono.get(conta.getDono().getCpf());
+            if (doDono == null) {
+                doDono = new ArrayList<>(1); // A maioria dos clientes tem uma única conta.
+                indiceDono.put(conta.getDono().getCpf(), doDono);
+            }
+            doDono.add(conta);
+            
+            if (diario != null) {
+                posicao = diario.registrarContaAberta(conta);
+            }
+            alteracoes.publicarPendentes(contas);
+        } finally {
+            trava.writeLock().unlock();
+        }
+        avisarSaldo(conta.getDono());
+        if (posicao >= 0) {
+            diario.aguardarGravacao(posicao); // Espera o disco sem segurar a trava.
+        }
     }
     
     // Exclui todas as contas vinculadas a um cliente específico (usado na exclusão de cliente).
+    // Custa O(k), k = contas do cliente: o índice de dono entrega as contas e cada uma sai da lista como lápide.
     public void excluirContasDoCliente(Cliente cliente) {
-        List<Conta> contasParaRemover = new ArrayList<>();
-        
-        // Iteramos a lista de contas para encontrar as contas que pertencem ao cliente.
-        for (Conta c : contas) {
-            if (c.getDono().equals(cliente)) {
-                contasParaRemover.add(c);
+        excluirContasDosClientes(Collections.singletonList(cliente));
+    }
+
+    // Exclui as contas de vários clientes (expurgo em lote): uma passagem pela trava
+    // e, havendo diário, uma única espera pelo disco no final.
+    public void excluirContasDosClientes(List<Cliente> clientes) {
+        long posicao = -1;
+        trava.writeLock().lock();
+        try {
+            for (Cliente cliente : clientes) {
+                long p = removerContasDoCliente(cliente);
+                if (p >= 0) {
+                    posicao = p;
+                }
+            }
+            alteracoes.publicarPendentes(contas);
+            agendarCompactacao();
+        } finally {
+            trava.writeLock().unlock();
+        }
+        for (Cliente cliente : clientes) {
+            avisarSaldo(cliente);
+        }
+        if (posicao >= 0) {
+            diario.aguardarGravacao(posicao);
+        }
+    }
+
+    // Retira as contas do cliente da lista e dos índices. Chamado com a trava de escrita.
+    // Retorna a posição do registro no diário, ou -1 se não houve registro.
+    private long removerContasDoCliente(Cliente cliente) {
+        // O índice de dono já entrega as contas do cliente, sem percorrer todas as contas.
+        List<Conta> contasParaRemover = buscarContasPorCpfCliente(cliente.getCpf());
+        if (contasParaRemover.isEmpty()) {
+            return -1;
+        }
+
+        indiceDono.remove(cliente.getCpf());
+        for (Conta c : contasParaRemover) {
+            indiceNumero.remove(c.getNumero());
+            if (alteracoes.temOuvintes()) {
+                alteracoes.registrar(EventoAlteracao.Tipo.EXCLUSAO, c, contas.indexOf(c));
             }
+            contas.remove(c); // Vira lápide na lista: nada é deslocado.
+            if (historico != null) {
+                historico.descartar(c.getNumero());
+            }
+            c.liberar(); // Devolve a linha ao armazém de contas.
+        }
+
+        if (diario != null) {
+            return diario.registrarContasDoClienteExcluidas(cliente.getCpf());
+        }
+        return -1;
+    }
+
+    // Se as lápides da lista passaram do limite, agenda a compactação em segundo plano.
+    // A compactação segura a trava de escrita só enquanto copia os itens vivos para um array novo.
+    private void agendarCompactacao() {
+        if (contas.precisaCompactar() && compactacaoAgendada.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                trava.writeLock().lock();
+                try {
+                    compactacaoAgendada.set(false);
+                    contas.compactar();
+                } finally {
+                    trava.writeLock().unlock();
+                }
+            });
         }
-        
-        // Removemos o conjunto de contas encontradas da lista principal.
-        contas.removeAll(contasParaRemover);
     }
 
-    // Busca uma conta pelo CPF do seu cliente titular.
+    // Busca uma conta pelo CPF do seu cliente titular (a primeira vinculada, se houver mais de uma).
     public Conta buscarContaPorCpfCliente(String cpf) {
-        // Percorre a lista para encontrar a conta do cliente pelo CPF.
-        for (Conta c : contas) {
-            if (c.getDono().getCpf().equals(cpf)) {
-                return c; // Retorna a conta assim que o CPF corresponder.
+        if (MapaCpf.chave(cpf) < 0) {
+            List<Conta> doDono = buscarContasPorCpfCliente(cpf);
+            return doDono.isEmpty() ? null : doDono.get(0); // Retorna null se não houver conta.
+        }
+        trava.readLock().lock();
+        try {
+            List<Conta> doDono = indiceDono.get(cpf); // Sem copiar a lista: é chamado uma vez por cliente na ordenação por saldo.
+            return doDono == null || doDono.isEmpty() ? null : doDono.get(0);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+    
+    // Retorna todas as contas do cliente com o CPF informado (lista vazia se não houver).
+    // A lista devolvida é uma cópia, então continua válida mesmo que as contas do cliente mudem depois.
+    public List<Conta> buscarContasPorCpfCliente(String cpf) {
+        trava.readLock().lock();
+        try {
+            if (MapaCpf.chave(cpf) < 0) {
+                // CPF fora do formato numérico não entra no índice, então percorremos a lista.
+                List<Conta> encontradas = new ArrayList<>();
+                for (Conta c : contas) {
+                    if (c.getDono().getCpf().equals(cpf)) {
+                        encontradas.add(c);
+                    }
+                }
+                return encontradas;
             }
+            List<Conta> doDono = indiceDono.get(cpf);
+            return doDono == null ? Collections.emptyList() : List.copyOf(doDono);
+        } finally {
+            trava.readLock().unlock();
         }
-        return null; // Retorna null se não houver conta.
     }
     
-    // Wrapper para a operação de saque. Chama o método saca() polimórfico da conta.
-    public boolean sacar(Conta conta, double valor) {
-        return conta.saca(valor); // O método saca() correto (subclasse) será executado.
+    // Busca uma conta pelo seu número. Retorna null se não existir.
+    public Conta buscarPorNumero(int numero) {
+        trava.readLock().lock();
+        try {
+            return indiceNumero.get(numero);
+        } finally {
+            trava.readLock().unlock();
+        }
     }
     
-    // Wrapper para a operação de depósito. Chama o método deposita() polimórfico da conta.
-    public boolean depositar(Conta conta, double valor) {
-        return conta.deposita(valor); // O método deposita() correto será executado.
+    // Wrapper para a operação de saque. Chama o método realizaSaque() polimórfico da conta.
+    // Recebe o valor em centavos e retorna o resultado, com o motivo em caso de recusa.
+    public ResultadoOperacao sacar(Conta conta, long valor) {
+        long inicio = System.nanoTime();
+        ResultadoOperacao resultado = executar(conta, TipoMovimento.SAQUE, valor, () -> conta.realizaSaque(valor)); // O método correto (subclasse) será executado.
+        if (resultado.isSucesso()) {
+            avisarSaldo(conta);
+        }
+        medir(Metricas.Operacao.SACAR, inicio, resultado.isSucesso());
+        return resultado;
+    }
+    
+    // Wrapper para a operação de depósito. Chama o método realizaDeposito() polimórfico da conta.
+    // Recebe o valor em centavos e retorna o resultado, com o motivo em caso de recusa.
+    public ResultadoOperacao depositar(Conta conta, long valor) {
+        long inicio = System.nanoTime();
+        ResultadoOperacao resultado = executar(conta, TipoMovimento.DEPOSITO, valor, () -> conta.realizaDeposito(valor)); // O método correto será executado.
+        if (resultado.isSucesso()) {
+            avisarSaldo(conta);
+        }
+        medir(Metricas.Operacao.DEPOSITAR, inicio, resultado.isSucesso());
+        return resultado;
+    }
+    
+    // Transfere o valor (em centavos) da origem para o destino: ou as duas contas mudam, ou nenhuma.
+    // As regras das duas contas valem (limite da corrente, montante e depósito mínimos da investimento)
+    // e, em caso de recusa, o resultado traz o motivo. Com diário, espera a gravação em disco.
+    public ResultadoOperacao transferir(Conta origem, Conta destino, long valor) {
+        long inicio = System.nanoTime();
+        ResultadoOperacao resultado = transferirSemAguardar(origem, destino, valor);
+        Diario d = diario;
+        if (resultado.isSucesso() && d != null) {
+            d.aguardarGravacao(); // Cobre tudo o que já foi escrito, inclusive o registro desta transferência.
+        }
+        medir(Metricas.Operacao.TRANSFERIR, inicio, resultado.isSucesso());
+        return resultado;
+    }
+
+    // Processa as transferências em paralelo (pool comum da JVM) e devolve o resultado de cada uma, na mesma ordem.
+    // Transferências entre contas diferentes não se bloqueiam; com diário, o disco é sincronizado uma única vez, no final.
+    public ResultadoOperacao[] transferirEmLote(List<Transferencia> transferencias) {
+        ResultadoOperacao[] resultados = new ResultadoOperacao[transferencias.size()];
+        IntStream.range(0, resultados.length).parallel().forEach(i -> {
+            Transferencia t = transferencias.get(i);
+            resultados[i] = transferirSemAguardar(t.getOrigem(), t.getDestino(), t.getValor());
+        });
+        Diario d = diario;
+        if (d != null) {
+            d.aguardarGravacao();
+        }
+        return resultados;
+    }
+
+    // Faz a transferência sob os monitores das duas contas, tomados sempre na ordem do número da conta:
+    // duas transferências em sentidos opostos entre as mesmas contas pedem os monitores na mesma ordem,
+    // então não há deadlock. Saques, depósitos e remunerações registrados no diário usam o mesmo monitor.
+    // O destino é validado antes de debitar a origem, então depois do débito o crédito não pode ser recusado.
+    private ResultadoOperacao transferirSemAguardar(Conta origem, Conta destino, long valor) {
+        if (origem == destino) {
+            return ResultadoOperacao.MESMA_CONTA;
+        }
+        ResultadoOperacao resultado = transferirSobMonitores(origem, destino, valor);
+        if (resultado.isSucesso()) {
+            avisarSaldo(origem);
+            avisarSaldo(destino);
+        }
+        return resultado;
+    }
+
+    // Parte da transferência feita com os monitores das duas contas (ver transferirSemAguardar).
+    private ResultadoOperacao transferirSobMonitores(Conta origem, Conta destino, long valor) {
+        Conta primeira = origem.getNumero() < destino.getNumero() ? origem : destino;
+        Conta segunda = primeira == origem ? destino : origem;
+        Diario d = diario;
+        Lock epoca = travarEpoca(d, historico);
+        try {
+            synchronized (primeira) {
+                synchronized (segunda) {
+                    registrarJurosPendentes(origem);
+                    registrarJurosPendentes(destino);
+                    ResultadoOperacao resultado = destino.validaDeposito(valor);
+                    if (!resultado.isSucesso()) {
+                        return resultado;
+                    }
+                    resultado = origem.realizaSaque(valor);
+                    if (!resultado.isSucesso()) {
+                        return resultado;
+                    }
+                    destino.realizaDeposito(valor);
+                    if (d != null) {
+                        d.registrarTransferencia(origem.getNumero(), destino.getNumero(), valor, origem.getSaldo(), destino.getSaldo());
+                    }
+                    HistoricoMovimentos h = historico;
+                    if (h != null) {
+                        h.registrar(origem.getNumero(), TipoMovimento.TRANSFERENCIA_ENVIADA, valor, origem.getSaldo());
+                        h.registrar(destino.getNumero(), TipoMovimento.TRANSFERENCIA_RECEBIDA, valor, destino.getSaldo());
+                    }
+                    return resultado;
+                }
+            }
+        } finally {
+            destravar(epoca);
+        }
     }
     
     // Wrapper para a operação de remuneração. Chama o método remunera() polimórfico da conta.
     public void remunerar(Conta conta) {
-        conta.remunera(); // O método remunera() correto será executado.
+        long inicio = System.nanoTime();
+        long posicao = remunerarSemAguardar(conta); // O método remunera() correto será executado.
+        avisarSaldo(conta);
+        if (posicao >= 0) {
+            diario.aguardarGravacao(posicao);
+        }
+        medir(Metricas.Operacao.REMUNERAR, inicio, true);
+    }
+    
+    // Sobrescreve o saldo da conta com um valor gravado (recuperação do diário) e avisa os ouvintes.
+    public void restaurarSaldo(Conta conta, long saldo) {
+        conta.restauraSaldo(saldo);
+        avisarSaldo(conta);
+    }
+
+    // Guarda a abertura da conta (na posição indicada da lista) para os ouvintes. Chamado com a trava de escrita.
+    private void registrarInclusao(Conta conta, int indice) {
+        if (alteracoes.temOuvintes()) {
+            alteracoes.registrar(EventoAlteracao.Tipo.INCLUSAO, conta, indice);
+        }
+    }
+
+    // O saldo da conta mudou: avisa os ouvintes de alterações e o ouvinte de saldo do dono.
+    private void avisarSaldo(Conta conta) {
+        alteracoes.publicarAlteracao(conta);
+        avisarSaldo(conta.getDono());
+    }
+    
+    // Avisa o ouvinte de saldo, se houver, que o saldo do cliente pode ter mudado.
+    private void avisarSaldo(Cliente dono) {
+        OuvinteSaldo o = ouvinteSaldo;
+        if (o != null) {
+            o.saldoAlterado(dono);
+        }
+    }
+    
+    // Avisa o ouvinte de saldo, se houver, que muitos saldos mudaram.
+    private void avisarSaldos() {
+        OuvinteSaldo o = ouvinteSaldo;
+        if (o != null) {
+            o.saldosAlterados();
+        }
+    }
+
+    // Com diário ou histórico, toma a trava de leitura da época para aplicar e registrar um movimento
+    // (ver remunerarTodasSobDemanda): nenhuma época é publicada entre os juros pendentes registrados e o movimento.
+    // Retorna a trava tomada, ou null sem diário nem histórico.
+    private Lock travarEpoca(Diario d, HistoricoMovimentos h) {
+        if (d == null && h == null) {
+            return null;
+        }
+        Lock epoca = travaEpoca.readLock();
+        epoca.lock();
+        return epoca;
+    }
+
+    private static void destravar(Lock epoca) {
+        if (epoca != null) {
+            epoca.unlock();
+        }
+    }
+    
+    // Registra a execução nas métricas, se houver.
+    private void medir(Metricas.Operacao operacao, long inicio, boolean aceita) {
+        Metricas m = metricas;
+        if (m != null) {
+            m.registrar(operacao, inicio, aceita);
+        }
+    }
+    
+    // Remuneração mensal de todas as contas, em paralelo (ver RemuneracaoEmLote).
+    // O ouvinte (pode ser null) recebe o andamento; o resultado traz o total e a vazão.
+    // Com diário, cada conta gera um registro, mas o disco é sincronizado uma única vez, no final.
+    // Com a remuneração sob demanda ligada, apenas publica a época (ver remunerarTodasSobDemanda).
+    public RemuneracaoEmLote.Resultado remunerarTodas(RemuneracaoEmLote.OuvinteProgresso ouvinte) {
+        if (remuneracaoSobDemanda) {
+            RemuneracaoEmLote.Resultado resultado = remunerarTodasSobDemanda(ContaCorrente.TAXA_REMUNERACAO, ContaInvestimento.TAXA_REMUNERACAO);
+            if (ouvinte != null && resultado.getTotal() > 0) { // Sem contas não há andamento, como em RemuneracaoEmLote.
+                ouvinte.progresso(resultado.getTotal(), resultado.getTotal());
+            }
+            return resultado;
+        }
+        Conta[] todas;
+        trava.readLock().lock();
+        try {
+            todas = contas.toArray(new Conta[0]); // Cópia: o job não depende da lista durante a execução.
+        } finally {
+            trava.readLock().unlock();
+        }
+        RemuneracaoEmLote job = new RemuneracaoEmLote(ForkJoinPool.commonPool(), this::remunerarNoLote);
+        RemuneracaoEmLote.Resultado resultado = job.executar(todas, ouvinte);
+        avisarSaldos(); // Uma reconstrução só, em vez de reposicionar cliente por cliente.
+        if (alteracoes.temOuvintes()) {
+            trava.readLock().lock(); // Ordena a recarga com as inclusões e exclusões, publicadas sob a trava.
+            try {
+                alteracoes.publicarRecarga(contas);
+            } finally {
+                trava.readLock().unlock();
+            }
+        }
+        if (diario != null) {
+            diario.aguardarGravacao();
+        }
+        return resultado;
+    }
+    
+    // Remunera todas as contas com as taxas informadas (pontos-base por tipo) sem percorrê-las: publica uma época
+    // na TabelaRemuneracao e cada conta aplica a taxa do seu tipo no próximo acesso. Custa O(1) no número de contas;
+    // o índice de saldo dos clientes só é relido quando for usado.
+    // Com diário, a época é registrada e publicada sob a trava de escrita da época, que os movimentos registrados
+    // tomam para leitura: todo movimento gravado antes do registro da época foi aplicado antes dela, e todo
+    // movimento gravado depois já traz os juros dela no saldo. Assim a recuperação, que republica a época
+    // na mesma posição, chega aos mesmos saldos.
+    public RemuneracaoEmLote.Resultado remunerarTodasSobDemanda(int pontosBaseCorrente, int pontosBaseInvestimento) {
+        long inicio = System.nanoTime();
+        Diario d = diario;
+        travaEpoca.writeLock().lock();
+        try {
+            int epoca = epocaRemuneracao + 1;
+            if (d != null) {
+                d.registrarRemuneracao(epoca, pontosBaseCorrente, pontosBaseInvestimento);
+            }
+            Conta.publicarRemuneracao(pontosBaseCorrente, pontosBaseInvestimento);
+            epocaRemuneracao = epoca;
+        } finally {
+            travaEpoca.writeLock().unlock();
+        }
+        OuvinteSaldo o = ouvinteSaldo;
+        if (o != null) {
+            o.saldosDesatualizados();
+        }
+        int total;
+        trava.readLock().lock();
+        try {
+            total = contas.size();
+            if (alteracoes.temOuvintes()) {
+                alteracoes.publicarRecarga(contas); // Quem exibe as contas relê os saldos (só das linhas visíveis).
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+        if (d != null) {
+            d.aguardarGravacao();
+        }
+        return new RemuneracaoEmLote.Resultado(total, System.nanoTime() - inicio);
+    }
+    
+    // Remuneração de uma conta dentro do job de remunerarTodas. O job trabalha sobre uma cópia da lista, então
+    // a conta pode ter sido excluída (exclusão do cliente) depois da cópia: ela é pulada, em vez de abortar o job
+    // no meio. A conta excluída é detectada antes de qualquer alteração do saldo, então nada fica pela metade.
+    private void remunerarNoLote(Conta conta) {
+        try {
+            remunerarSemAguardar(conta);
+        } catch (IllegalStateException e) {
+            if (conta.isAtiva()) {
+                throw e;
+            }
+        }
+    }
+
+    // Remunera a conta e, havendo diário, registra o movimento sem esperar o disco (e no histórico, se houver).
+    // Retorna a posição do registro no diário, ou -1 se não houver diário.
+    private long remunerarSemAguardar(Conta conta) {
+        Diario d = diario;
+        HistoricoMovimentos h = historico;
+        if (d == null && h == null) {
+            conta.remunera();
+            return -1;
+        }
+        Lock epoca = travarEpoca(d, h);
+        try {
+            synchronized (conta) {
+                registrarJurosPendentes(conta);
+                long saldoAntes = conta.getSaldo();
+                conta.remunera();
+                long saldo = conta.getSaldo();
+                if (h != null) {
+                    h.registrar(conta.getNumero(), TipoMovimento.REMUNERACAO, saldo - saldoAntes, saldo);
+                }
+                return d != null ? d.registrarMovimento(conta.getNumero(), TipoMovimento.REMUNERACAO, saldo - saldoAntes, saldo) : -1;
+            }
+        } finally {
+            destravar(epoca);
+        }
+    }
+    
+    // Com histórico, grava no saldo as remunerações sob demanda que a conta ainda não recebeu e as registra como
+    // um movimento de remuneração, antes do movimento que vai ser feito; sem isso o saldo do extrato saltaria sem
+    // explicação. Não vão para o diário: a recuperação reaplica as épocas pelo registro delas.
+    // Chamado sob o monitor da conta.
+    private void registrarJurosPendentes(Conta conta) {
+        HistoricoMovimentos h = historico;
+        if (h == null) {
+            return;
+        }
+        long juros = conta.aplicarRemuneracaoPendente();
+        if (juros != 0) {
+            h.registrar(conta.getNumero(), TipoMovimento.REMUNERACAO, juros, conta.getSaldo());
+        }
+    }
+
+    // Executa um saque/depósito e, se houver diário e a operação for aceita, registra o movimento
+    // com o saldo resultante e espera a gravação em disco (compartilhada com outras threads que gravarem junto).
+    // Aplicação e registro acontecem sob o monitor da conta, então o diário (e o histórico, se houver) guarda
+    // os movimentos de cada conta na mesma ordem em que foram aplicados. Sem diário nem histórico, a operação continua sem lock.
+    private ResultadoOperacao executar(Conta conta, TipoMovimento tipo, long valor, Supplier<ResultadoOperacao> operacao) {
+        Diario d = diario;
+        HistoricoMovimentos h = historico;
+        if (d == null && h == null) {
+            return operacao.get();
+        }
+        ResultadoOperacao resultado;
+        long posicao = -1;
+        Lock epoca = travarEpoca(d, h);
+        try {
+            synchronized (conta) {
+                registrarJurosPendentes(conta);
+                resultado = operacao.get();
+                if (!resultado.isSucesso()) {
+                    return resultado; // Operação recusada não altera nada, então não vai para o diário.
+                }
+                long saldo = conta.getSaldo();
+                if (h != null) {
+                    h.registrar(conta.getNumero(), tipo, valor, saldo);
+                }
+                if (d != null) {
+                    posicao = d.registrarMovimento(conta.getNumero(), tipo, valor, saldo);
+                }
+            }
+        } finally {
+            destravar(epoca);
+        }
+        if (d != null) {
+            d.aguardarGravacao(posicao); // Fora do monitor: outras contas seguem enquanto o disco grava.
+        }
+        return resultado;
     }
 }
\ No newline at end of file
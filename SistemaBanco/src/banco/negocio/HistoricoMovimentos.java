@@ -0,0 +1,291 @@
+package banco.negocio;
+
+import banco.modelo.AlocadorNumeros;
+import banco.modelo.TipoMovimento;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+// Histórico de movimentos de cada conta (instante, tipo, valor e saldo resultante), só de acréscimos.
+// Nada é guardado como um objeto por movimento: os campos ficam em colunas de tipos primitivos,
+// divididas em trechos de MOVIMENTOS_POR_TRECHO movimentos. Cada conta tem uma corrente de trechos
+// (o próximo de cada trecho fica numa coluna também), e acrescentar um movimento escreve no último trecho dela.
+// Os trechos vêm de lâminas de TRECHOS_POR_LAMINA trechos que nunca mudam de lugar (como os blocos do ArmazemContas):
+// crescer o histórico só acrescenta lâminas.
+//
+// O instante de cada movimento é guardado como a distância, em milissegundos, até o instante do primeiro
+// movimento do trecho (int em vez de long), então cada movimento ocupa 21 bytes: 100 milhões de movimentos
+// cabem em pouco mais de 2 GB. Os instantes de uma conta nunca diminuem; a consulta por intervalo pula
+// os trechos inteiros que ficam antes do intervalo e para no primeiro que começa depois dele.
+//
+// Os movimentos de uma mesma conta devem ser registrados na ordem em que foram aplicados
+// (o GerenciadorContas registra sob o monitor da conta). Contas diferentes podem registrar e consultar
+// ao mesmo tempo: cada conta usa uma das travas de TRAVAS, escolhida pelo número.
+// Fica só em memória: o diário e o instantâneo guardam os saldos, não o histórico.
+public final class HistoricoMovimentos {
+
+    private static final int BITS_TRECHO = 4;
+    private static final int MOVIMENTOS_POR_TRECHO = 1 << BITS_TRECHO;
+    private static final int BITS_LAMINA = 12;
+    private static final int TRECHOS_POR_LAMINA = 1 << BITS_LAMINA;
+    private static final int BITS_PAGINA = 16;
+    private static final int CONTAS_POR_PAGINA = 1 << BITS_PAGINA;
+    private static final int TRAVAS = 64;
+    private static final int SEM_TRECHO = -1;
+
+    // Colunas de TRECHOS_POR_LAMINA trechos: por movimento (instante relativo, tipo, valor, saldo) e por trecho.
+    private static final class Lamina {
+        final int[] instantes = new int[TRECHOS_POR_LAMINA * MOVIMENTOS_POR_TRECHO]; // ms desde a base do trecho
+        final byte[] tipos = new byte[TRECHOS_POR_LAMINA * MOVIMENTOS_POR_TRECHO]; // TipoMovimento.getCodigo()
+        final long[] valores = new long[TRECHOS_POR_LAMINA * MOVIMENTOS_POR_TRECHO]; // centavos
+        final long[] saldos = new long[TRECHOS_POR_LAMINA * MOVIMENTOS_POR_TRECHO]; // centavos, após o movimento
+        final long[] bases = new long[TRECHOS_POR_LAMINA]; // Instante do primeiro movimento do trecho
+        final int[] proximos = new int[TRECHOS_POR_LAMINA]; // Próximo trecho da mesma conta, ou SEM_TRECHO
+        final byte[] ocupados = new byte[TRECHOS_POR_LAMINA]; // Movimentos usados no trecho
+    }
+
+    // Primeiro e último trecho e quantidade de movimentos de CONTAS_POR_PAGINA contas seguidas (pelo número).
+    private static final class Pagina {
+        final int[] primeiros = new int[CONTAS_POR_PAGINA];
+        final int[] ultimos = new int[CONTAS_POR_PAGINA];
+        final int[] quantidades = new int[CONTAS_POR_PAGINA];
+
+        Pagina() {
+            Arrays.fill(primeiros, SEM_TRECHO);
+            Arrays.fill(ultimos, SEM_TRECHO);
+        }
+    }
+
+    private final LongSupplier relogio;
+    private final Object[] travas = new Object[TRAVAS];
+    private volatile Lamina[] laminas = new Lamina[0]; // Só cresce (protegido por this).
+    private volatile Pagina[] paginas = new Pagina[0]; // Só cresce (protegido por this).
+    private int proximoTrecho; // Primeiro trecho nunca usado (protegido por this).
+    private int[] livres = new int[16]; // Pilha de trechos devolvidos por contas descartadas (protegido por this).
+    private int quantidadeLivres;
+
+    // Histórico com o relógio do sistema (System.currentTimeMillis).
+    public HistoricoMovimentos() {
+        this(System::currentTimeMillis);
+    }
+
+    // Histórico com o relógio informado (ms), ex: um relógio fixo para reproduzir movimentos.
+    public HistoricoMovimentos(LongSupplier relogio) {
+        this.relogio = relogio;
+        for (int i = 0; i < TRAVAS; i++) {
+            travas[i] = new Object();
+        }
+    }
+
+    // Movimentos de uma conta num intervalo de tempo, em colunas (como no histórico), na ordem em que aconteceram.
+    public static final class Extrato {
+        private long[] instantes = new long[MOVIMENTOS_POR_TRECHO];
+        private byte[] tipos = new byte[MOVIMENTOS_POR_TRECHO];
+        private long[] valores = new long[MOVIMENTOS_POR_TRECHO];
+        private long[] saldos = new long[MOVIMENTOS_POR_TRECHO];
+        private int quantidade;
+
+        private void acrescentar(long instante, byte tipo, long valor, long saldo) {
+            if (quantidade == instantes.length) {
+                int capacidade = quantidade * 2;
+                instantes = Arrays.copyOf(instantes, capacidade);
+                tipos = Arrays.copyOf(tipos, capacidade);
+                valores = Arrays.copyOf(valores, capacidade);
+                saldos = Arrays.copyOf(saldos, capacidade);
+            }
+            instantes[quantidade] = instante;
+            tipos[quantidade] = tipo;
+            valores[quantidade] = valor;
+            saldos[quantidade] = saldo;
+            quantidade++;
+        }
+
+        public int getQuantidade() { return quantidade; }
+
+        // Instante do movimento i, em ms desde 1970 (como System.currentTimeMillis).
+        public long getInstante(int i) { return instantes[verificar(i)]; }
+
+        public TipoMovimento getTipo(int i) { return TipoMovimento.doCodigo(tipos[verificar(i)]); }
+
+        // Valor do movimento i em centavos: o tipo diz se entrou ou saiu (na remuneração, é a variação do saldo).
+        public long getValor(int i) { return valores[verificar(i)]; }
+
+        // Saldo da conta logo após o movimento i, em centavos.
+        public long getSaldo(int i) { return saldos[verificar(i)]; }
+
+        private int verificar(int i) {
+            if (i < 0 || i >= quantidade) {
+                throw new IndexOutOfBoundsException("Movimento " + i + " fora do extrato de " + quantidade + " movimentos.");
+            }
+            return i;
+        }
+    }
+
+    // Acrescenta um movimento ao histórico da conta, com o instante atual do relógio
+    // (ou o do último movimento da conta, se o relógio tiver voltado).
+    public void registrar(int numeroConta, TipoMovimento tipo, long valor, long saldo) {
+        int conta = indiceConta(numeroConta);
+        long agora = relogio.getAsLong();
+        synchronized (trava(numeroConta)) {
+            Pagina p = pagina(conta, true);
+            int i = conta & (CONTAS_POR_PAGINA - 1);
+            int ultimo = p.ultimos[i];
+            if (ultimo == SEM_TRECHO) {
+                ultimo = novoTrecho(agora);
+                p.primeiros[i] = ultimo;
+                p.ultimos[i] = ultimo;
+            } else {
+                Lamina l = lamina(ultimo);
+                int t = ultimo & (TRECHOS_POR_LAMINA - 1);
+                int ocupados = l.ocupados[t];
+                long base = l.bases[t];
+                agora = Math.max(agora, base + l.instantes[t * MOVIMENTOS_POR_TRECHO + ocupados - 1]);
+                if (ocupados == MOVIMENTOS_POR_TRECHO || agora - base > Integer.MAX_VALUE) {
+                    int novo = novoTrecho(agora);
+                    l.proximos[t] = novo;
+                    p.ultimos[i] = novo;
+                    ultimo = novo;
+                }
+            }
+            Lamina l = lamina(ultimo);
+            int t = ultimo & (TRECHOS_POR_LAMINA - 1);
+            int posicao = t * MOVIMENTOS_POR_TRECHO + l.ocupados[t];
+            l.instantes[posicao] = (int) (agora - l.bases[t]);
+            l.tipos[posicao] = tipo.getCodigo();
+            l.valores[posicao] = valor;
+            l.saldos[posicao] = saldo;
+            l.ocupados[t]++;
+            p.quantidades[i]++;
+        }
+    }
+
+    // Quantidade de movimentos registrados para a conta.
+    public int quantidade(int numeroConta) {
+        int conta = indiceConta(numeroConta);
+        synchronized (trava(numeroConta)) {
+            Pagina p = pagina(conta, false);
+            return p == null ? 0 : p.quantidades[conta & (CONTAS_POR_PAGINA - 1)];
+        }
+    }
+
+    // Movimentos da conta com instante em [de, ate), em ms, na ordem em que aconteceram.
+    public Extrato extrato(int numeroConta, long de, long ate) {
+        Extrato extrato = new Extrato();
+        int conta = indiceConta(numeroConta);
+        synchronized (trava(numeroConta)) {
+            Pagina p = pagina(conta, false);
+            int trecho = p == null ? SEM_TRECHO : p.primeiros[conta & (CONTAS_POR_PAGINA - 1)];
+            while (trecho != SEM_TRECHO) {
+                Lamina l = lamina(trecho);
+                int t = trecho & (TRECHOS_POR_LAMINA - 1);
+                long base = l.bases[t];
+                if (base >= ate) {
+                    break; // Os trechos seguintes começam ainda mais tarde.
+                }
+                int inicio = t * MOVIMENTOS_POR_TRECHO;
+                int fim = inicio + l.ocupados[t];
+                if (base + l.instantes[fim - 1] >= de) { // Senão o trecho inteiro fica antes do intervalo.
+                    for (int m = inicio; m < fim; m++) {
+                        long instante = base + l.instantes[m];
+                        if (instante >= ate) {
+                            break;
+                        }
+                        if (instante >= de) {
+                            extrato.acrescentar(instante, l.tipos[m], l.valores[m], l.saldos[m]);
+                        }
+                    }
+                }
+                trecho = l.proximos[t];
+            }
+        }
+        return extrato;
+    }
+
+    // Descarta o histórico da conta (conta excluída), devolvendo os trechos dela para reaproveitamento.
+    public void descartar(int numeroConta) {
+        int conta = indiceConta(numeroConta);
+        synchronized (trava(numeroConta)) {
+            Pagina p = pagina(conta, false);
+            if (p == null) {
+                return;
+            }
+            int i = conta & (CONTAS_POR_PAGINA - 1);
+            int trecho = p.primeiros[i];
+            p.primeiros[i] = SEM_TRECHO;
+            p.ultimos[i] = SEM_TRECHO;
+            p.quantidades[i] = 0;
+            while (trecho != SEM_TRECHO) {
+                int proximo = lamina(trecho).proximos[trecho & (TRECHOS_POR_LAMINA - 1)];
+                devolverTrecho(trecho);
+                trecho = proximo;
+            }
+        }
+    }
+
+    // Posição da conta nas páginas: os números começam em AlocadorNumeros.PRIMEIRO_NUMERO e quase não têm buracos.
+    private static int indiceConta(int numeroConta) {
+        int conta = numeroConta - AlocadorNumeros.PRIMEIRO_NUMERO;
+        if (conta < 0) {
+            throw new IllegalArgumentException("Número de conta inválido: " + numeroConta);
+        }
+        return conta;
+    }
+
+    private Object trava(int numeroConta) {
+        return travas[numeroConta & (TRAVAS - 1)];
+    }
+
+    private Lamina lamina(int trecho) {
+        return laminas[trecho >>> BITS_LAMINA];
+    }
+
+    // Página da conta; se criar for true, cria as que faltarem (as páginas nunca mudam de lugar).
+    private Pagina pagina(int conta, boolean criar) {
+        int indice = conta >>> BITS_PAGINA;
+        Pagina[] atuais = paginas;
+        if (indice < atuais.length && atuais[indice] != null) {
+            return atuais[indice];
+        }
+        if (!criar) {
+            return null;
+        }
+        synchronized (this) {
+            atuais = paginas;
+            if (indice >= atuais.length) {
+                atuais = Arrays.copyOf(atuais, indice + 1);
+            }
+            if (atuais[indice] == null) {
+                atuais[indice] = new Pagina();
+            }
+            paginas = atuais; // Publicação volátil: quem ler a página já a enxerga inteira.
+            return atuais[indice];
+        }
+    }
+
+    // Reserva um trecho vazio, com a base informada, reaproveitando um devolvido se houver.
+    private synchronized int novoTrecho(long base) {
+        int trecho;
+        if (quantidadeLivres > 0) {
+            trecho = livres[--quantidadeLivres];
+        } else {
+            trecho = proximoTrecho++;
+            if ((trecho >>> BITS_LAMINA) == laminas.length) {
+                Lamina[] maiores = Arrays.copyOf(laminas, laminas.length + 1);
+                maiores[laminas.length] = new Lamina();
+                laminas = maiores;
+            }
+        }
+        Lamina l = lamina(trecho);
+        int t = trecho & (TRECHOS_POR_LAMINA - 1);
+        l.bases[t] = base;
+        l.proximos[t] = SEM_TRECHO;
+        l.ocupados[t] = 0;
+        return trecho;
+    }
+
+    private synchronized void devolverTrecho(int trecho) {
+        if (quantidadeLivres == livres.length) {
+            livres = Arrays.copyOf(livres, livres.length * 2);
+        }
+        livres[quantidadeLivres++] = trecho;
+    }
+}
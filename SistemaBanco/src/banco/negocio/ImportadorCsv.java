@@ -0,0 +1,288 @@
+package banco.negocio;
+
+import banco.modelo.Cliente;
+import banco.modelo.Conta;
+import banco.modelo.ContaCorrente;
+import banco.modelo.ContaInvestimento;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Importação em lote de clientes (e, opcionalmente, de uma conta para cada um) a partir de um arquivo CSV.
+//
+// Formato: uma linha por cliente, campos separados por ';' e valores em centavos:
+//   nome;sobrenome;rg;cpf;endereco
+//   nome;sobrenome;rg;cpf;endereco;CORRENTE;depositoInicial;limite
+//   nome;sobrenome;rg;cpf;endereco;INVESTIMENTO;depositoInicial;montanteMinimo;depositoMinimo
+// O CPF pode vir com máscara. Uma primeira linha de cabeçalho (com "cpf" na quarta coluna) é ignorada.
+//
+// O arquivo é lido em lotes de TAMANHO_LOTE linhas, então a memória usada não depende do tamanho do arquivo.
+// Em cada lote, a conversão e a validação dos CPFs (dígitos verificadores) rodam em paralelo;
+// depois os clientes são inseridos de uma vez (adicionarLote), que descarta os CPFs já cadastrados pelo índice,
+// e as contas dos clientes aceitos são abertas também de uma vez.
+public class ImportadorCsv {
+
+    private static final int TAMANHO_LOTE = 20_000; // Linhas processadas por vez.
+    private static final int MAXIMO_REJEICOES_LISTADAS = 1000; // As demais rejeições são apenas contadas.
+    private static final char SEPARADOR = ';';
+
+    // Uma linha recusada, com o número da linha no arquivo e o motivo.
+    public static class Rejeicao {
+        private final long linha;
+        private final String conteudo;
+        private final String motivo;
+
+        public Rejeicao(long linha, String conteudo, String motivo) {
+            this.linha = linha;
+            this.conteudo = conteudo;
+            this.motivo = motivo;
+        }
+
+        public long getLinha() { return linha; }
+
+        public String getConteudo() { return conteudo; }
+
+        public String getMotivo() { return motivo; }
+
+        @Override
+        public String toString() {
+            return "Linha " + linha + ": " + motivo;
+        }
+    }
+
+    // Resultado da importação: quantidades, tempo gasto e as primeiras linhas recusadas.
+    public static class Relatorio {
+        private long linhasLidas;
+        private long clientesImportados;
+        private long contasAbertas;
+        private long totalRejeitadas;
+        private final List<Rejeicao> rejeicoes = new ArrayList<>();
+        private long nanos;
+
+        public long getLinhasLidas() { return linhasLidas; }
+
+        public long getClientesImportados() { return clientesImportados; }
+
+        public long getContasAbertas() { return contasAbertas; }
+
+        // Total de linhas recusadas (getRejeicoes traz no máximo as MAXIMO_REJEICOES_LISTADAS primeiras).
+        public long getTotalRejeitadas() { return totalRejeitadas; }
+
+        public List<Rejeicao> getRejeicoes() { return Collections.unmodifiableList(rejeicoes); }
+
+        // Tempo total em milissegundos.
+        public long getMillis() { return nanos / 1_000_000; }
+
+        // Vazão da importação em linhas por segundo.
+        public double getLinhasPorSegundo() {
+            return nanos == 0 ? 0 : linhasLidas * 1_000_000_000.0 / nanos;
+        }
+
+        private void rejeitar(long linha, String conteudo, String motivo) {
+            totalRejeitadas++;
+            if (rejeicoes.size() < MAXIMO_REJEICOES_LISTADAS) {
+                rejeicoes.add(new Rejeicao(linha, conteudo, motivo));
+            }
+        }
+    }
+
+    // Recebe o andamento (linhas lidas até agora). É chamado pela thread que faz a importação.
+    public interface OuvinteProgresso {
+        void progresso(long linhasLidas);
+    }
+
+    // Linha convertida: o cliente e os dados da conta (tipo null se a linha não abre conta), ou o motivo da recusa.
+    private static class Linha {
+        Cliente cliente;
+        String tipoConta;
+        long depositoInicial, parametro1, parametro2;
+        String motivo;
+    }
+
+    private final GerenciadorClientes gerenciadorClientes;
+    private final GerenciadorContas gerenciadorContas;
+
+    public ImportadorCsv(GerenciadorClientes gerenciadorClientes, GerenciadorContas gerenciadorContas) {
+        this.gerenciadorClientes = gerenciadorClientes;
+        this.gerenciadorContas = gerenciadorContas;
+    }
+
+    // Importa o arquivo (UTF-8). O ouvinte pode ser null.
+    public Relatorio importar(Path arquivo, OuvinteProgresso ouvinte) throws IOException {
+        try (Reader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            return importar(leitor, ouvinte);
+        }
+    }
+
+    // Importa as linhas lidas do leitor. O ouvinte pode ser null.
+    public Relatorio importar(Reader leitor, OuvinteProgresso ouvinte) throws IOException {
+        long inicio = System.nanoTime();
+        Relatorio relatorio = new Relatorio();
+        BufferedReader entrada = leitor instanceof BufferedReader ? (BufferedReader) leitor : new BufferedReader(leitor, 1 << 16);
+        String[] lote = new String[TAMANHO_LOTE];
+        long primeiraLinha = 1; // Número (no arquivo) da primeira linha do lote.
+        boolean inicioArquivo = true;
+        while (true) {
+            int quantidade = 0;
+            String texto;
+            while (quantidade < TAMANHO_LOTE && (texto = entrada.readLine()) != null) {
+                if (inicioArquivo) {
+                    inicioArquivo = false;
+                    if (cabecalho(texto)) {
+                        primeiraLinha++;
+                        continue;
+                    }
+                }
+                lote[quantidade++] = texto;
+            }
+            if (quantidade == 0) {
+                break;
+            }
+            processarLote(lote, quantidade, primeiraLinha, relatorio);
+            primeiraLinha += quantidade;
+            relatorio.linhasLidas += quantidade;
+            if (ouvinte != null) {
+                ouvinte.progresso(relatorio.linhasLidas);
+            }
+        }
+        relatorio.nanos = System.nanoTime() - inicio;
+        return relatorio;
+    }
+
+    // Converte e valida o lote em paralelo e insere os clientes (e contas) aceitos.
+    private void processarLote(String[] lote, int quantidade, long primeiraLinha, Relatorio relatorio) {
+        Linha[] linhas = new Linha[quantidade];
+        IntStream.range(0, quantidade).parallel().forEach(i -> linhas[i] = converter(lote[i]));
+
+        List<Cliente> clientes = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            if (linhas[i].motivo == null) {
+                clientes.add(linhas[i].cliente);
+            }
+        }
+
+        boolean[] aceitos = gerenciadorClientes.adicionarLote(clientes);
+        List<Linha> comConta = new ArrayList<>();
+        int v = 0; // Posição da linha na lista de clientes (só as linhas válidas).
+        for (int i = 0; i < quantidade; i++) {
+            if (linhas[i].motivo != null) {
+                relatorio.rejeitar(primeiraLinha + i, lote[i], linhas[i].motivo);
+            } else if (!aceitos[v++]) {
+                relatorio.rejeitar(primeiraLinha + i, lote[i], "CPF já cadastrado.");
+            } else {
+                relatorio.clientesImportados++;
+                if (linhas[i].tipoConta != null) {
+                    comConta.add(linhas[i]);
+                }
+            }
+        }
+
+        // As contas só são criadas para clientes aceitos: criar uma conta reserva o número e a linha no armazém.
+        Conta[] contas = new Conta[comConta.size()];
+        IntStream.range(0, contas.length).parallel().forEach(i -> contas[i] = criarConta(comConta.get(i)));
+        gerenciadorContas.adicionarLote(Arrays.asList(contas));
+        relatorio.contasAbertas += contas.length;
+        Arrays.fill(lote, 0, quantidade, null);
+    }
+
+    // Retorna true se a linha for o cabeçalho do arquivo.
+    private static boolean cabecalho(String texto) {
+        List<String> campos = separar(texto);
+        return campos.size() >= 4 && campos.get(3).equalsIgnoreCase("cpf");
+    }
+
+    // Converte uma linha em cliente e dados da conta, validando os campos. Roda em paralelo.
+    private static Linha converter(String texto) {
+        Linha linha = new Linha();
+        List<String> campos = separar(texto);
+        if (campos.size() != 5 && campos.size() != 8 && campos.size() != 9) {
+            linha.motivo = "Quantidade de campos inválida (" + campos.size() + ").";
+            return linha;
+        }
+        for (int i = 0; i < 5; i++) {
+            if (campos.get(i).isEmpty()) {
+                linha.motivo = "Campo obrigatório vazio (coluna " + (i + 1) + ").";
+                return linha;
+            }
+        }
+        String cpf = apenasDigitos(campos.get(3)); // Remove a máscara, como no cadastro pela tela.
+        if (!ValidadorCpf.valido(cpf)) {
+            linha.motivo = "CPF inválido.";
+            return linha;
+        }
+        linha.cliente = new Cliente(campos.get(0), campos.get(1), campos.get(2), cpf, campos.get(4));
+        if (campos.size() == 5) {
+            return linha;
+        }
+
+        String tipo = campos.get(5).toUpperCase();
+        try {
+            linha.depositoInicial = centavos(campos.get(6));
+            linha.parametro1 = centavos(campos.get(7));
+            if (tipo.equals("CORRENTE") && campos.size() == 8) {
+                linha.tipoConta = tipo;
+            } else if (tipo.equals("INVESTIMENTO") && campos.size() == 9) {
+                linha.parametro2 = centavos(campos.get(8));
+                if (linha.depositoInicial > 0 && linha.depositoInicial < linha.parametro2) {
+                    linha.motivo = "Depósito inicial abaixo do depósito mínimo.";
+                    return linha;
+                }
+                linha.tipoConta = tipo;
+            } else {
+                linha.motivo = "Tipo de conta inválido: " + campos.get(5) + ".";
+            }
+        } catch (NumberFormatException e) {
+            linha.motivo = "Valor inválido (use centavos, sem separadores).";
+        }
+        return linha;
+    }
+
+    // Converte um valor em centavos. Lança NumberFormatException se não for um número inteiro não negativo.
+    private static long centavos(String campo) {
+        long valor = Long.parseLong(campo);
+        if (valor < 0) {
+            throw new NumberFormatException(campo);
+        }
+        return valor;
+    }
+
+    private static Conta criarConta(Linha linha) {
+        if (linha.tipoConta.equals("CORRENTE")) {
+            return new ContaCorrente(linha.cliente, linha.depositoInicial, linha.parametro1);
+        }
+        return new ContaInvestimento(linha.cliente, linha.depositoInicial, linha.parametro1, linha.parametro2);
+    }
+
+    // Mantém só os dígitos do texto (sem usar expressão regular, que custaria caro por linha).
+    private static String apenasDigitos(String texto) {
+        StringBuilder sb = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // Separa os campos da linha pelo SEPARADOR, removendo os espaços das pontas de cada campo.
+    private static List<String> separar(String texto) {
+        List<String> campos = new ArrayList<>(9);
+        int inicio = 0;
+        for (int i = 0; i <= texto.length(); i++) {
+            if (i == texto.length() || texto.charAt(i) == SEPARADOR) {
+                campos.add(texto.substring(inicio, i).trim());
+                inicio = i + 1;
+            }
+        }
+        return campos;
+    }
+}
@@ -0,0 +1,381 @@
+package banco.negocio;
+
+import banco.modelo.Cliente;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+// Índices de ordenação dos clientes por nome, sobrenome e saldo, mantidos a cada alteração
+// em vez de ordenar a lista inteira a cada pedido.
+//
+// Cada índice é uma ArvoreOrdenada de entradas (chave, sequência, cliente). A sequência é a ordem
+// de inserção do cliente e desempata as chaves iguais, então o resultado é o mesmo da ordenação estável
+// da lista de clientes (que também está em ordem de inserção). Uma entrada nunca muda: quando a chave
+// do cliente muda, a entrada antiga sai e a nova entra.
+//
+// visao(...) congela o índice em O(1) e devolve a ordem daquele instante: o tamanho é exato, get(i) custa
+// O(log n) e nada que mude depois aparece na visão (ver VisaoOrdenada).
+//
+// As árvores só são lidas e alteradas sob o monitor do índice. Nome e sobrenome mudam sob a trava de escrita
+// do GerenciadorClientes. O saldo muda junto com as operações das contas, em qualquer thread: atualizarSaldo
+// só marca o cliente como pendente (sem tomar o monitor do índice), e as entradas dos pendentes são
+// refeitas, com o saldo lido na hora, quando o índice de saldo é usado.
+public class IndiceOrdenacao {
+
+    // Campos pelos quais o índice ordena.
+    public enum Campo {
+        NOME, SOBRENOME, SALDO_DECRESCENTE
+    }
+
+    // Entrada de um índice: imutável enquanto está na árvore.
+    private abstract static class Entrada {
+        final long sequencia;
+        final Cliente cliente;
+
+        Entrada(long sequencia, Cliente cliente) {
+            this.sequencia = sequencia;
+            this.cliente = cliente;
+        }
+    }
+
+    private static final class EntradaTexto extends Entrada {
+        final String chave;
+
+        EntradaTexto(String chave, long sequencia, Cliente cliente) {
+            super(sequencia, cliente);
+            this.chave = chave;
+        }
+    }
+
+    private static final class EntradaSaldo extends Entrada {
+        final long saldo;
+
+        EntradaSaldo(long saldo, long sequencia, Cliente cliente) {
+            super(sequencia, cliente);
+            this.saldo = saldo;
+        }
+    }
+
+    // Entradas atuais do cliente nos três índices (para removê-las quando a chave muda).
+    // As entradas são guardadas pelo monitor do índice; as marcas, pelo monitor do registro.
+    private static final class Registro {
+        EntradaTexto nome;
+        EntradaTexto sobrenome;
+        EntradaSaldo saldo;
+        boolean pendente; // O saldo mudou e o registro está na fila de saldos pendentes.
+        boolean removido; // O cliente saiu do índice: atualizações de saldo atrasadas são ignoradas.
+    }
+
+    private static final Comparator<EntradaTexto> POR_TEXTO = (a, b) -> {
+        int c = a.chave.compareTo(b.chave);
+        return c != 0 ? c : Long.compare(a.sequencia, b.sequencia);
+    };
+
+    private static final Comparator<EntradaSaldo> POR_SALDO_DECRESCENTE = (a, b) -> {
+        int c = Long.compare(b.saldo, a.saldo);
+        return c != 0 ? c : Long.compare(a.sequencia, b.sequencia);
+    };
+
+    private final ToLongFunction<Cliente> saldoDe; // Saldo usado na ordenação (o da conta do cliente).
+    private final Map<String, Registro> registros = new ConcurrentHashMap<>(); // CPF -> registro.
+    private ArvoreOrdenada<EntradaTexto> porNome = new ArvoreOrdenada<>(POR_TEXTO);
+    private ArvoreOrdenada<EntradaTexto> porSobrenome = new ArvoreOrdenada<>(POR_TEXTO);
+    private ArvoreOrdenada<EntradaSaldo> porSaldo = new ArvoreOrdenada<>(POR_SALDO_DECRESCENTE);
+    private long proximaSequencia;
+
+    // Clientes cujo saldo mudou desde a última vez que o índice de saldo foi usado. Cada registro entra
+    // uma vez só (marca 'pendente'), então a fila nunca passa do número de clientes.
+    private final Queue<Registro> saldosPendentes = new ConcurrentLinkedQueue<>();
+    private volatile boolean saldosDesatualizados; // Os saldos mudaram sem aviso por cliente: reconstruir antes de usar o índice.
+
+    public IndiceOrdenacao(ToLongFunction<Cliente> saldoDe) {
+        this.saldoDe = saldoDe;
+    }
+
+    // Acrescenta o cliente aos índices, depois de todos os atuais nos empates.
+    public synchronized void adicionar(Cliente cliente) {
+        Registro r = new Registro();
+        long sequencia = proximaSequencia++;
+        r.nome = new EntradaTexto(cliente.getNome(), sequencia, cliente);
+        r.sobrenome = new EntradaTexto(cliente.getSobrenome(), sequencia, cliente);
+        registros.put(cliente.getCpf(), r); // Antes de ler o saldo: uma mudança depois da leitura já acha o registro.
+        r.saldo = new EntradaSaldo(saldoDe.applyAsLong(cliente), sequencia, cliente);
+        porNome.adicionar(r.nome);
+        porSobrenome.adicionar(r.sobrenome);
+        porSaldo.adicionar(r.saldo);
+    }
+
+    // Acrescenta vários clientes (importação em lote), na ordem da lista. As entradas de cada índice
+    // são ordenadas antes de entrar na árvore, então as inserções seguidas passam pelos mesmos nós.
+    public synchronized void adicionarLote(List<Cliente> novos) {
+        int n = novos.size();
+        EntradaTexto[] nomes = new EntradaTexto[n];
+        EntradaTexto[] sobrenomes = new EntradaTexto[n];
+        EntradaSaldo[] saldos = new EntradaSaldo[n];
+        Registro[] novosRegistros = new Registro[n];
+        for (int i = 0; i < n; i++) {
+            Cliente c = novos.get(i);
+            long sequencia = proximaSequencia++;
+            Registro r = new Registro();
+            r.nome = nomes[i] = new EntradaTexto(c.getNome(), sequencia, c);
+            r.sobrenome = sobrenomes[i] = new EntradaTexto(c.getSobrenome(), sequencia, c);
+            registros.put(c.getCpf(), r);
+            novosRegistros[i] = r;
+        }
+        for (int i = 0; i < n; i++) {
+            Registro r = novosRegistros[i];
+            r.saldo = saldos[i] = new EntradaSaldo(saldoDe.applyAsLong(r.nome.cliente), r.nome.sequencia, r.nome.cliente);
+        }
+        Arrays.sort(nomes, POR_TEXTO);
+        Arrays.sort(sobrenomes, POR_TEXTO);
+        Arrays.sort(saldos, POR_SALDO_DECRESCENTE);
+        for (int i = 0; i < n; i++) {
+            porNome.adicionar(nomes[i]);
+            porSobrenome.adicionar(sobrenomes[i]);
+            porSaldo.adicionar(saldos[i]);
+        }
+    }
+
+    // Tira o cliente dos índices.
+    public synchronized void remover(Cliente cliente) {
+        Registro r = registros.remove(cliente.getCpf());
+        if (r == null) {
+            return;
+        }
+        synchronized (r) {
+            r.removido = true; // Se ainda estiver na fila de pendentes, é ignorado lá.
+        }
+        porNome.remover(r.nome);
+        porSobrenome.remover(r.sobrenome);
+        porSaldo.remover(r.saldo);
+    }
+
+    // Reposiciona o cliente nos índices de nome e sobrenome, se esses campos mudaram.
+    public synchronized void atualizarTexto(Cliente cliente) {
+        Registro r = registros.get(cliente.getCpf());
+        if (r == null) {
+            return;
+        }
+        if (!r.nome.chave.equals(cliente.getNome())) {
+            porNome.remover(r.nome);
+            r.nome = new EntradaTexto(cliente.getNome(), r.nome.sequencia, cliente);
+            porNome.adicionar(r.nome);
+        }
+        if (!r.sobrenome.chave.equals(cliente.getSobrenome())) {
+            porSobrenome.remover(r.sobrenome);
+            r.sobrenome = new EntradaTexto(cliente.getSobrenome(), r.sobrenome.sequencia, cliente);
+            porSobrenome.adicionar(r.sobrenome);
+        }
+    }
+
+    // Marca o saldo do cliente como mudado. Pode ser chamado por qualquer thread e não espera o monitor do índice:
+    // a entrada é refeita quando o índice de saldo for usado (ver aplicarSaldosPendentes).
+    public void atualizarSaldo(Cliente cliente) {
+        Registro r = registros.get(cliente.getCpf());
+        if (r == null) {
+            return;
+        }
+        synchronized (r) {
+            if (r.removido || r.pendente) {
+                return;
+            }
+            r.pendente = true;
+        }
+        saldosPendentes.add(r);
+    }
+
+    // Refaz as entradas dos clientes marcados por atualizarSaldo. Chamado sob o monitor do índice.
+    // Só os que já estavam na fila: os marcados durante a aplicação ficam para o próximo uso
+    // (senão, com os saldos mudando sem parar, a fila nunca esvaziaria).
+    private void aplicarSaldosPendentes() {
+        for (int restantes = saldosPendentes.size(); restantes > 0; restantes--) {
+            Registro r = saldosPendentes.poll();
+            synchronized (r) {
+                r.pendente = false; // Antes de ler o saldo: uma mudança durante a leitura marca o registro de novo.
+                if (r.removido) {
+                    continue;
+                }
+            }
+            long saldo = saldoDe.applyAsLong(r.saldo.cliente);
+            if (saldo != r.saldo.saldo) {
+                porSaldo.remover(r.saldo);
+                r.saldo = new EntradaSaldo(saldo, r.saldo.sequencia, r.saldo.cliente);
+                porSaldo.adicionar(r.saldo);
+            }
+        }
+    }
+
+    // Reconstrói o índice de saldo lendo o saldo de todos os clientes (ex: depois de carregar as contas
+    // ou de remunerar todas). As entradas são lidas e ordenadas em paralelo e a árvore é montada já em ordem.
+    public synchronized void reconstruirSaldos() {
+        saldosDesatualizados = false; // Antes de ler: uma invalidação que chegue durante a leitura vale para a próxima.
+        Registro pendente;
+        while ((pendente = saldosPendentes.poll()) != null) {
+            synchronized (pendente) {
+                pendente.pendente = false; // Os saldos de todos são lidos abaixo.
+            }
+        }
+        Registro[] todos = registros.values().toArray(new Registro[0]);
+        EntradaSaldo[] entradas = new EntradaSaldo[todos.length];
+        Arrays.parallelSetAll(entradas, i -> {
+            EntradaSaldo antiga = todos[i].saldo;
+            EntradaSaldo nova = new EntradaSaldo(saldoDe.applyAsLong(antiga.cliente), antiga.sequencia, antiga.cliente);
+            todos[i].saldo = nova; // Só esta reconstrução mexe no registro: as outras alterações esperam o monitor.
+            return nova;
+        });
+        Arrays.parallelSort(entradas, POR_SALDO_DECRESCENTE);
+        porSaldo = ArvoreOrdenada.montar(POR_SALDO_DECRESCENTE, entradas); // Visões já criadas continuam na versão antiga.
+    }
+
+    // Marca o índice de saldo como desatualizado (ex: remuneração sob demanda publicada). Custa O(1):
+    // a reconstrução, que lê o saldo de todos os clientes, fica para o próximo uso do índice.
+    public void invalidarSaldos() {
+        saldosDesatualizados = true;
+    }
+
+    // Índice de saldo em dia: reconstruído se estiver desatualizado, ou com os saldos pendentes aplicados.
+    // Chamado sob o monitor do índice.
+    private ArvoreOrdenada<EntradaSaldo> porSaldoEmDia() {
+        if (saldosDesatualizados) {
+            reconstruirSaldos();
+        } else {
+            aplicarSaldosPendentes();
+        }
+        return porSaldo;
+    }
+
+    // Substitui o conteúdo pelos clientes informados, com a sequência na ordem do array.
+    public synchronized void reconstruir(Cliente[] clientes) {
+        limpar();
+        EntradaTexto[] nomes = new EntradaTexto[clientes.length];
+        EntradaTexto[] sobrenomes = new EntradaTexto[clientes.length];
+        for (int i = 0; i < clientes.length; i++) {
+            Cliente c = clientes[i];
+            Registro r = new Registro();
+            long sequencia = proximaSequencia++;
+            r.nome = nomes[i] = new EntradaTexto(c.getNome(), sequencia, c);
+            r.sobrenome = sobrenomes[i] = new EntradaTexto(c.getSobrenome(), sequencia, c);
+            r.saldo = new EntradaSaldo(0, sequencia, c); // O saldo de verdade é lido em reconstruirSaldos.
+            registros.put(c.getCpf(), r);
+        }
+        Arrays.parallelSort(nomes, POR_TEXTO);
+        Arrays.parallelSort(sobrenomes, POR_TEXTO);
+        porNome = ArvoreOrdenada.montar(POR_TEXTO, nomes);
+        porSobrenome = ArvoreOrdenada.montar(POR_TEXTO, sobrenomes);
+        reconstruirSaldos();
+    }
+
+    // Esvazia os índices.
+    public synchronized void limpar() {
+        for (Registro r : registros.values()) {
+            synchronized (r) {
+                r.removido = true; // Atualizações de saldo atrasadas não voltam a enfileirá-lo.
+            }
+        }
+        registros.clear();
+        saldosPendentes.clear();
+        porNome = new ArvoreOrdenada<>(POR_TEXTO);
+        porSobrenome = new ArvoreOrdenada<>(POR_TEXTO);
+        porSaldo = new ArvoreOrdenada<>(POR_SALDO_DECRESCENTE);
+        proximaSequencia = 0;
+    }
+
+    // Quantidade de clientes nos índices.
+    public int tamanho() {
+        return registros.size();
+    }
+
+    // Lista dos clientes na ordem do campo, congelada no instante da chamada (ver VisaoOrdenada).
+    public synchronized List<Cliente> visao(Campo campo) {
+        return new VisaoOrdenada(arvore(campo).congelar());
+    }
+
+    // Índice do campo, já em dia. Chamado sob o monitor do índice.
+    private ArvoreOrdenada<? extends Entrada> arvore(Campo campo) {
+        switch (campo) {
+            case NOME: return porNome;
+            case SOBRENOME: return porSobrenome;
+            default: return porSaldoEmDia();
+        }
+    }
+
+    // Página da ordem do campo: até 'tamanho' clientes depois do cursor (null = do início).
+    // A posição do cursor é achada pela contagem dos nós da árvore, então custa O(log n + tamanho),
+    // e a página inteira é lida sob o monitor do índice (uma ordem só, sem repetidos).
+    // Se a chave de um cliente mudar entre duas páginas, ele pode aparecer de novo ou ficar de fora.
+    public synchronized Pagina<Cliente> pagina(Campo campo, String cursor, int tamanho) {
+        switch (campo) {
+            case NOME:
+                return paginar(porNome, cursor == null ? null : entradaTexto(cursor), tamanho, e -> e.sequencia + ":" + e.chave);
+            case SOBRENOME:
+                return paginar(porSobrenome, cursor == null ? null : entradaTexto(cursor), tamanho, e -> e.sequencia + ":" + e.chave);
+            default:
+                return paginar(porSaldoEmDia(), cursor == null ? null : entradaSaldo(cursor), tamanho, e -> e.sequencia + ":" + e.saldo);
+        }
+    }
+
+    private static <E extends Entrada> Pagina<Cliente> paginar(ArvoreOrdenada<E> indice, E depoisDe, int tamanho, Function<E, String> cursorDe) {
+        int inicio = depoisDe == null ? 0 : indice.posicaoApos(depoisDe);
+        List<E> entradas = new ArrayList<>(tamanho);
+        indice.percorrer(inicio, tamanho, entradas::add);
+        List<Cliente> itens = new ArrayList<>(entradas.size());
+        for (E e : entradas) {
+            itens.add(e.cliente);
+        }
+        boolean temMais = inicio + entradas.size() < indice.tamanho();
+        return new Pagina<>(itens, !entradas.isEmpty() && temMais ? cursorDe.apply(entradas.get(entradas.size() - 1)) : null);
+    }
+
+    // O cursor é "sequência:chave" da última entrada da página. A entrada montada a partir dele serve só
+    // de ponto de partida na busca (não precisa estar no conjunto).
+    private static EntradaTexto entradaTexto(String cursor) {
+        int separador = cursor.indexOf(':');
+        return new EntradaTexto(cursor.substring(separador + 1), sequenciaDoCursor(cursor, separador), null);
+    }
+
+    private static EntradaSaldo entradaSaldo(String cursor) {
+        int separador = cursor.indexOf(':');
+        try {
+            return new EntradaSaldo(Long.parseLong(cursor.substring(separador + 1)), sequenciaDoCursor(cursor, separador), null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+
+    private static long sequenciaDoCursor(String cursor, int separador) {
+        try {
+            return Long.parseLong(cursor.substring(0, Math.max(0, separador)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+
+    // Lista sobre uma versão congelada de um índice: o tamanho é exato, get(i) acha a posição pela contagem
+    // dos nós (O(log n)) e a ordem não muda enquanto a visão é lida, mesmo que o índice mude.
+    private static final class VisaoOrdenada extends AbstractList<Cliente> implements RandomAccess {
+        private final ArvoreOrdenada<? extends Entrada> versao;
+
+        VisaoOrdenada(ArvoreOrdenada<? extends Entrada> versao) {
+            this.versao = versao;
+        }
+
+        @Override
+        public int size() {
+            return versao.tamanho();
+        }
+
+        @Override
+        public Cliente get(int posicao) {
+            return versao.get(posicao).cliente;
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package banco.negocio;
+
+import banco.modelo.Cliente;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Índice invertido de trigramas (sequências de 3 caracteres) sobre nome, sobrenome, RG e CPF.
+// Para cada trigrama guardamos a lista ordenada de ids dos clientes que o contêm.
+// Uma busca por substring intersecta as listas dos trigramas do termo, então o custo
+// depende do tamanho das listas envolvidas e não do total de clientes.
+// Os ids são dados em ordem de inserção, portanto o resultado sai na mesma ordem da lista de clientes.
+// A remoção só marca o id como removido (O(1)); os ids mortos ficam nas listas até a compactação
+// (precisaCompactar/compactar), e as buscas os ignoram.
+public class IndiceTrigramas {
+
+    private static final int TAMANHO_GRAMA = 3; // Termos menores que isso não podem usar o índice.
+    private static final char SEPARADOR = '\n'; // Separa os campos no texto indexado; trigramas com ele são ignorados.
+    private static final int TAMANHO_MINIMO_FATIA = 16_384; // Na reconstrução, fatias menores não compensam uma tarefa.
+    private static final int GRUPOS = 64; // Na reconstrução, as listas são juntadas em paralelo por grupo de trigramas.
+
+    private final Map<Long, ListaIds> postagens; // Trigrama (3 chars em um long) -> ids que o contêm.
+    private final Map<Cliente, Integer> ids; // Cliente -> id interno.
+    private Cliente[] clientesPorId; // Id interno -> cliente (null se removido).
+    private String[] textosPorId; // Id interno -> texto que foi indexado (necessário para desindexar).
+    private int proximoId;
+    private int removidos; // Ids removidos que ainda aparecem nas listas de postagem.
+
+    // Construtor. Inicializa o índice vazio.
+    public IndiceTrigramas() {
+        this.postagens = new HashMap<>();
+        this.ids = new HashMap<>();
+        this.clientesPorId = new Cliente[16];
+        this.textosPorId = new String[16];
+    }
+
+    // Indexa um novo cliente.
+    public void adicionar(Cliente cliente) {
+        if (proximoId == clientesPorId.length) {
+            clientesPorId = Arrays.copyOf(clientesPorId, proximoId * 2);
+            textosPorId = Arrays.copyOf(textosPorId, proximoId * 2);
+        }
+        int id = proximoId++;
+        ids.put(cliente, id);
+        clientesPorId[id] = cliente;
+        indexar(id, textoIndexavel(cliente));
+    }
+
+    // Remove o cliente do índice. As listas de postagem não são alteradas: o id fica marcado como removido.
+    public void remover(Cliente cliente) {
+        Integer id = ids.remove(cliente);
+        if (id == null) {
+            return;
+        }
+        clientesPorId[id] = null;
+        textosPorId[id] = null;
+        removidos++;
+    }
+
+    // Retorna true se os ids removidos passaram de 1/4 dos ids vivos.
+    public boolean precisaCompactar() {
+        return removidos > 0 && removidos * 4L > ids.size();
+    }
+
+    // Tira os ids removidos de todas as listas de postagem (uma passada pelo índice inteiro).
+    public void compactar() {
+        if (removidos == 0) {
+            return;
+        }
+        postagens.values().removeIf(lista -> lista.filtrar(clientesPorId) == 0); // Não guarda listas vazias.
+        removidos = 0;
+    }
+
+    // Reindexa o cliente após a alteração de algum campo. Mantém o id (e, portanto, a posição na ordem).
+    public void atualizar(Cliente cliente) {
+        Integer id = ids.get(cliente);
+        if (id == null) {
+            return;
+        }
+        String novoTexto = textoIndexavel(cliente);
+        if (novoTexto.equals(textosPorId[id])) {
+            return; // Nenhum campo indexado mudou (ex: só o endereço).
+        }
+        desindexar(id);
+        indexar(id, novoTexto);
+    }
+
+    // Remove todos os clientes do índice.
+    public void limpar() {
+        postagens.clear();
+        ids.clear();
+        Arrays.fill(clientesPorId, null);
+        Arrays.fill(textosPorId, null);
+        proximoId = 0;
+        removidos = 0;
+    }
+
+    // Reconstrói o índice inteiro para os clientes informados (ids na ordem do array), em paralelo.
+    // Cada fatia de clientes monta suas próprias listas; como as fatias têm ids crescentes,
+    // juntar as listas de um trigrama é só concatená-las na ordem das fatias.
+    @SuppressWarnings("unchecked")
+    public void reconstruir(Cliente[] novos) {
+        int n = novos.length;
+        postagens.clear();
+        ids.clear();
+        clientesPorId = Arrays.copyOf(novos, Math.max(16, n));
+        textosPorId = new String[clientesPorId.length];
+        proximoId = n;
+        removidos = 0;
+
+        // O mapa cliente -> id não depende dos trigramas: é montado ao mesmo tempo por outra thread.
+        CompletableFuture<Void> mapaIds = CompletableFuture.runAsync(() -> {
+            for (int id = 0; id < n; id++) {
+                ids.put(novos[id], id);
+            }
+        });
+
+        int fatias = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, n / TAMANHO_MINIMO_FATIA));
+        List<List<Map<Long, ListaIds>>> parciais = IntStream.range(0, fatias).parallel().mapToObj(f -> {
+            List<Map<Long, ListaIds>> grupos = new ArrayList<>(GRUPOS);
+            for (int g = 0; g < GRUPOS; g++) {
+                grupos.add(new HashMap<>());
+            }
+            int fim = (int) ((long) n * (f + 1) / fatias);
+            for (int id = (int) ((long) n * f / fatias); id < fim; id++) {
+                String texto = textoIndexavel(novos[id]);
+                textosPorId[id] = texto;
+                long[] gramas = trigramas(texto);
+                if (gramas != null) {
+                    for (long grama : gramas) {
+                        grupos.get(grupo(grama)).computeIfAbsent(grama, x -> new ListaIds()).adicionar(id);
+                    }
+                }
+            }
+            return grupos;
+        }).collect(Collectors.toList()); // Na ordem das fatias.
+
+        List<Map<Long, ListaIds>> juntos = IntStream.range(0, GRUPOS).parallel().mapToObj(g -> {
+            Map<Long, ListaIds> grupo = parciais.get(0).get(g);
+            for (int f = 1; f < fatias; f++) {
+                for (Map.Entry<Long, ListaIds> e : parciais.get(f).get(g).entrySet()) {
+                    ListaIds atual = grupo.putIfAbsent(e.getKey(), e.getValue());
+                    if (atual != null) {
+                        atual.anexar(e.getValue()); // Os ids da fatia f são maiores que todos os anteriores.
+                    }
+                }
+            }
+            return grupo;
+        }).collect(Collectors.toList());
+        for (Map<Long, ListaIds> grupo : juntos) {
+            postagens.putAll(grupo);
+        }
+        mapaIds.join();
+    }
+
+    // Grupo do trigrama na reconstrução paralela.
+    private static int grupo(long grama) {
+        return (int) ((grama ^ (grama >>> 17) ^ (grama >>> 33)) & (GRUPOS - 1));
+    }
+
+    // Retorna os clientes candidatos a conter o termo (já em minúsculas), em ordem de inserção.
+    // Os candidatos contêm todos os trigramas do termo, mas ainda precisam ser conferidos pelo chamador.
+    // Retorna null se o termo for curto demais para usar o índice.
+    public List<Cliente> candidatos(String termoMinusculo) {
+        long[] gramas = trigramas(termoMinusculo);
+        if (gramas == null) {
+            return null;
+        }
+
+        // Junta as listas de postagem, começando pela menor para reduzir o trabalho da interseção.
+        ListaIds[] listas = new ListaIds[gramas.length];
+        for (int i = 0; i < gramas.length; i++) {
+            listas[i] = postagens.get(gramas[i]);
+            if (listas[i] == null) {
+                return new ArrayList<>(); // Algum trigrama não aparece em ninguém.
+            }
+        }
+        Arrays.sort(listas, (a, b) -> Integer.compare(a.tamanho, b.tamanho));
+
+        int[] resultado = Arrays.copyOf(listas[0].dados, listas[0].tamanho);
+        int tamanho = resultado.length;
+        for (int i = 1; i < listas.length && tamanho > 0; i++) {
+            tamanho = intersectar(resultado, tamanho, listas[i]);
+        }
+
+        List<Cliente> candidatos = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            Cliente c = clientesPorId[resultado[i]];
+            if (c != null) { // Id removido ainda não compactado.
+                candidatos.add(c);
+            }
+        }
+        return candidatos;
+    }
+
+    // Trecho de uma varredura paginada dos candidatos (ver candidatosApos).
+    static final class Trecho {
+        final int[] ids; // Ids candidatos, em ordem crescente (podem incluir ids removidos).
+        final int quantidade;
+        final int ultimoExaminado; // A próxima varredura continua depois deste id.
+        final boolean fim; // Não há candidatos depois de ultimoExaminado.
+
+        Trecho(int[] ids, int quantidade, int ultimoExaminado, boolean fim) {
+            this.ids = ids;
+            this.quantidade = quantidade;
+            this.ultimoExaminado = ultimoExaminado;
+            this.fim = fim;
+        }
+    }
+
+    // Versão paginada de candidatos: procura os candidatos com id maior que aposId, examinando no máximo
+    // 'maximo' ids da menor lista de postagem, então o custo de cada trecho não depende do total de clientes.
+    // Retorna null se o termo for curto demais para usar o índice.
+    Trecho candidatosApos(String termoMinusculo, int aposId, int maximo) {
+        long[] gramas = trigramas(termoMinusculo);
+        if (gramas == null) {
+            return null;
+        }
+        ListaIds[] listas = new ListaIds[gramas.length];
+        for (int i = 0; i < gramas.length; i++) {
+            listas[i] = postagens.get(gramas[i]);
+            if (listas[i] == null) {
+                return new Trecho(new int[0], 0, aposId, true); // Algum trigrama não aparece em ninguém.
+            }
+        }
+        Arrays.sort(listas, (a, b) -> Integer.compare(a.tamanho, b.tamanho));
+
+        // Nas listas, a varredura começa no primeiro id depois de aposId (busca binária).
+        int[] posicoes = new int[listas.length];
+        for (int k = 0; k < listas.length; k++) {
+            int pos = Arrays.binarySearch(listas[k].dados, 0, listas[k].tamanho, aposId);
+            posicoes[k] = pos >= 0 ? pos + 1 : -pos - 1;
+        }
+        ListaIds menor = listas[0];
+        int fimVarredura = (int) Math.min(menor.tamanho, (long) posicoes[0] + maximo);
+        int[] ids = new int[fimVarredura - posicoes[0]];
+        int quantidade = 0;
+        for (int i = posicoes[0]; i < fimVarredura; i++) {
+            int id = menor.dados[i];
+            boolean emTodas = true;
+            for (int k = 1; k < listas.length && emTodas; k++) {
+                int pos = Arrays.binarySearch(listas[k].dados, posicoes[k], listas[k].tamanho, id);
+                emTodas = pos >= 0;
+                posicoes[k] = emTodas ? pos + 1 : -pos - 1; // Os próximos ids são maiores.
+            }
+            if (emTodas) {
+                ids[quantidade++] = id;
+            }
+        }
+        int ultimo = fimVarredura > posicoes[0] ? menor.dados[fimVarredura - 1] : aposId;
+        return new Trecho(ids, quantidade, ultimo, fimVarredura == menor.tamanho);
+    }
+
+    // Id interno do cliente (a ordem de inserção), ou -1 se ele não estiver no índice.
+    public int id(Cliente cliente) {
+        Integer id = ids.get(cliente);
+        return id != null ? id : -1;
+    }
+
+    // Cliente com o id interno, ou null se ele foi removido.
+    public Cliente cliente(int id) {
+        return id >= 0 && id < proximoId ? clientesPorId[id] : null;
+    }
+
+    // Mantém em resultado[0..tamanho) apenas os ids que também estão em lista. Retorna o novo tamanho.
+    // Como resultado é a lista menor, cada id é procurado na maior por busca binária.
+    private static int intersectar(int[] resultado, int tamanho, ListaIds lista) {
+        int escritos = 0;
+        int inicio = 0;
+        for (int i = 0; i < tamanho; i++) {
+            int pos = Arrays.binarySearch(lista.dados, inicio, lista.tamanho, resultado[i]);
+            if (pos >= 0) {
+                resultado[escritos++] = resultado[i];
+                inicio = pos + 1;
+            } else {
+                inicio = -pos - 1; // Os próximos ids são maiores, então a busca continua daqui.
+            }
+        }
+        return escritos;
+    }
+
+    // Adiciona o id às listas de todos os trigramas do texto.
+    private void indexar(int id, String texto) {
+        textosPorId[id] = texto;
+        long[] gramas = trigramas(texto);
+        if (gramas == null) {
+            return;
+        }
+        for (long grama : gramas) {
+            postagens.computeIfAbsent(grama, g -> new ListaIds()).adicionar(id);
+        }
+    }
+
+    // Retira o id das listas de todos os trigramas do texto indexado anteriormente.
+    private void desindexar(int id) {
+        long[] gramas = trigramas(textosPorId[id]);
+        textosPorId[id] = null;
+        if (gramas == null) {
+            return;
+        }
+        for (long grama : gramas) {
+            ListaIds lista = postagens.get(grama);
+            if (lista != null && lista.remover(id) && lista.tamanho == 0) {
+                postagens.remove(grama); // Não guarda listas vazias.
+            }
+        }
+    }
+
+    // Monta o texto indexado do cliente: os quatro campos de busca em minúsculas, separados.
+    private static String textoIndexavel(Cliente c) {
+        return c.getNome().toLowerCase() + SEPARADOR + c.getSobrenome().toLowerCase() + SEPARADOR
+                + c.getRg().toLowerCase() + SEPARADOR + c.getCpf().toLowerCase();
+    }
+
+    // Extrai os trigramas distintos do texto, ignorando os que atravessam o separador de campos.
+    // Retorna null se o texto não tiver nenhum trigrama.
+    private static long[] trigramas(String texto) {
+        if (texto == null || texto.length() < TAMANHO_GRAMA) {
+            return null;
+        }
+        long[] gramas = new long[texto.length() - TAMANHO_GRAMA + 1];
+        int n = 0;
+        for (int i = 0; i + TAMANHO_GRAMA <= texto.length(); i++) {
+            char a = texto.charAt(i), b = texto.charAt(i + 1), c = texto.charAt(i + 2);
+            if (a == SEPARADOR || b == SEPARADOR || c == SEPARADOR) {
+                continue;
+            }
+            gramas[n++] = ((long) a << 32) | ((long) b << 16) | c; // Cada char ocupa 16 bits.
+        }
+        if (n == 0) {
+            return null;
+        }
+        Arrays.sort(gramas, 0, n);
+        int distintos = 1;
+        for (int i = 1; i < n; i++) {
+            if (gramas[i] != gramas[distintos - 1]) {
+                gramas[distintos++] = gramas[i];
+            }
+        }
+        return Arrays.copyOf(gramas, distintos);
+    }
+
+    // Lista de postagem: ids em ordem crescente, guardados em um int[] sem objetos por entrada.
+    private static class ListaIds {
+        private int[] dados = new int[4];
+        private int tamanho;
+
+        // Insere o id mantendo a ordem (na prática quase sempre vai para o final).
+        void adicionar(int id) {
+            if (tamanho > 0 && dados[tamanho - 1] >= id) {
+                int pos = Arrays.binarySearch(dados, 0, tamanho, id);
+                if (pos >= 0) {
+                    return; // Já está na lista.
+                }
+                inserirEm(-pos - 1, id);
+                return;
+            }
+            inserirEm(tamanho, id);
+        }
+
+        // Acrescenta ao final todos os ids da outra lista, que devem ser maiores que os desta.
+        void anexar(ListaIds outra) {
+            if (tamanho + outra.tamanho > dados.length) {
+                dados = Arrays.copyOf(dados, Math.max(tamanho + outra.tamanho, dados.length * 2));
+            }
+            System.arraycopy(outra.dados, 0, dados, tamanho, outra.tamanho);
+            tamanho += outra.tamanho;
+        }
+
+        // Mantém só os ids cujo cliente ainda existe. Retorna o novo tamanho.
+        int filtrar(Cliente[] clientesPorId) {
+            int escritos = 0;
+            for (int i = 0; i < tamanho; i++) {
+                if (clientesPorId[dados[i]] != null) {
+                    dados[escritos++] = dados[i];
+                }
+            }
+            tamanho = escritos;
+            return escritos;
+        }
+
+        // Remove o id. Retorna true se ele estava na lista.
+        boolean remover(int id) {
+            int pos = Arrays.binarySearch(dados, 0, tamanho, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(dados, pos + 1, dados, pos, tamanho - pos - 1);
+            tamanho--;
+            return true;
+        }
+
+        private void inserirEm(int pos, int id) {
+            if (tamanho == dados.length) {
+                dados = Arrays.copyOf(dados, tamanho * 2);
+            }
+            System.arraycopy(dados, pos, dados, pos + 1, tamanho - pos);
+            dados[pos] = id;
+            tamanho++;
+        }
+    }
+}
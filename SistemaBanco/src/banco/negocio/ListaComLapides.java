@@ -0,0 +1,350 @@
+package banco.negocio;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lista em que a remoção não desloca os itens: o item removido vira uma lápide (null) no lugar onde estava.
+// Com isso remover um item (achado pela tabela de posições, por identidade) custa O(1) mais O(log32 n)
+// do vetor persistente, em vez do O(n) do ArrayList.remove.
+//
+// Os itens ficam num VetorPersistente, que conta os vivos em cada ramo: a posição lógica i (ignorando as lápides)
+// é achada em O(log32 n) (get) e a posição lógica de um item também (indexOf). Acessos sequenciais
+// (get(i), get(i + 1), ...) continuam de onde o anterior parou.
+//
+// instantaneo() devolve em O(1) uma versão imutável da lista, que compartilha a estrutura com ela: as alterações
+// seguintes copiam só os nós que tocam, então a versão pode ser percorrida por quanto tempo for preciso
+// (relatórios, a tabela da tela, a gravação do instantâneo em disco) sem trava e sem ver alterações pela metade.
+//
+// Quando as lápides passam de 1/4 das posições, precisaCompactar() indica que vale chamar compactar(),
+// que o gerenciador roda em segundo plano (com a sua trava de escrita).
+// Não é thread-safe para alterações: o dono da lista as faz sob a sua própria trava.
+public class ListaComLapides<T> extends AbstractList<T> {
+
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    // Versão imutável da lista num momento. Leituras em qualquer thread; alterações lançam UnsupportedOperationException.
+    public static final class Versao<T> extends AbstractList<T> {
+
+        private final VetorPersistente vetor;
+        private final long numero;
+        private final ListaComLapides<T> origem;
+        private volatile long cursor = -1;
+
+        private Versao(VetorPersistente vetor, long numero, ListaComLapides<T> origem) {
+            this.vetor = vetor;
+            this.numero = numero;
+            this.origem = origem;
+        }
+
+        // Número da versão: uma versão tirada depois de outra (de qualquer lista) tem número maior.
+        public long getNumero() {
+            return numero;
+        }
+
+        @Override
+        public int size() {
+            return vetor.vivos();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int indice) {
+            verificarIndice(vetor, indice);
+            long novo = localizar(vetor, indice, cursor);
+            cursor = novo;
+            return (T) vetor.get((int) novo);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return iterador(vetor);
+        }
+    }
+
+    private VetorPersistente vetor;
+    private volatile long cursor = -1; // Último acesso: posição lógica (32 bits altos) e posição no vetor (baixos).
+    private boolean alterada = true; // Houve alteração desde a última versão tirada.
+    private Versao<T> ultimaVersao;
+    private static final AtomicLong PROXIMA_VERSAO = new AtomicLong(); // Números crescentes entre listas (ex: após carregar).
+
+    // Posição de cada item no vetor, por identidade (endereçamento aberto, como o MapaCpf).
+    private Object[] chaves;
+    private int[] posicoes;
+    private int quantidadeChaves;
+
+    public ListaComLapides() {
+        this(new Object[0]);
+    }
+
+    // Cria a lista já com os itens do array (ex: carga de um instantâneo), sem lápides.
+    public ListaComLapides(Object[] iniciais) {
+        vetor = montar(iniciais, iniciais.length);
+        reconstruirPosicoes(iniciais, iniciais.length);
+    }
+
+    @Override
+    public int size() {
+        return vetor.vivos();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int indice) {
+        VetorPersistente v = vetor;
+        verificarIndice(v, indice);
+        long novo = localizar(v, indice, cursor);
+        cursor = novo;
+        return (T) v.get((int) novo);
+    }
+
+    // Acrescenta o item ao final. O mesmo objeto não deve ser adicionado duas vezes.
+    @Override
+    public boolean add(T item) {
+        int posicao = vetor.tamanho();
+        vetor.acrescentar(item);
+        definirPosicao(item, posicao);
+        alterada = true;
+        return true;
+    }
+
+    // Remove o item (procurado por identidade) deixando uma lápide. Retorna false se ele não estava na lista.
+    @Override
+    public boolean remove(Object item) {
+        int posicao = posicaoDe(item);
+        if (posicao < 0) {
+            return false;
+        }
+        vetor.definir(posicao, null);
+        cursor = -1;
+        removerPosicao(item);
+        alterada = true;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object item) {
+        return posicaoDe(item) >= 0;
+    }
+
+    // Posição lógica do item (procurado por identidade), ou -1.
+    @Override
+    public int indexOf(Object item) {
+        int posicao = posicaoDe(item);
+        return posicao < 0 ? -1 : vetor.vivosAntes(posicao);
+    }
+
+    @Override
+    public int lastIndexOf(Object item) {
+        return indexOf(item); // Um objeto só aparece uma vez.
+    }
+
+    @Override
+    public void clear() {
+        vetor = new VetorPersistente();
+        cursor = -1;
+        reconstruirPosicoes(new Object[0], 0);
+        alterada = true;
+    }
+
+    // Percorre o vetor pulando as lápides (sem passar pelas contagens).
+    @Override
+    public Iterator<T> iterator() {
+        return iterador(vetor);
+    }
+
+    // Versão imutável do estado atual, em O(1). Se nada mudou desde a última chamada, devolve a mesma versão.
+    public synchronized Versao<T> instantaneo() {
+        if (alterada) {
+            ultimaVersao = new Versao<>(vetor.congelar(), PROXIMA_VERSAO.incrementAndGet(), this);
+            alterada = false;
+        }
+        return ultimaVersao;
+    }
+
+    // Retorna true se a lista for esta própria lista ou uma versão tirada dela (por instantaneo()).
+    public boolean ehDestaLista(List<?> lista) {
+        return lista == this || (lista instanceof Versao && ((Versao<?>) lista).origem == this);
+    }
+
+    // Quantidade de lápides ainda não compactadas.
+    public int getLapides() {
+        return vetor.tamanho() - vetor.vivos();
+    }
+
+    // Retorna true se as lápides passaram de 1/4 das posições usadas.
+    public boolean precisaCompactar() {
+        int lapides = getLapides();
+        return lapides > 0 && lapides * 4L > vetor.tamanho();
+    }
+
+    // Remove as lápides, montando um vetor novo só com os itens vivos (na mesma ordem).
+    // A ordem lógica não muda: get(i) devolve o mesmo item antes e depois, e as versões já tiradas continuam valendo.
+    public void compactar() {
+        if (getLapides() == 0) {
+            return;
+        }
+        Object[] itens = toArray();
+        vetor = montar(itens, itens.length);
+        cursor = -1;
+        reconstruirPosicoes(itens, itens.length);
+    }
+
+    // --- Leitura compartilhada pela lista e pelas versões ---
+
+    private static VetorPersistente montar(Object[] itens, int quantidade) {
+        VetorPersistente v = new VetorPersistente();
+        for (int i = 0; i < quantidade; i++) {
+            v.acrescentar(itens[i]);
+        }
+        return v;
+    }
+
+    private static void verificarIndice(VetorPersistente v, int indice) {
+        if (indice < 0 || indice >= v.vivos()) {
+            throw new IndexOutOfBoundsException("Índice " + indice + " fora da lista de " + v.vivos() + " itens.");
+        }
+    }
+
+    // Posição no vetor do item de índice lógico indice, devolvida junto com o índice no formato do cursor.
+    private static long localizar(VetorPersistente v, int indice, long cursor) {
+        int posicao;
+        if (v.vivos() == v.tamanho()) {
+            posicao = indice; // Sem lápides: o índice é a posição.
+        } else if (cursor >= 0 && (int) (cursor >>> 32) == indice - 1 && (int) cursor < v.tamanho()) {
+            posicao = (int) cursor + 1; // Acesso sequencial: anda até o próximo vivo.
+            while (v.get(posicao) == null) {
+                posicao++;
+            }
+        } else {
+            posicao = v.selecionar(indice);
+        }
+        return ((long) indice << 32) | posicao;
+    }
+
+    // Percorre as folhas do vetor (32 posições por vez) pulando as lápides.
+    private static <T> Iterator<T> iterador(VetorPersistente v) {
+        int tamanho = v.tamanho();
+        return new Iterator<T>() {
+            private int posicao = -1;
+            private Object[] folha;
+            private Object proximo = avancar();
+
+            private Object avancar() {
+                while (++posicao < tamanho) {
+                    if ((posicao & (VetorPersistente.LARGURA - 1)) == 0 || folha == null) {
+                        folha = v.folha(posicao);
+                    }
+                    Object item = folha[posicao & (VetorPersistente.LARGURA - 1)];
+                    if (item != null) {
+                        return item;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return proximo != null;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (proximo == null) {
+                    throw new NoSuchElementException();
+                }
+                Object item = proximo;
+                proximo = avancar();
+                return (T) item;
+            }
+        };
+    }
+
+    // --- Tabela de posições por identidade ---
+
+    private static int espalhar(Object item) {
+        int h = System.identityHashCode(item) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int posicaoDe(Object item) {
+        if (item == null) {
+            return -1;
+        }
+        int mascara = chaves.length - 1;
+        for (int i = espalhar(item) & mascara; chaves[i] != null; i = (i + 1) & mascara) {
+            if (chaves[i] == item) {
+                return posicoes[i];
+            }
+        }
+        return -1;
+    }
+
+    private void definirPosicao(Object item, int posicao) {
+        if ((quantidadeChaves + 1) * 4L > chaves.length * 3L) {
+            redimensionarPosicoes(chaves.length * 2);
+        }
+        int mascara = chaves.length - 1;
+        int i = espalhar(item) & mascara;
+        while (chaves[i] != null && chaves[i] != item) {
+            i = (i + 1) & mascara;
+        }
+        if (chaves[i] == null) {
+            quantidadeChaves++;
+        }
+        chaves[i] = item;
+        posicoes[i] = posicao;
+    }
+
+    // Remoção com deslocamento para trás: mantém as sequências de sondagem sem precisar de marcadores.
+    private void removerPosicao(Object item) {
+        int mascara = chaves.length - 1;
+        int i = espalhar(item) & mascara;
+        while (chaves[i] != item) {
+            i = (i + 1) & mascara;
+        }
+        int vazio = i;
+        for (int j = (vazio + 1) & mascara; chaves[j] != null; j = (j + 1) & mascara) {
+            int ideal = espalhar(chaves[j]) & mascara;
+            // A entrada j pode ir para o buraco se o buraco estiver entre a posição ideal dela e j (circularmente).
+            if (((j - ideal) & mascara) >= ((j - vazio) & mascara)) {
+                chaves[vazio] = chaves[j];
+                posicoes[vazio] = posicoes[j];
+                vazio = j;
+            }
+        }
+        chaves[vazio] = null;
+        quantidadeChaves--;
+    }
+
+    private void reconstruirPosicoes(Object[] itens, int ocupados) {
+        int capacidade = CAPACIDADE_INICIAL;
+        while (ocupados * 4L > capacidade * 3L) {
+            capacidade *= 2;
+        }
+        chaves = new Object[capacidade];
+        posicoes = new int[capacidade];
+        quantidadeChaves = 0;
+        for (int i = 0; i < ocupados; i++) {
+            if (itens[i] != null) {
+                definirPosicao(itens[i], i);
+            }
+        }
+    }
+
+    private void redimensionarPosicoes(int capacidade) {
+        Object[] antigasChaves = chaves;
+        int[] antigasPosicoes = posicoes;
+        chaves = new Object[capacidade];
+        posicoes = new int[capacidade];
+        quantidadeChaves = 0;
+        for (int i = 0; i < antigasChaves.length; i++) {
+            if (antigasChaves[i] != null) {
+                definirPosicao(antigasChaves[i], antigasPosicoes[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package banco.negocio;
+
+import banco.modelo.ArmazemContas;
+import java.util.Arrays;
+
+// Tabela hash de endereçamento aberto cuja chave é o CPF convertido para long.
+// Como o CPF tem 11 dígitos, ele cabe em um long e dispensa objetos String/Long como chave,
+// o que deixa a busca em tempo constante mesmo com milhões de clientes.
+public class MapaCpf<V> {
+
+    private static final int CAPACIDADE_INICIAL = 16; // Sempre potência de 2 para usar máscara em vez de módulo.
+    private static final long VAZIO = 0L; // Nenhuma chave válida vale 0, pois toda chave começa com o dígito 1.
+
+    private long[] chaves; // Chaves (CPF em long) de cada posição da tabela.
+    private Object[] valores; // Valores associados a cada chave.
+    private int tamanho; // Quantidade de entradas ocupadas.
+
+    // Construtor. Inicializa a tabela vazia.
+    public MapaCpf() {
+        this.chaves = new long[CAPACIDADE_INICIAL];
+        this.valores = new Object[CAPACIDADE_INICIAL];
+    }
+
+    // Converte o CPF (apenas números) na chave numérica usada pela tabela.
+    // É a mesma chave que o ArmazemContas usa como id do dono da conta.
+    // Retorna -1 se o texto não for um CPF numérico indexável.
+    public static long chave(String cpf) {
+        return ArmazemContas.chaveCpf(cpf);
+    }
+
+    // Retorna o valor associado ao CPF ou null se não existir.
+    public V get(String cpf) {
+        long chave = chave(cpf);
+        return chave < 0 ? null : get(chave);
+    }
+
+    // Retorna o valor associado à chave numérica ou null se não existir.
+    @SuppressWarnings("unchecked")
+    public V get(long chave) {
+        int mascara = chaves.length - 1;
+        for (int i = espalhar(chave) & mascara; chaves[i] != VAZIO; i = (i + 1) & mascara) {
+            if (chaves[i] == chave) {
+                return (V) valores[i];
+            }
+        }
+        return null;
+    }
+
+    // Associa o valor ao CPF, substituindo o anterior. Retorna o valor antigo (ou null).
+    // CPFs não numéricos são ignorados e retornam null.
+    public V put(String cpf, V valor) {
+        long chave = chave(cpf);
+        return chave < 0 ? null : put(chave, valor);
+    }
+
+    // Associa o valor à chave numérica, substituindo o anterior. Retorna o valor antigo (ou null).
+    @SuppressWarnings("unchecked")
+    public V put(long chave, V valor) {
+        int mascara = chaves.length - 1;
+        int i = espalhar(chave) & mascara;
+        while (chaves[i] != VAZIO) {
+            if (chaves[i] == chave) {
+                V antigo = (V) valores[i];
+                valores[i] = valor; // Chave já existe: apenas troca o valor.
+                return antigo;
+            }
+            i = (i + 1) & mascara;
+        }
+        chaves[i] = chave;
+        valores[i] = valor;
+        if (++tamanho * 4 > chaves.length * 3) { // Mantém a ocupação abaixo de 75%.
+            redimensionar(chaves.length * 2);
+        }
+        return null;
+    }
+
+    // Remove a entrada do CPF. Retorna o valor removido ou null se não existia.
+    public V remove(String cpf) {
+        long chave = chave(cpf);
+        return chave < 0 ? null : remove(chave);
+    }
+
+    // Remove a entrada da chave numérica. Retorna o valor removido ou null se não existia.
+    // Usa deslocamento para trás, assim a tabela não acumula marcadores de exclusão.
+    @SuppressWarnings("unchecked")
+    public V remove(long chave) {
+        int mascara = chaves.length - 1;
+        int i = espalhar(chave) & mascara;
+        while (chaves[i] != chave) {
+            if (chaves[i] == VAZIO) {
+                return null; // Chegou a uma posição vazia: a chave não existe.
+            }
+            i = (i + 1) & mascara;
+        }
+        V removido = (V) valores[i];
+
+        // Puxa para trás as entradas seguintes que estariam fora do lugar sem a posição i.
+        int livre = i;
+        for (int j = (i + 1) & mascara; chaves[j] != VAZIO; j = (j + 1) & mascara) {
+            int ideal = espalhar(chaves[j]) & mascara;
+            // A entrada j só pode ocupar a posição livre se a posição ideal dela não estiver entre (livre, j].
+            if (((j - ideal) & mascara) >= ((j - livre) & mascara)) {
+                chaves[livre] = chaves[j];
+                valores[livre] = valores[j];
+                livre = j;
+            }
+        }
+        chaves[livre] = VAZIO;
+        valores[livre] = null;
+        tamanho--;
+        return removido;
+    }
+
+    // Prepara a tabela para receber a quantidade de entradas sem redimensionar no meio (carga em lote).
+    public void reservar(int quantidade) {
+        int capacidade = chaves.length;
+        while ((long) quantidade * 4 > (long) capacidade * 3) {
+            capacidade *= 2;
+        }
+        if (capacidade != chaves.length) {
+            redimensionar(capacidade);
+        }
+    }
+
+    // Retorna a quantidade de entradas.
+    public int size() {
+        return tamanho;
+    }
+
+    // Remove todas as entradas.
+    public void clear() {
+        Arrays.fill(chaves, VAZIO);
+        Arrays.fill(valores, null);
+        tamanho = 0;
+    }
+
+    // Realoca a tabela com a nova capacidade e reinsere todas as entradas.
+    private void redimensionar(int novaCapacidade) {
+        long[] chavesAntigas = chaves;
+        Object[] valoresAntigos = valores;
+        chaves = new long[novaCapacidade];
+        valores = new Object[novaCapacidade];
+        int mascara = novaCapacidade - 1;
+        for (int k = 0; k < chavesAntigas.length; k++) {
+            if (chavesAntigas[k] != VAZIO) {
+                int i = espalhar(chavesAntigas[k]) & mascara;
+                while (chaves[i] != VAZIO) {
+                    i = (i + 1) & mascara;
+                }
+                chaves[i] = chavesAntigas[k];
+                valores[i] = valoresAntigos[k];
+            }
+        }
+    }
+
+    // Mistura os bits da chave para que CPFs próximos não caiam em posições vizinhas.
+    private static int espalhar(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,63 @@
+package banco.negocio;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Métricas das operações bancárias: uma MetricasOperacao (contadores + histograma de latência) por operação.
+// Os gerenciadores registram aqui cada execução (ver setMetricas); registrarNoJmx publica cada operação
+// como um MBean "banco:type=Metricas,operacao=<nome>", para acompanhar ao vivo pelo jconsole.
+public class Metricas {
+
+    // Operações medidas.
+    public enum Operacao {
+        SACAR("sacar"),
+        DEPOSITAR("depositar"),
+        TRANSFERIR("transferir"),
+        REMUNERAR("remunerar"),
+        BUSCAR("buscar"),
+        BUSCAR_POR_CPF("buscarPorCpf"),
+        ORDENAR("ordenar");
+
+        private final String nome;
+
+        Operacao(String nome) {
+            this.nome = nome;
+        }
+
+        public String getNome() { return nome; }
+    }
+
+    private final Map<Operacao, MetricasOperacao> porOperacao = new EnumMap<>(Operacao.class);
+
+    public Metricas() {
+        for (Operacao operacao : Operacao.values()) {
+            porOperacao.put(operacao, new MetricasOperacao());
+        }
+    }
+
+    // Métricas de uma operação.
+    public MetricasOperacao get(Operacao operacao) {
+        return porOperacao.get(operacao);
+    }
+
+    // Registra uma execução da operação iniciada em 'inicio' (System.nanoTime()).
+    public void registrar(Operacao operacao, long inicio, boolean aceita) {
+        porOperacao.get(operacao).registrar(inicio, aceita);
+    }
+
+    // Publica as métricas no servidor de MBeans da plataforma (o que o jconsole enxerga).
+    public void registrarNoJmx() throws JMException {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        for (Map.Entry<Operacao, MetricasOperacao> e : porOperacao.entrySet()) {
+            ObjectName nome = new ObjectName("banco:type=Metricas,operacao=" + e.getKey().getNome());
+            if (servidor.isRegistered(nome)) {
+                servidor.unregisterMBean(nome); // Ex: uma segunda tela principal na mesma JVM.
+            }
+            servidor.registerMBean(e.getValue(), nome);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package banco.negocio;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Contadores e histograma de latência de uma operação.
+// Tudo é LongAdder: cada thread soma na sua própria célula, então registrar não disputa uma mesma
+// variável entre threads e o custo fica em alguns nanossegundos, o bastante para deixar ligado sempre.
+// O histograma tem uma faixa por potência de 2 de nanossegundos (log2), sem configuração nem alocação.
+public class MetricasOperacao implements MetricasOperacaoMBean {
+
+    private static final int FAIXAS = 64;
+
+    private final LongAdder aceitas = new LongAdder();
+    private final LongAdder recusadas = new LongAdder();
+    private final LongAdder somaNanos = new LongAdder();
+    private final LongAdder[] histograma = new LongAdder[FAIXAS];
+
+    public MetricasOperacao() {
+        for (int i = 0; i < FAIXAS; i++) {
+            histograma[i] = new LongAdder();
+        }
+    }
+
+    // Registra uma execução iniciada em 'inicio' (System.nanoTime()) e que terminou agora.
+    public void registrar(long inicio, boolean aceita) {
+        long nanos = Math.max(0, System.nanoTime() - inicio);
+        (aceita ? aceitas : recusadas).increment();
+        somaNanos.add(nanos);
+        histograma[FAIXAS - Long.numberOfLeadingZeros(nanos)].increment(); // Faixa i: menos de 2^i ns (nanos >= 0, então i <= 63).
+    }
+
+    @Override
+    public long getAceitas() { return aceitas.sum(); }
+
+    @Override
+    public long getRecusadas() { return recusadas.sum(); }
+
+    @Override
+    public long getTotal() { return getAceitas() + getRecusadas(); }
+
+    @Override
+    public double getLatenciaMediaMicros() {
+        long total = getTotal();
+        return total == 0 ? 0 : somaNanos.sum() / 1000.0 / total;
+    }
+
+    @Override
+    public double getLatenciaP50Micros() { return percentil(0.50); }
+
+    @Override
+    public double getLatenciaP99Micros() { return percentil(0.99); }
+
+    @Override
+    public double getLatenciaP999Micros() { return percentil(0.999); }
+
+    @Override
+    public long[] getHistogramaNanos() {
+        long[] contagens = new long[FAIXAS];
+        for (int i = 0; i < FAIXAS; i++) {
+            contagens[i] = histograma[i].sum();
+        }
+        return contagens;
+    }
+
+    @Override
+    public void zerar() {
+        aceitas.reset();
+        recusadas.reset();
+        somaNanos.reset();
+        for (LongAdder faixa : histograma) {
+            faixa.reset();
+        }
+    }
+
+    // Limite superior (em microssegundos) da faixa onde está o percentil p (0 a 1).
+    private double percentil(double p) {
+        long[] contagens = getHistogramaNanos();
+        long total = 0;
+        for (long c : contagens) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long alvo = (long) Math.ceil(p * total);
+        long acumulado = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= alvo) {
+                return Math.scalb(1.0, i) / 1000.0;
+            }
+        }
+        return Math.scalb(1.0, FAIXAS - 1) / 1000.0;
+    }
+}
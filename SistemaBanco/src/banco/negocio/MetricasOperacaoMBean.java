@@ -0,0 +1,30 @@
+package banco.negocio;
+
+// Interface JMX (MBean padrão) com as métricas de uma operação, visíveis no jconsole/VisualVM.
+// Latências em microssegundos; os percentis vêm do histograma em potências de 2,
+// então são o limite superior da faixa em que caem (no máximo o dobro do valor real).
+public interface MetricasOperacaoMBean {
+
+    // Operações realizadas (nas consultas: encontraram resultado ou chegaram ao fim).
+    long getAceitas();
+
+    // Operações recusadas (nas consultas: não encontraram nada ou foram canceladas).
+    long getRecusadas();
+
+    long getTotal();
+
+    double getLatenciaMediaMicros();
+
+    double getLatenciaP50Micros();
+
+    double getLatenciaP99Micros();
+
+    double getLatenciaP999Micros();
+
+    // Quantidade de operações por faixa de latência: a posição i conta as que levaram menos de 2^i nanossegundos
+    // (e pelo menos 2^(i-1)).
+    long[] getHistogramaNanos();
+
+    // Zera os contadores e o histograma.
+    void zerar();
+}
@@ -0,0 +1,118 @@
+package banco.negocio;
+
+import banco.modelo.Cliente;
+import banco.modelo.Conta;
+import java.util.ArrayList;
+import java.util.List;
+
+// Motor de ordenação de clientes usado pelo GerenciadorClientes.
+// Lê a chave de cada cliente uma única vez para um array (String[] ou long[]) e ordena
+// apenas os índices, comparando as chaves já carregadas. Assim o custo de obter a chave
+// (por exemplo, buscar o saldo da conta) é pago n vezes, e não a cada comparação.
+public class OrdenadorClientes {
+
+    private static final int LIMITE_INSERCAO = 32; // Trechos até este tamanho são ordenados por inserção.
+
+    // Compara dois índices pelas chaves pré-carregadas.
+    private interface ComparadorIndices {
+        int comparar(int a, int b);
+    }
+
+    // Classe utilitária: não deve ser instanciada.
+    private OrdenadorClientes() {
+    }
+
+    // Ordena pelo nome (mesma ordem do compareTo de Cliente).
+    public static List<Cliente> porNome(List<Cliente> lista) {
+        String[] chaves = new String[lista.size()];
+        for (int i = 0; i < chaves.length; i++) {
+            chaves[i] = lista.get(i).getNome();
+        }
+        return montar(lista, ordenarIndices(chaves.length, (a, b) -> chaves[a].compareTo(chaves[b])));
+    }
+
+    // Ordena pelo sobrenome.
+    public static List<Cliente> porSobrenome(List<Cliente> lista) {
+        String[] chaves = new String[lista.size()];
+        for (int i = 0; i < chaves.length; i++) {
+            chaves[i] = lista.get(i).getSobrenome();
+        }
+        return montar(lista, ordenarIndices(chaves.length, (a, b) -> chaves[a].compareTo(chaves[b])));
+    }
+
+    // Ordena pelo saldo da conta do cliente, do maior para o menor. Cliente sem conta tem saldo 0.
+    public static List<Cliente> porSaldoDecrescente(List<Cliente> lista, GerenciadorContas gerenciadorContas) {
+        long[] chaves = new long[lista.size()];
+        for (int i = 0; i < chaves.length; i++) {
+            Conta conta = gerenciadorContas.buscarContaPorCpfCliente(lista.get(i).getCpf()); // Uma busca por cliente.
+            chaves[i] = conta != null ? conta.getSaldo() : 0;
+        }
+        return montar(lista, ordenarIndices(chaves.length, (a, b) -> Long.compare(chaves[b], chaves[a])));
+    }
+
+    // Monta a lista de saída seguindo a ordem dos índices.
+    private static List<Cliente> montar(List<Cliente> lista, int[] ordem) {
+        List<Cliente> ordenada = new ArrayList<>(ordem.length);
+        for (int indice : ordem) {
+            ordenada.add(lista.get(indice));
+        }
+        return ordenada;
+    }
+
+    // Ordena os índices 0..n-1 com merge sort estável (empates mantêm a ordem original,
+    // como o Collections.sort usado antes).
+    private static int[] ordenarIndices(int n, ComparadorIndices cmp) {
+        int[] ordem = new int[n];
+        for (int i = 0; i < n; i++) {
+            ordem[i] = i;
+        }
+
+        // Primeiro ordena blocos pequenos por inserção.
+        for (int inicio = 0; inicio < n; inicio += LIMITE_INSERCAO) {
+            int fim = Math.min(inicio + LIMITE_INSERCAO, n);
+            for (int i = inicio + 1; i < fim; i++) {
+                int atual = ordem[i];
+                int j = i - 1;
+                while (j >= inicio && cmp.comparar(ordem[j], atual) > 0) {
+                    ordem[j + 1] = ordem[j];
+                    j--;
+                }
+                ordem[j + 1] = atual;
+            }
+        }
+
+        // Depois intercala os blocos, dobrando o tamanho a cada passada.
+        int[] origem = ordem;
+        int[] destino = new int[n];
+        for (int largura = LIMITE_INSERCAO; largura < n; largura *= 2) {
+            for (int inicio = 0; inicio < n; inicio += 2 * largura) {
+                int meio = Math.min(inicio + largura, n);
+                int fim = Math.min(inicio + 2 * largura, n);
+                intercalar(origem, destino, inicio, meio, fim, cmp);
+            }
+            int[] troca = origem;
+            origem = destino;
+            destino = troca;
+        }
+        return origem;
+    }
+
+    // Intercala os trechos ordenados [inicio, meio) e [meio, fim) de origem em destino.
+    private static void intercalar(int[] origem, int[] destino, int inicio, int meio, int fim, ComparadorIndices cmp) {
+        int i = inicio, j = meio, k = inicio;
+        if (meio >= fim || cmp.comparar(origem[meio - 1], origem[meio]) <= 0) {
+            System.arraycopy(origem, inicio, destino, inicio, fim - inicio); // Já está em ordem.
+            return;
+        }
+        while (i < meio && j < fim) {
+            // Usa <= para pegar primeiro o elemento da esquerda em caso de empate (estabilidade).
+            destino[k++] = cmp.comparar(origem[i], origem[j]) <= 0 ? origem[i++] : origem[j++];
+        }
+        while (i < meio) {
+            destino[k++] = origem[i++];
+        }
+        while (j < fim) {
+            destino[k++] = origem[j++];
+        }
+    }
+}
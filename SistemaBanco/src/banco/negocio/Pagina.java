@@ -0,0 +1,29 @@
+package banco.negocio;
+
+import java.util.Collections;
+import java.util.List;
+
+// Uma página de resultados (listagem, busca ou ordenação) e o cursor para pedir a seguinte.
+// O cursor é um texto opaco: deve ser devolvido sem alterações na próxima chamada da mesma consulta.
+// Ele aponta para o último item visto, e não para uma posição, então continua válido mesmo que
+// clientes sejam incluídos ou excluídos entre uma página e outra.
+public final class Pagina<T> {
+
+    private final List<T> itens;
+    private final String cursor; // null = não há mais páginas
+
+    public Pagina(List<T> itens, String cursor) {
+        this.itens = Collections.unmodifiableList(itens);
+        this.cursor = cursor;
+    }
+
+    // Itens da página. Uma busca pode devolver uma página com menos itens que o pedido (até vazia)
+    // e ainda ter continuação: cada página examina uma quantidade limitada de clientes.
+    public List<T> getItens() { return itens; }
+
+    // Cursor para pedir a próxima página, ou null se esta for a última.
+    public String getCursor() { return cursor; }
+
+    // Retorna true se esta for a última página.
+    public boolean isUltima() { return cursor == null; }
+}
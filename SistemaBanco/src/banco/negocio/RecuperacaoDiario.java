@@ -0,0 +1,147 @@
+package banco.negocio;
+
+import banco.modelo.Centavos;
+import banco.modelo.Cliente;
+import banco.modelo.Conta;
+import banco.modelo.ContaCorrente;
+import banco.modelo.ContaInvestimento;
+import banco.modelo.TipoMovimento;
+import banco.persistencia.Diario;
+import java.util.HashSet;
+import java.util.Set;
+
+// Reconstrói o estado dos gerenciadores a partir dos registros do diário (ver Diario.reproduzir).
+// Deve ser usado antes de ligar o diário nos gerenciadores (setDiario), senão cada registro reproduzido seria gravado de novo.
+// Um registro de conta que não existe (ou de conta aberta para um cliente que não existe) lança IllegalStateException:
+// o diário não corresponde aos dados carregados, e ignorar o registro perderia o movimento em silêncio.
+//
+// O diário pode ser reproduzido sobre um instantâneo que já o inclui (ex: o instantâneo foi gravado, mas o diário
+// não pôde ser esvaziado). Movimentos trazem o saldo resultante e podem ser restaurados de novo, mas uma época
+// de remuneração publicada de novo pagaria os juros duas vezes: as épocas até a do instantâneo são puladas
+// (ver remuneracaoPublicada).
+public class RecuperacaoDiario implements Diario.Leitor {
+
+    private final GerenciadorClientes gerenciadorClientes;
+    private final GerenciadorContas gerenciadorContas;
+    private final int epocaInstantaneo; // Épocas até esta já estão nos saldos carregados.
+    private int epocaLida = -1; // Última época lida no diário (-1 = nenhuma ainda).
+    // Contas restauradas pelo diário com um saldo anterior a alguma época já incluída no instantâneo:
+    // quando essa época for pulada, os juros dela precisam ser aplicados a elas.
+    private final Set<Integer> restauradasAntesDaEpoca = new HashSet<>();
+
+    // Deve ser criado depois de carregar o instantâneo (e a época dele, ver GerenciadorContas.setEpocaRemuneracao).
+    public RecuperacaoDiario(GerenciadorClientes gerenciadorClientes, GerenciadorContas gerenciadorContas) {
+        this.gerenciadorClientes = gerenciadorClientes;
+        this.gerenciadorContas = gerenciadorContas;
+        this.epocaInstantaneo = gerenciadorContas.getEpocaRemuneracao();
+    }
+
+    @Override
+    public void clienteAdicionado(String nome, String sobrenome, String rg, String cpf, String endereco) {
+        gerenciadorClientes.adicionar(new Cliente(nome, sobrenome, rg, cpf, endereco));
+    }
+
+    @Override
+    public void clienteAtualizado(String cpf, String nome, String sobrenome, String rg, String endereco) {
+        Cliente cliente = gerenciadorClientes.buscarPorCpf(cpf);
+        if (cliente != null) {
+            gerenciadorClientes.atualizar(cliente, nome, sobrenome, rg, endereco); // Reindexa o cliente uma vez só.
+        }
+    }
+
+    @Override
+    public void clienteExcluido(String cpf) {
+        Cliente cliente = gerenciadorClientes.buscarPorCpf(cpf);
+        if (cliente != null) {
+            gerenciadorClientes.excluir(cliente);
+        }
+    }
+
+    @Override
+    public void contaCorrenteAberta(int numero, String cpfDono, long saldo, long limite) {
+        Cliente dono = dono(cpfDono, numero);
+        if (gerenciadorContas.buscarPorNumero(numero) == null) {
+            gerenciadorContas.adicionar(new ContaCorrente(numero, dono, saldo, limite));
+            restaurada(numero);
+        }
+    }
+
+    @Override
+    public void contaInvestimentoAberta(int numero, String cpfDono, long saldo, long montanteMinimo, long depositoMinimo) {
+        Cliente dono = dono(cpfDono, numero);
+        if (gerenciadorContas.buscarPorNumero(numero) == null) {
+            gerenciadorContas.adicionar(new ContaInvestimento(numero, dono, saldo, montanteMinimo, depositoMinimo));
+            restaurada(numero);
+        }
+    }
+
+    @Override
+    public void contasDoClienteExcluidas(String cpf) {
+        Cliente cliente = gerenciadorClientes.buscarPorCpf(cpf);
+        if (cliente != null) {
+            gerenciadorContas.excluirContasDoCliente(cliente);
+        }
+    }
+
+    // O movimento traz o saldo resultante, então basta restaurá-lo: não é preciso refazer a operação
+    // (e a remuneração não depende de a taxa ter mudado desde então).
+    @Override
+    public void movimento(int numeroConta, TipoMovimento tipo, long valor, long saldoResultante) {
+        Conta conta = gerenciadorContas.buscarPorNumero(numeroConta);
+        if (conta == null) {
+            throw new IllegalStateException("O diário tem um movimento da conta " + numeroConta + ", que não existe.");
+        }
+        gerenciadorContas.restaurarSaldo(conta, saldoResultante);
+        restaurada(numeroConta);
+    }
+
+    // A transferência também traz os dois saldos resultantes.
+    @Override
+    public void transferencia(int contaOrigem, int contaDestino, long valor, long saldoOrigem, long saldoDestino) {
+        movimento(contaOrigem, TipoMovimento.SAQUE, valor, saldoOrigem);
+        movimento(contaDestino, TipoMovimento.DEPOSITO, valor, saldoDestino);
+    }
+
+    // Dono de uma conta aberta no diário. Lança IllegalStateException se o cliente não existir.
+    private Cliente dono(String cpf, int numeroConta) {
+        Cliente dono = gerenciadorClientes.buscarPorCpf(cpf);
+        if (dono == null) {
+            throw new IllegalStateException("O diário abre a conta " + numeroConta + " para o CPF " + cpf + ", que não é de nenhum cliente.");
+        }
+        return dono;
+    }
+
+    // Época posterior ao instantâneo: é publicada de novo, com as mesmas taxas. As contas sem movimento depois dela
+    // recebem os juros no próximo acesso, e as restauradas depois dela já vêm com eles no saldo gravado.
+    // Época já incluída no instantâneo: não é publicada (as contas que o diário não tocou já têm os juros dela),
+    // e só as contas que o diário restaurou para um saldo anterior a ela recebem os juros aqui.
+    @Override
+    public void remuneracaoPublicada(int epoca, int pontosBaseCorrente, int pontosBaseInvestimento) {
+        if (epoca <= epocaInstantaneo) {
+            for (int numero : restauradasAntesDaEpoca) {
+                Conta conta = gerenciadorContas.buscarPorNumero(numero);
+                if (conta != null) { // null: a conta foi excluída mais adiante no diário.
+                    int taxa = conta instanceof ContaInvestimento ? pontosBaseInvestimento : pontosBaseCorrente;
+                    gerenciadorContas.restaurarSaldo(conta, Centavos.aplicarTaxa(conta.getSaldo(), taxa));
+                }
+            }
+        } else {
+            int esperada = gerenciadorContas.getEpocaRemuneracao() + 1;
+            if (epoca != esperada) {
+                throw new IllegalStateException("O diário publica a remuneração " + epoca + ", mas a próxima esperada é a " + esperada + ".");
+            }
+            gerenciadorContas.remunerarTodasSobDemanda(pontosBaseCorrente, pontosBaseInvestimento);
+        }
+        epocaLida = epoca;
+        if (epocaLida >= epocaInstantaneo) {
+            restauradasAntesDaEpoca.clear(); // Não há mais épocas a pular.
+        }
+    }
+
+    // Anota a conta cujo saldo acabou de ser restaurado, se alguma época do instantâneo ainda pode vir depois.
+    private void restaurada(int numero) {
+        if (epocaLida < epocaInstantaneo) {
+            restauradasAntesDaEpoca.add(numero);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package banco.negocio;
+
+import banco.modelo.Conta;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Job de remuneração mensal: aplica remunera() em todas as contas, dividindo o trabalho
+// entre as threads de um ForkJoinPool. Cada conta aplica a taxa do seu tipo (1% corrente, 2% investimento)
+// pelo remunera() polimórfico, e o saldo é alterado por CAS, então o job pode rodar junto com as operações normais.
+public class RemuneracaoEmLote {
+
+    private static final int TAMANHO_MINIMO_TAREFA = 4096; // Abaixo disso a tarefa não é mais dividida.
+    private static final int RELATORIOS = 100; // Quantas vezes, no máximo, o progresso é informado (a cada 1%).
+
+    // Recebe o andamento do job. É chamado pelas threads do pool, não pela thread de quem iniciou o job.
+    public interface OuvinteProgresso {
+        void progresso(long processadas, long total);
+    }
+
+    // Resultado do job: quantidade de contas e tempo gasto.
+    public static class Resultado {
+        private final long total;
+        private final long nanos;
+
+        public Resultado(long total, long nanos) {
+            this.total = total;
+            this.nanos = nanos;
+        }
+
+        public long getTotal() { return total; }
+
+        // Tempo total em milissegundos.
+        public long getMillis() { return nanos / 1_000_000; }
+
+        // Vazão do job em contas por segundo.
+        public double getContasPorSegundo() {
+            return nanos == 0 ? 0 : total * 1_000_000_000.0 / nanos;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final Consumer<Conta> remunerar; // Ação aplicada a cada conta.
+
+    // Construtor que usa o pool comum da JVM (uma thread por núcleo) e chama remunera() em cada conta.
+    public RemuneracaoEmLote() {
+        this(ForkJoinPool.commonPool(), Conta::remunera);
+    }
+
+    // Construtor que usa o pool e a ação informados (ex: para limitar o número de threads,
+    // ou para remunerar passando pelo gerenciador, que também registra o movimento no diário).
+    public RemuneracaoEmLote(ForkJoinPool pool, Consumer<Conta> remunerar) {
+        this.pool = pool;
+        this.remunerar = remunerar;
+    }
+
+    // Remunera todas as contas do array e retorna o total e o tempo gasto.
+    // O ouvinte pode ser null.
+    public Resultado executar(Conta[] contas, OuvinteProgresso ouvinte) {
+        long inicio = System.nanoTime();
+        Andamento andamento = new Andamento(contas.length, ouvinte);
+        pool.invoke(new Tarefa(contas, 0, contas.length, remunerar, andamento));
+        return new Resultado(contas.length, System.nanoTime() - inicio);
+    }
+
+    // Controla o progresso compartilhado entre as tarefas.
+    private static class Andamento {
+        private final long total;
+        private final long passo; // Informa o progresso a cada 'passo' contas.
+        private final OuvinteProgresso ouvinte;
+        private final AtomicLong processadas = new AtomicLong();
+
+        Andamento(long total, OuvinteProgresso ouvinte) {
+            this.total = total;
+            this.passo = Math.max(1, total / RELATORIOS);
+            this.ouvinte = ouvinte;
+        }
+
+        // Soma as contas processadas por uma tarefa e avisa o ouvinte quando um novo passo é atingido.
+        void concluir(int quantidade) {
+            long antes = processadas.getAndAdd(quantidade);
+            long depois = antes + quantidade;
+            if (ouvinte != null && (antes / passo != depois / passo || depois == total)) {
+                ouvinte.progresso(depois, total);
+            }
+        }
+    }
+
+    // Tarefa que divide o intervalo ao meio até ficar pequeno o bastante e então remunera as contas.
+    private static class Tarefa extends RecursiveAction {
+        private static final long serialVersionUID = 1L; // RecursiveAction é Serializable; a tarefa nunca é serializada.
+
+        private final Conta[] contas;
+        private final int inicio, fim;
+        private final Consumer<Conta> remunerar;
+        private final Andamento andamento;
+
+        Tarefa(Conta[] contas, int inicio, int fim, Consumer<Conta> remunerar, Andamento andamento) {
+            this.contas = contas;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.remunerar = remunerar;
+            this.andamento = andamento;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio <= TAMANHO_MINIMO_TAREFA) {
+                for (int i = inicio; i < fim; i++) {
+                    remunerar.accept(contas[i]); // A taxa depende do tipo da conta (despacho polimórfico do remunera()).
+                }
+                andamento.concluir(fim - inicio);
+                return;
+            }
+            int meio = (inicio + fim) >>> 1;
+            invokeAll(new Tarefa(contas, inicio, meio, remunerar, andamento), new Tarefa(contas, meio, fim, remunerar, andamento));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package banco.negocio;
+
+import banco.modelo.Centavos;
+import banco.modelo.Conta;
+
+// Pedido de transferência entre duas contas, usado no processamento em lote (GerenciadorContas.transferirEmLote).
+// O valor é em centavos.
+public final class Transferencia {
+    private final Conta origem;
+    private final Conta destino;
+    private final long valor;
+
+    public Transferencia(Conta origem, Conta destino, long valor) {
+        this.origem = origem;
+        this.destino = destino;
+        this.valor = valor;
+    }
+
+    public Conta getOrigem() { return origem; }
+
+    public Conta getDestino() { return destino; }
+
+    public long getValor() { return valor; }
+
+    @Override
+    public String toString() {
+        return "Transferência da conta " + origem.getNumero() + " para a conta " + destino.getNumero() + " (R$ " + Centavos.formatar(valor) + ")";
+    }
+}
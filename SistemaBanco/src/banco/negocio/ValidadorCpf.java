@@ -0,0 +1,41 @@
+package banco.negocio;
+
+// Validação de CPF pelos dígitos verificadores (os dois últimos dos 11 dígitos).
+public final class ValidadorCpf {
+
+    // Classe utilitária: não deve ser instanciada.
+    private ValidadorCpf() {
+    }
+
+    // Retorna true se o texto tiver exatamente 11 dígitos e os dígitos verificadores conferirem.
+    // CPFs com todos os dígitos iguais (ex: 11111111111) passam no cálculo, mas não são válidos.
+    public static boolean valido(String cpf) {
+        if (cpf == null || cpf.length() != 11) {
+            return false;
+        }
+        int[] d = new int[11];
+        boolean todosIguais = true;
+        for (int i = 0; i < 11; i++) {
+            char c = cpf.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            d[i] = c - '0';
+            todosIguais &= d[i] == d[0];
+        }
+        if (todosIguais) {
+            return false;
+        }
+        return d[9] == digitoVerificador(d, 9) && d[10] == digitoVerificador(d, 10);
+    }
+
+    // Calcula o dígito verificador a partir dos 'quantidade' primeiros dígitos (pesos quantidade+1 até 2).
+    private static int digitoVerificador(int[] d, int quantidade) {
+        int soma = 0;
+        for (int i = 0; i < quantidade; i++) {
+            soma += d[i] * (quantidade + 1 - i);
+        }
+        int resto = soma * 10 % 11;
+        return resto == 10 ? 0 : resto;
+    }
+}
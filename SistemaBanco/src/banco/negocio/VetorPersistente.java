@@ -0,0 +1,183 @@
+package banco.negocio;
+
+// Vetor persistente: uma trie de 32 ramos (como o vetor de Clojure) com posições que podem estar vazias (null).
+// Cada nó interno guarda quantos itens não nulos há em cada filho, então achar a posição do k-ésimo item
+// (selecionar) e contar os itens antes de uma posição (vivosAntes) custam O(32 * log32 n): 4 níveis para 1 milhão.
+//
+// Enquanto um nó pertence à edição atual, as alterações são feitas nele mesmo, sem cópia.
+// congelar() encerra a edição e devolve uma versão imutável em O(1), que compartilha todos os nós com este vetor.
+// Depois disso, a primeira alteração em cada caminho copia os nós dele (um por nível) e a versão congelada
+// continua vendo o estado antigo; o resto da árvore segue compartilhado.
+// Não é thread-safe para alterações. Uma versão congelada pode ser lida por qualquer thread.
+final class VetorPersistente {
+
+    private static final int BITS = 5;
+    static final int LARGURA = 1 << BITS;
+    private static final int MASCARA = LARGURA - 1;
+
+    private static final class No {
+        final Object edicao; // Edição que criou o nó: só ela pode alterá-lo no lugar.
+        final Object[] filhos; // Folha: os itens. Nó interno: os nós filhos.
+        final int[] vivos; // Nó interno: itens não nulos em cada filho. null nas folhas.
+
+        No(Object edicao, boolean folha) {
+            this.edicao = edicao;
+            this.filhos = new Object[LARGURA];
+            this.vivos = folha ? null : new int[LARGURA];
+        }
+
+        No(Object edicao, No original) {
+            this.edicao = edicao;
+            this.filhos = original.filhos.clone();
+            this.vivos = original.vivos == null ? null : original.vivos.clone();
+        }
+    }
+
+    private No raiz;
+    private int deslocamento; // Bits da posição consumidos acima das folhas (0 = a raiz é uma folha).
+    private int tamanho; // Posições usadas, nulas ou não.
+    private int vivos; // Posições não nulas.
+    private Object edicao; // null = versão congelada.
+
+    VetorPersistente() {
+        this.edicao = new Object();
+        this.raiz = new No(edicao, true);
+    }
+
+    private VetorPersistente(No raiz, int deslocamento, int tamanho, int vivos) {
+        this.raiz = raiz;
+        this.deslocamento = deslocamento;
+        this.tamanho = tamanho;
+        this.vivos = vivos;
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    int vivos() {
+        return vivos;
+    }
+
+    // Devolve a versão imutável do estado atual, em O(1). As alterações seguintes não aparecem nela.
+    VetorPersistente congelar() {
+        if (edicao == null) {
+            return this;
+        }
+        VetorPersistente versao = new VetorPersistente(raiz, deslocamento, tamanho, vivos);
+        edicao = new Object(); // Os nós atuais passam a ser da versão: alterar um deles agora exige cópia.
+        return versao;
+    }
+
+    Object get(int posicao) {
+        return folha(posicao)[posicao & MASCARA];
+    }
+
+    // Array da folha que contém a posição (para percorrer 32 posições de uma vez). Não deve ser alterado.
+    Object[] folha(int posicao) {
+        No no = raiz;
+        for (int d = deslocamento; d > 0; d -= BITS) {
+            no = (No) no.filhos[(posicao >>> d) & MASCARA];
+        }
+        return no.filhos;
+    }
+
+    // Acrescenta um item (pode ser null) ao final.
+    void acrescentar(Object item) {
+        verificarEdicao();
+        if (tamanho == LARGURA << deslocamento) {
+            No novaRaiz = new No(edicao, false);
+            novaRaiz.filhos[0] = raiz;
+            novaRaiz.vivos[0] = vivos;
+            raiz = novaRaiz;
+            deslocamento += BITS;
+        }
+        No no = raiz = editavel(raiz);
+        int posicao = tamanho;
+        for (int d = deslocamento; d > 0; d -= BITS) {
+            int i = (posicao >>> d) & MASCARA;
+            No filho = (No) no.filhos[i];
+            filho = filho == null ? new No(edicao, d == BITS) : editavel(filho);
+            no.filhos[i] = filho;
+            if (item != null) {
+                no.vivos[i]++;
+            }
+            no = filho;
+        }
+        no.filhos[posicao & MASCARA] = item;
+        tamanho++;
+        if (item != null) {
+            vivos++;
+        }
+    }
+
+    // Troca o item da posição (null = esvaziar) e devolve o anterior.
+    Object definir(int posicao, Object item) {
+        verificarEdicao();
+        if (posicao < 0 || posicao >= tamanho) {
+            throw new IndexOutOfBoundsException("Posição " + posicao + " fora do vetor de " + tamanho + " posições.");
+        }
+        Object anterior = get(posicao);
+        int delta = (item != null ? 1 : 0) - (anterior != null ? 1 : 0);
+        No no = raiz = editavel(raiz);
+        for (int d = deslocamento; d > 0; d -= BITS) {
+            int i = (posicao >>> d) & MASCARA;
+            No filho = editavel((No) no.filhos[i]);
+            no.filhos[i] = filho;
+            no.vivos[i] += delta;
+            no = filho;
+        }
+        no.filhos[posicao & MASCARA] = item;
+        vivos += delta;
+        return anterior;
+    }
+
+    // Posição do k-ésimo item não nulo (k a partir de 0). k deve ser menor que vivos().
+    int selecionar(int k) {
+        No no = raiz;
+        int posicao = 0;
+        for (int d = deslocamento; d > 0; d -= BITS) {
+            int i = 0;
+            while (k >= no.vivos[i]) {
+                k -= no.vivos[i];
+                i++;
+            }
+            posicao |= i << d;
+            no = (No) no.filhos[i];
+        }
+        for (int i = 0; ; i++) {
+            if (no.filhos[i] != null && k-- == 0) {
+                return posicao | i;
+            }
+        }
+    }
+
+    // Quantidade de itens não nulos antes da posição.
+    int vivosAntes(int posicao) {
+        No no = raiz;
+        int soma = 0;
+        for (int d = deslocamento; d > 0; d -= BITS) {
+            int fim = (posicao >>> d) & MASCARA;
+            for (int i = 0; i < fim; i++) {
+                soma += no.vivos[i];
+            }
+            no = (No) no.filhos[fim];
+        }
+        for (int i = 0, fim = posicao & MASCARA; i < fim; i++) {
+            if (no.filhos[i] != null) {
+                soma++;
+            }
+        }
+        return soma;
+    }
+
+    private No editavel(No no) {
+        return no.edicao == edicao ? no : new No(edicao, no);
+    }
+
+    private void verificarEdicao() {
+        if (edicao == null) {
+            throw new UnsupportedOperationException("Versão congelada não pode ser alterada.");
+        }
+    }
+}
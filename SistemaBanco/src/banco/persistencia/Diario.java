@@ -0,0 +1,358 @@
+package banco.persistencia;
+
+import banco.modelo.Cliente;
+import banco.modelo.Conta;
+import banco.modelo.ContaCorrente;
+import banco.modelo.ContaInvestimento;
+import banco.modelo.TipoMovimento;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Diário (write-ahead log) de tudo que altera clientes e contas, gravado em um arquivo só de acréscimo.
+// Cada registro tem o formato [tamanho int][crc32 int][conteúdo], e o arquivo começa com um cabeçalho fixo.
+//
+// Gravação em grupo (group commit): registrar um evento apenas acrescenta bytes ao arquivo e devolve
+// a posição final do registro. aguardarGravacao(posicao) garante que o disco tem tudo até ali.
+// Quando várias threads esperam ao mesmo tempo, a primeira faz um único force() que cobre todas,
+// e as demais retornam sem chamar o disco de novo.
+//
+// Falha de escrita: o registro cortado é removido do fim do arquivo, para que a reprodução não pare nele
+// e descarte os registros seguintes. Como a operação já alterou a memória, o diário passa a recusar novos
+// registros (e as operações que os gravariam) até ser esvaziado por um instantâneo completo ou reaberto.
+public class Diario implements Closeable {
+
+    private static final int MAGICO = 0x424E4344; // "BNCD"
+    private static final int VERSAO = 1;
+    private static final int TAMANHO_CABECALHO = 8;
+    private static final int TAMANHO_MAXIMO_REGISTRO = 1 << 20; // Registro maior que isso indica arquivo corrompido.
+
+    // Tipos de registro.
+    private static final byte CLIENTE_ADICIONADO = 1;
+    private static final byte CLIENTE_ATUALIZADO = 2;
+    private static final byte CLIENTE_EXCLUIDO = 3;
+    private static final byte CONTA_CORRENTE_ABERTA = 4;
+    private static final byte CONTA_INVESTIMENTO_ABERTA = 5;
+    private static final byte CONTAS_DO_CLIENTE_EXCLUIDAS = 6;
+    private static final byte MOVIMENTO = 7;
+    private static final byte TRANSFERENCIA = 8;
+    private static final byte REMUNERACAO_PUBLICADA = 9;
+
+    // Recebe os eventos na ordem em que foram gravados, durante a reprodução do diário.
+    public interface Leitor {
+        void clienteAdicionado(String nome, String sobrenome, String rg, String cpf, String endereco);
+        void clienteAtualizado(String cpf, String nome, String sobrenome, String rg, String endereco);
+        void clienteExcluido(String cpf);
+        void contaCorrenteAberta(int numero, String cpfDono, long saldo, long limite);
+        void contaInvestimentoAberta(int numero, String cpfDono, long saldo, long montanteMinimo, long depositoMinimo);
+        void contasDoClienteExcluidas(String cpf);
+        void movimento(int numeroConta, TipoMovimento tipo, long valor, long saldoResultante);
+        void transferencia(int contaOrigem, int contaDestino, long valor, long saldoOrigem, long saldoDestino);
+        void remuneracaoPublicada(int epoca, int pontosBaseCorrente, int pontosBaseInvestimento);
+    }
+
+    private final FileChannel canal;
+    private final Object travaEscrita = new Object(); // Serializa os acréscimos ao arquivo.
+    private final Object travaGravacao = new Object(); // Garante um único force() por vez.
+    private long posicaoEscrita; // Fim do último registro escrito (protegido por travaEscrita).
+    private volatile long posicaoGravada; // Tudo antes desta posição já está no disco.
+    private volatile IOException falha; // Primeira falha de escrita ou gravação; depois dela nada mais é aceito.
+
+    private Diario(FileChannel canal) {
+        this.canal = canal;
+    }
+
+    // Abre (ou cria) o diário no arquivo informado.
+    public static Diario abrir(Path arquivo) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Diario diario = new Diario(canal);
+        if (canal.size() < TAMANHO_CABECALHO) {
+            diario.escreverCabecalho();
+        } else {
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+            canal.read(cabecalho, 0);
+            cabecalho.flip();
+            if (cabecalho.getInt() != MAGICO || cabecalho.getInt() != VERSAO) {
+                canal.close();
+                throw new IOException("O arquivo " + arquivo + " não é um diário válido.");
+            }
+        }
+        diario.posicaoEscrita = canal.size();
+        diario.posicaoGravada = diario.posicaoEscrita;
+        return diario;
+    }
+
+    // Reproduz todos os registros válidos, em ordem, no leitor.
+    // Se o final do arquivo tiver um registro incompleto ou corrompido (ex: queda durante a gravação),
+    // ele é descartado e o arquivo é truncado no último registro válido.
+    // Retorna a quantidade de registros reproduzidos.
+    public long reproduzir(Leitor leitor) throws IOException {
+        synchronized (travaEscrita) {
+            long reproduzidos = 0;
+            long posicaoValida = TAMANHO_CABECALHO;
+            canal.position(TAMANHO_CABECALHO);
+            InputStream entradaCanal = Channels.newInputStream(canal);
+            DataInputStream entrada = new DataInputStream(new BufferedInputStream(entradaCanal, 1 << 16));
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] conteudo;
+                try {
+                    int tamanho = entrada.readInt();
+                    int crcGravado = entrada.readInt();
+                    if (tamanho <= 0 || tamanho > TAMANHO_MAXIMO_REGISTRO) {
+                        break;
+                    }
+                    conteudo = new byte[tamanho];
+                    entrada.readFully(conteudo);
+                    crc.reset();
+                    crc.update(conteudo);
+                    if ((int) crc.getValue() != crcGravado) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break; // Fim do arquivo (ou registro cortado no meio).
+                }
+                despachar(conteudo, leitor);
+                posicaoValida += 8 + conteudo.length;
+                reproduzidos++;
+            }
+            if (posicaoValida < canal.size()) {
+                canal.truncate(posicaoValida);
+                canal.force(true);
+            }
+            posicaoEscrita = posicaoValida;
+            posicaoGravada = posicaoValida;
+            return reproduzidos;
+        }
+    }
+
+    // Apaga todos os registros, mantendo só o cabeçalho (usado depois de um snapshot completo).
+    public void truncar() throws IOException {
+        synchronized (travaEscrita) {
+            canal.truncate(TAMANHO_CABECALHO);
+            canal.force(true);
+            posicaoEscrita = TAMANHO_CABECALHO;
+            posicaoGravada = TAMANHO_CABECALHO;
+            falha = null; // O instantâneo gravou o estado da memória: o diário volta a valer a partir dele.
+        }
+    }
+
+    // --- Registro de eventos. Cada método devolve a posição a ser passada para aguardarGravacao. ---
+
+    public long registrarClienteAdicionado(Cliente c) {
+        return anexar(new Registro(CLIENTE_ADICIONADO)
+                .texto(c.getNome()).texto(c.getSobrenome()).texto(c.getRg()).texto(c.getCpf()).texto(c.getEndereco()));
+    }
+
+    public long registrarClienteAtualizado(Cliente c) {
+        return anexar(new Registro(CLIENTE_ATUALIZADO)
+                .texto(c.getCpf()).texto(c.getNome()).texto(c.getSobrenome()).texto(c.getRg()).texto(c.getEndereco()));
+    }
+
+    public long registrarClienteExcluido(String cpf) {
+        return anexar(new Registro(CLIENTE_EXCLUIDO).texto(cpf));
+    }
+
+    public long registrarContaAberta(Conta conta) {
+        Registro r;
+        if (conta instanceof ContaInvestimento) {
+            ContaInvestimento ci = (ContaInvestimento) conta;
+            r = new Registro(CONTA_INVESTIMENTO_ABERTA).inteiro(ci.getNumero()).texto(ci.getDono().getCpf())
+                    .longo(ci.getSaldo()).longo(ci.getMontanteMinimo()).longo(ci.getDepositoMinimo());
+        } else {
+            ContaCorrente cc = (ContaCorrente) conta;
+            r = new Registro(CONTA_CORRENTE_ABERTA).inteiro(cc.getNumero()).texto(cc.getDono().getCpf())
+                    .longo(cc.getSaldo()).longo(cc.getLimite());
+        }
+        return anexar(r);
+    }
+
+    public long registrarContasDoClienteExcluidas(String cpf) {
+        return anexar(new Registro(CONTAS_DO_CLIENTE_EXCLUIDAS).texto(cpf));
+    }
+
+    // Registra um movimento com o saldo resultante. Na reprodução o saldo é restaurado diretamente,
+    // então o resultado não depende de regras ou taxas que possam mudar depois.
+    public long registrarMovimento(int numeroConta, TipoMovimento tipo, long valor, long saldoResultante) {
+        return anexar(new Registro(MOVIMENTO).inteiro(numeroConta).byteTipo(tipo.getCodigo()).longo(valor).longo(saldoResultante));
+    }
+
+    // Registra uma transferência com os saldos resultantes das duas contas.
+    // É um único registro: na recuperação a transferência aparece inteira ou não aparece.
+    public long registrarTransferencia(int contaOrigem, int contaDestino, long valor, long saldoOrigem, long saldoDestino) {
+        return anexar(new Registro(TRANSFERENCIA).inteiro(contaOrigem).inteiro(contaDestino).longo(valor).longo(saldoOrigem).longo(saldoDestino));
+    }
+
+    // Registra uma remuneração sob demanda (uma época da TabelaRemuneracao) com o número dela e as taxas
+    // de cada tipo de conta. Os movimentos gravados depois dela já trazem saldos com essa remuneração aplicada.
+    public long registrarRemuneracao(int epoca, int pontosBaseCorrente, int pontosBaseInvestimento) {
+        return anexar(new Registro(REMUNERACAO_PUBLICADA).inteiro(epoca).inteiro(pontosBaseCorrente).inteiro(pontosBaseInvestimento));
+    }
+
+    // Bloqueia até que tudo o que já foi registrado esteja gravado em disco (usado ao fim de jobs em lote).
+    public void aguardarGravacao() {
+        long posicao;
+        synchronized (travaEscrita) {
+            posicao = posicaoEscrita;
+        }
+        aguardarGravacao(posicao);
+    }
+
+    // Bloqueia até que tudo o que foi registrado até a posição esteja gravado em disco.
+    public void aguardarGravacao(long posicao) {
+        if (posicaoGravada >= posicao) {
+            return; // Já coberto por um force() anterior.
+        }
+        synchronized (travaGravacao) {
+            if (posicaoGravada >= posicao) {
+                return; // Outra thread gravou enquanto esperávamos: o force() dela valeu para nós também.
+            }
+            long alvo;
+            synchronized (travaEscrita) {
+                alvo = posicaoEscrita; // Tudo escrito até agora entra neste force().
+            }
+            try {
+                canal.force(false);
+            } catch (IOException e) {
+                synchronized (travaEscrita) {
+                    falha = e; // Não se sabe o que chegou ao disco: nada do que foi escrito depois pode ser confirmado.
+                }
+                throw new UncheckedIOException("Falha ao gravar o diário em disco.", e);
+            }
+            posicaoGravada = alvo;
+        }
+    }
+
+    // Fecha o arquivo, garantindo antes que tudo foi gravado.
+    @Override
+    public void close() throws IOException {
+        synchronized (travaEscrita) {
+            canal.force(false);
+            canal.close();
+        }
+    }
+
+    // Acrescenta o registro ao final do arquivo e devolve a posição do seu fim.
+    // Se a escrita falhar no meio, trunca o arquivo de volta ao início do registro e marca o diário como falho.
+    private long anexar(Registro registro) {
+        byte[] conteudo = registro.bytes();
+        CRC32 crc = new CRC32();
+        crc.update(conteudo);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + conteudo.length);
+        buffer.putInt(conteudo.length).putInt((int) crc.getValue()).put(conteudo).flip();
+        synchronized (travaEscrita) {
+            if (falha != null) {
+                throw new UncheckedIOException("O diário está inutilizável desde uma falha anterior de escrita.", falha);
+            }
+            long inicio = posicaoEscrita;
+            try {
+                while (buffer.hasRemaining()) {
+                    posicaoEscrita += canal.write(buffer, posicaoEscrita);
+                }
+            } catch (IOException e) {
+                falha = e;
+                posicaoEscrita = inicio;
+                try {
+                    canal.truncate(inicio);
+                } catch (IOException erroTruncar) {
+                    // O registro cortado fica no fim do arquivo, mas nada é escrito depois dele: a reprodução o descarta.
+                    e.addSuppressed(erroTruncar);
+                }
+                throw new UncheckedIOException("Falha ao escrever no diário.", e);
+            }
+            return posicaoEscrita;
+        }
+    }
+
+    private void escreverCabecalho() throws IOException {
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO).putInt(MAGICO).putInt(VERSAO);
+        cabecalho.flip();
+        canal.truncate(0);
+        canal.write(cabecalho, 0);
+        canal.force(true);
+    }
+
+    // Decodifica um registro e chama o método correspondente do leitor.
+    private static void despachar(byte[] conteudo, Leitor leitor) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(conteudo));
+        byte tipo = in.readByte();
+        switch (tipo) {
+            case CLIENTE_ADICIONADO:
+                leitor.clienteAdicionado(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+                break;
+            case CLIENTE_ATUALIZADO:
+                leitor.clienteAtualizado(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+                break;
+            case CLIENTE_EXCLUIDO:
+                leitor.clienteExcluido(in.readUTF());
+                break;
+            case CONTA_CORRENTE_ABERTA:
+                leitor.contaCorrenteAberta(in.readInt(), in.readUTF(), in.readLong(), in.readLong());
+                break;
+            case CONTA_INVESTIMENTO_ABERTA:
+                leitor.contaInvestimentoAberta(in.readInt(), in.readUTF(), in.readLong(), in.readLong(), in.readLong());
+                break;
+            case CONTAS_DO_CLIENTE_EXCLUIDAS:
+                leitor.contasDoClienteExcluidas(in.readUTF());
+                break;
+            case MOVIMENTO:
+                leitor.movimento(in.readInt(), TipoMovimento.doCodigo(in.readByte()), in.readLong(), in.readLong());
+                break;
+            case TRANSFERENCIA:
+                leitor.transferencia(in.readInt(), in.readInt(), in.readLong(), in.readLong(), in.readLong());
+                break;
+            case REMUNERACAO_PUBLICADA:
+                leitor.remuneracaoPublicada(in.readInt(), in.readInt(), in.readInt());
+                break;
+            default:
+                throw new IOException("Tipo de registro desconhecido no diário: " + tipo);
+        }
+    }
+
+    // Monta o conteúdo de um registro campo a campo.
+    private static class Registro {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        Registro(byte tipo) {
+            byteTipo(tipo);
+        }
+
+        Registro byteTipo(byte valor) {
+            try { out.writeByte(valor); } catch (IOException e) { throw new UncheckedIOException(e); }
+            return this;
+        }
+
+        Registro inteiro(int valor) {
+            try { out.writeInt(valor); } catch (IOException e) { throw new UncheckedIOException(e); }
+            return this;
+        }
+
+        Registro longo(long valor) {
+            try { out.writeLong(valor); } catch (IOException e) { throw new UncheckedIOException(e); }
+            return this;
+        }
+
+        Registro texto(String valor) {
+            try { out.writeUTF(valor); } catch (IOException e) { throw new UncheckedIOException(e); }
+            return this;
+        }
+
+        byte[] bytes() {
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package banco.persistencia;
+
+import banco.modelo.Cliente;
+import banco.modelo.Conta;
+import banco.modelo.ContaCorrente;
+import banco.modelo.ContaInvestimento;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Instantâneo (snapshot) binário de todos os clientes e contas, usado para iniciar o sistema
+// sem recriar os dados um a um. Formato do arquivo (big-endian):
+//
+//   cabeçalho: [int mágico][int versão][int próximo número de conta][int clientes][int contas][int blocos]
+//              [long posição das contas][long posição da tabela de blocos][int época da remuneração]
+//   clientes:  blocos de até CLIENTES_POR_BLOCO clientes; cada cliente são 5 textos [short tamanho][bytes UTF-8]
+//   contas:    registros de tamanho fixo [byte tipo][int número][int índice do dono][long saldo][long][long]
+//   tabela:    [long posição][int tamanho em bytes] de cada bloco de clientes
+//
+// A tabela de blocos e o tamanho fixo das contas permitem dividir a leitura entre threads:
+// cada uma mapeia (mmap) o seu trecho do arquivo e decodifica sem depender das outras.
+// A conta guarda a posição do dono no arquivo, e não o CPF, então ligar conta e cliente é um acesso a array.
+public final class Instantaneo {
+
+    private static final int MAGICO = 0x424E4349; // "BNCI"
+    private static final int VERSAO = 2; // A versão 1, sem a época da remuneração, ainda é lida (época 0).
+    private static final int TAMANHO_CABECALHO = 44;
+    private static final int TAMANHO_CABECALHO_V1 = 40;
+    private static final int CLIENTES_POR_BLOCO = 1 << 16;
+    private static final int TAMANHO_CONTA = 1 + 4 + 4 + 8 + 8 + 8;
+    private static final int CONTAS_POR_TRECHO = 1 << 20; // Contas decodificadas por tarefa na leitura.
+    private static final int TAMANHO_ENTRADA_TABELA = 8 + 4;
+    private static final int TAMANHO_BUFFER = 1 << 20; // Buffer de escrita.
+
+    // Tipos de conta.
+    private static final byte CONTA_CORRENTE = 1;
+    private static final byte CONTA_INVESTIMENTO = 2;
+
+    // Conteúdo lido de um instantâneo.
+    public static class Dados {
+        private final Cliente[] clientes;
+        private final Conta[] contas;
+        private final int proximoNumero;
+        private final int epocaRemuneracao;
+
+        Dados(Cliente[] clientes, Conta[] contas, int proximoNumero, int epocaRemuneracao) {
+            this.clientes = clientes;
+            this.contas = contas;
+            this.proximoNumero = proximoNumero;
+            this.epocaRemuneracao = epocaRemuneracao;
+        }
+
+        public Cliente[] getClientes() { return clientes; }
+        public Conta[] getContas() { return contas; }
+
+        // Valor do contador de números de conta no momento da gravação.
+        public int getProximoNumero() { return proximoNumero; }
+
+        // Última remuneração sob demanda já incluída nos saldos gravados (ver GerenciadorContas.getEpocaRemuneracao).
+        public int getEpocaRemuneracao() { return epocaRemuneracao; }
+    }
+
+    // Classe utilitária: não deve ser instanciada.
+    private Instantaneo() {
+    }
+
+    // Grava clientes e contas no arquivo. A gravação é feita em um arquivo temporário que só substitui
+    // o anterior depois de completo e sincronizado, então uma queda no meio nunca deixa um instantâneo pela metade.
+    // Os dados não devem ser alterados durante a gravação.
+    public static void gravar(Path arquivo, List<Cliente> clientes, List<Conta> contas, int proximoNumero, int epocaRemuneracao) throws IOException {
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        int blocos = (clientes.size() + CLIENTES_POR_BLOCO - 1) / CLIENTES_POR_BLOCO;
+        long[] posicoesBlocos = new long[blocos];
+        int[] tamanhosBlocos = new int[blocos];
+
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Escritor saida = new Escritor(canal, TAMANHO_CABECALHO); // O cabeçalho é escrito por último.
+
+            Map<Cliente, Integer> indices = new HashMap<>(clientes.size() * 4 / 3 + 1);
+            for (int i = 0; i < clientes.size(); i++) {
+                if (i % CLIENTES_POR_BLOCO == 0) {
+                    fecharBloco(saida, posicoesBlocos, tamanhosBlocos, i / CLIENTES_POR_BLOCO - 1);
+                    posicoesBlocos[i / CLIENTES_POR_BLOCO] = saida.posicao();
+                }
+                Cliente c = clientes.get(i);
+                saida.texto(c.getNome()).texto(c.getSobrenome()).texto(c.getRg()).texto(c.getCpf()).texto(c.getEndereco());
+                indices.put(c, i);
+            }
+            fecharBloco(saida, posicoesBlocos, tamanhosBlocos, blocos - 1);
+
+            long posicaoContas = saida.posicao();
+            for (Conta conta : contas) {
+                Integer dono = indices.get(conta.getDono());
+                if (dono == null) {
+                    throw new IOException("A conta " + conta.getNumero() + " pertence a um cliente que não está no instantâneo.");
+                }
+                if (conta instanceof ContaInvestimento) {
+                    ContaInvestimento ci = (ContaInvestimento) conta;
+                    saida.byteTipo(CONTA_INVESTIMENTO).inteiro(ci.getNumero()).inteiro(dono)
+                            .longo(ci.getSaldo()).longo(ci.getMontanteMinimo()).longo(ci.getDepositoMinimo());
+                } else {
+                    ContaCorrente cc = (ContaCorrente) conta;
+                    saida.byteTipo(CONTA_CORRENTE).inteiro(cc.getNumero()).inteiro(dono)
+                            .longo(cc.getSaldo()).longo(cc.getLimite()).longo(0);
+                }
+            }
+
+            long posicaoTabela = saida.posicao();
+            for (int b = 0; b < blocos; b++) {
+                saida.longo(posicoesBlocos[b]).inteiro(tamanhosBlocos[b]);
+            }
+            saida.descarregar();
+
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+            cabecalho.putInt(MAGICO).putInt(VERSAO).putInt(proximoNumero).putInt(clientes.size()).putInt(contas.size())
+                    .putInt(blocos).putLong(posicaoContas).putLong(posicaoTabela).putInt(epocaRemuneracao).flip();
+            while (cabecalho.hasRemaining()) {
+                canal.write(cabecalho, cabecalho.position());
+            }
+            canal.force(true);
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Lê o instantâneo. Os blocos de clientes e os trechos de contas são mapeados em memória
+    // e decodificados em paralelo. O contador de números de conta não é alterado aqui:
+    // cabe ao chamador aplicar getProximoNumero() depois de carregar os dados.
+    public static Dados ler(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanhoArquivo = canal.size();
+            if (tamanhoArquivo < TAMANHO_CABECALHO_V1) {
+                throw new IOException("Instantâneo incompleto.");
+            }
+            ByteBuffer cabecalho = canal.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(tamanhoArquivo, TAMANHO_CABECALHO));
+            int magico = cabecalho.getInt();
+            int versao = cabecalho.getInt();
+            if (magico != MAGICO || (versao != VERSAO && versao != 1)) {
+                throw new IOException("Arquivo não é um instantâneo do sistema bancário.");
+            }
+            int tamanhoCabecalho = versao == 1 ? TAMANHO_CABECALHO_V1 : TAMANHO_CABECALHO;
+            if (tamanhoArquivo < tamanhoCabecalho) {
+                throw new IOException("Instantâneo incompleto.");
+            }
+            int proximoNumero = cabecalho.getInt();
+            int totalClientes = cabecalho.getInt();
+            int totalContas = cabecalho.getInt();
+            int blocos = cabecalho.getInt();
+            long posicaoContas = cabecalho.getLong();
+            long posicaoTabela = cabecalho.getLong();
+            int epocaRemuneracao = versao == 1 ? 0 : cabecalho.getInt();
+            if (totalClientes < 0 || totalContas < 0
+                    || blocos != (totalClientes + CLIENTES_POR_BLOCO - 1) / CLIENTES_POR_BLOCO
+                    || posicaoTabela != posicaoContas + (long) totalContas * TAMANHO_CONTA
+                    || tamanhoArquivo != posicaoTabela + (long) blocos * TAMANHO_ENTRADA_TABELA) {
+                throw new IOException("Instantâneo corrompido: tamanhos não conferem.");
+            }
+
+            ByteBuffer tabela = canal.map(FileChannel.MapMode.READ_ONLY, posicaoTabela, (long) blocos * TAMANHO_ENTRADA_TABELA);
+            long[] posicoesBlocos = new long[blocos];
+            int[] tamanhosBlocos = new int[blocos];
+            for (int b = 0; b < blocos; b++) {
+                posicoesBlocos[b] = tabela.getLong();
+                tamanhosBlocos[b] = tabela.getInt();
+                if (posicoesBlocos[b] < tamanhoCabecalho || posicoesBlocos[b] + tamanhosBlocos[b] > posicaoContas) {
+                    throw new IOException("Instantâneo corrompido: bloco " + b + " fora da área de clientes.");
+                }
+            }
+
+            Cliente[] clientes = new Cliente[totalClientes];
+            Conta[] contas = new Conta[totalContas];
+            try {
+                IntStream.range(0, blocos).parallel().forEach(b -> lerBloco(canal, posicoesBlocos[b], tamanhosBlocos[b],
+                        clientes, b * CLIENTES_POR_BLOCO, Math.min(totalClientes, (b + 1) * CLIENTES_POR_BLOCO)));
+                int trechos = (totalContas + CONTAS_POR_TRECHO - 1) / CONTAS_POR_TRECHO;
+                IntStream.range(0, trechos).parallel().forEach(t -> lerContas(canal, posicaoContas, clientes, contas,
+                        t * CONTAS_POR_TRECHO, Math.min(totalContas, (t + 1) * CONTAS_POR_TRECHO)));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return new Dados(clientes, contas, proximoNumero, epocaRemuneracao);
+        }
+    }
+
+    // Decodifica os clientes [inicio, fim) a partir do bloco mapeado.
+    private static void lerBloco(FileChannel canal, long posicao, int tamanho, Cliente[] clientes, int inicio, int fim) {
+        try {
+            MappedByteBuffer bloco = canal.map(FileChannel.MapMode.READ_ONLY, posicao, tamanho);
+            byte[] auxiliar = new byte[0xFFFF]; // Maior texto possível.
+            for (int i = inicio; i < fim; i++) {
+                String nome = lerTexto(bloco, auxiliar);
+                String sobrenome = lerTexto(bloco, auxiliar);
+                String rg = lerTexto(bloco, auxiliar);
+                String cpf = lerTexto(bloco, auxiliar);
+                String endereco = lerTexto(bloco, auxiliar);
+                clientes[i] = new Cliente(nome, sobrenome, rg, cpf, endereco);
+            }
+            if (bloco.hasRemaining()) {
+                throw new IOException("Instantâneo corrompido: sobraram bytes no bloco de clientes.");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            throw new UncheckedIOException(new IOException("Instantâneo corrompido: bloco de clientes ilegível.", e));
+        }
+    }
+
+    // Decodifica as contas [inicio, fim), ligando cada uma ao seu dono já lido.
+    // As contas são criadas pelo construtor de recuperação, que mantém número e saldo gravados.
+    private static void lerContas(FileChannel canal, long posicaoContas, Cliente[] clientes, Conta[] contas, int inicio, int fim) {
+        try {
+            MappedByteBuffer trecho = canal.map(FileChannel.MapMode.READ_ONLY,
+                    posicaoContas + (long) inicio * TAMANHO_CONTA, (long) (fim - inicio) * TAMANHO_CONTA);
+            for (int i = inicio; i < fim; i++) {
+                byte tipo = trecho.get();
+                int numero = trecho.getInt();
+                int dono = trecho.getInt();
+                long saldo = trecho.getLong();
+                long parametro1 = trecho.getLong();
+                long parametro2 = trecho.getLong();
+                if (dono < 0 || dono >= clientes.length) {
+                    throw new IOException("Instantâneo corrompido: conta " + numero + " sem dono válido.");
+                }
+                switch (tipo) {
+                    case CONTA_CORRENTE:
+                        contas[i] = new ContaCorrente(numero, clientes[dono], saldo, parametro1);
+                        break;
+                    case CONTA_INVESTIMENTO:
+                        contas[i] = new ContaInvestimento(numero, clientes[dono], saldo, parametro1, parametro2);
+                        break;
+                    default:
+                        throw new IOException("Instantâneo corrompido: tipo de conta desconhecido " + tipo + ".");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String lerTexto(ByteBuffer origem, byte[] auxiliar) {
+        int tamanho = origem.getShort() & 0xFFFF;
+        origem.get(auxiliar, 0, tamanho);
+        return new String(auxiliar, 0, tamanho, StandardCharsets.UTF_8);
+    }
+
+    // Registra o tamanho do bloco que termina na posição atual (índice negativo = nenhum bloco aberto).
+    private static void fecharBloco(Escritor saida, long[] posicoes, int[] tamanhos, int bloco) throws IOException {
+        if (bloco >= 0) {
+            long tamanho = saida.posicao() - posicoes[bloco];
+            if (tamanho > Integer.MAX_VALUE) {
+                throw new IOException("Bloco de clientes grande demais para o instantâneo.");
+            }
+            tamanhos[bloco] = (int) tamanho;
+        }
+    }
+
+    // Escrita sequencial com buffer sobre o canal, sabendo a posição atual no arquivo.
+    private static class Escritor {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+        private long posicao;
+
+        Escritor(FileChannel canal, long posicaoInicial) {
+            this.canal = canal;
+            this.posicao = posicaoInicial;
+        }
+
+        long posicao() {
+            return posicao + buffer.position();
+        }
+
+        Escritor byteTipo(byte valor) throws IOException {
+            garantir(1);
+            buffer.put(valor);
+            return this;
+        }
+
+        Escritor inteiro(int valor) throws IOException {
+            garantir(4);
+            buffer.putInt(valor);
+            return this;
+        }
+
+        Escritor longo(long valor) throws IOException {
+            garantir(8);
+            buffer.putLong(valor);
+            return this;
+        }
+
+        Escritor texto(String valor) throws IOException {
+            byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IOException("Texto grande demais para o instantâneo.");
+            }
+            garantir(2 + bytes.length);
+            buffer.putShort((short) bytes.length).put(bytes);
+            return this;
+        }
+
+        // Esvazia o buffer se não couberem mais 'bytes'.
+        private void garantir(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                descarregar();
+            }
+        }
+
+        void descarregar() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                posicao += canal.write(buffer, posicao);
+            }
+            buffer.clear();
+        }
+    }
+}